@@ -0,0 +1,164 @@
+package com.ums.cache;
+
+import com.ums.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The form in which users are kept in the local and Redis caches. It has no
+ * password hash or MFA secret, so neither ever leaves the database through
+ * the cache; code that needs them must read the user from the repository.
+ */
+public class CachedUser {
+    
+    private UUID id;
+    private String username;
+    private String email;
+    private String phone;
+    private User.UserStatus status;
+    private boolean mfaEnabled;
+    private LocalDateTime lastLoginAt;
+    private int loginAttempts;
+    private LocalDateTime lockedUntil;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
+    
+    public CachedUser() {}
+    
+    public static CachedUser from(User user) {
+        CachedUser cached = new CachedUser();
+        cached.id = user.getId();
+        cached.username = user.getUsername();
+        cached.email = user.getEmail();
+        cached.phone = user.getPhone();
+        cached.status = user.getStatus();
+        cached.mfaEnabled = user.isMfaEnabled();
+        cached.lastLoginAt = user.getLastLoginAt();
+        cached.loginAttempts = user.getLoginAttempts();
+        cached.lockedUntil = user.getLockedUntil();
+        cached.createdAt = user.getCreatedAt();
+        cached.updatedAt = user.getUpdatedAt();
+        cached.version = user.getVersion();
+        return cached;
+    }
+    
+    /**
+     * Returns a user entity with the secret fields left null.
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPhone(phone);
+        user.setStatus(status);
+        user.setMfaEnabled(mfaEnabled);
+        user.setLastLoginAt(lastLoginAt);
+        user.setLoginAttempts(loginAttempts);
+        user.setLockedUntil(lockedUntil);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        user.setVersion(version);
+        user.markClean();
+        return user;
+    }
+    
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+    
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    
+    public String getPhone() {
+        return phone;
+    }
+    
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+    
+    public User.UserStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(User.UserStatus status) {
+        this.status = status;
+    }
+    
+    public boolean isMfaEnabled() {
+        return mfaEnabled;
+    }
+    
+    public void setMfaEnabled(boolean mfaEnabled) {
+        this.mfaEnabled = mfaEnabled;
+    }
+    
+    public LocalDateTime getLastLoginAt() {
+        return lastLoginAt;
+    }
+    
+    public void setLastLoginAt(LocalDateTime lastLoginAt) {
+        this.lastLoginAt = lastLoginAt;
+    }
+    
+    public int getLoginAttempts() {
+        return loginAttempts;
+    }
+    
+    public void setLoginAttempts(int loginAttempts) {
+        this.loginAttempts = loginAttempts;
+    }
+    
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+    
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ums.cache;
+
+import com.ums.dto.permission.PermissionResponse;
+import com.ums.entity.Permission;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable copy of a granted permission, safe to share between requests.
+ * Each read hands out a fresh {@link PermissionResponse}.
+ */
+public record PermissionSnapshot(UUID id, String name, String resource, String action,
+                                 String conditions, LocalDateTime createdAt) {
+    
+    public static PermissionSnapshot from(Permission permission) {
+        return new PermissionSnapshot(
+            permission.getId(),
+            permission.getName(),
+            permission.getResource() != null ? permission.getResource().getName() : null,
+            permission.getAction(),
+            permission.getConditions(),
+            permission.getCreatedAt());
+    }
+    
+    public PermissionResponse toResponse() {
+        PermissionResponse response = new PermissionResponse();
+        response.setId(id);
+        response.setName(name);
+        response.setResource(resource);
+        response.setAction(action);
+        response.setConditions(conditions);
+        response.setCreatedAt(createdAt);
+        return response;
+    }
+}
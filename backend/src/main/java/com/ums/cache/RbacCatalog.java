@@ -0,0 +1,273 @@
+package com.ums.cache;
+
+import com.ums.entity.Permission;
+import com.ums.entity.Resource;
+import com.ums.entity.Role;
+import com.ums.repository.PermissionRepository;
+import com.ums.repository.ResourceRepository;
+import com.ums.repository.RoleRepository;
+import com.ums.util.ResourcePathMatcher;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the roles, permissions and resources tables. Readers get
+ * an immutable snapshot with id and name indexes, plus a path trie compiled
+ * from the API resource identifiers; a change builds a new
+ * snapshot and swaps it in atomically, so lookups never lock or see a
+ * half-applied reload.
+ *
+ * The catalog version is a cluster-wide counter in Redis, bumped after each
+ * committed change and broadcast so every node reloads. Clients can cache
+ * RBAC metadata keyed by it. Entities handed out are shared between
+ * requests and must not be modified; write paths read from the
+ * repositories instead.
+ */
+@Component
+public class RbacCatalog implements MessageListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RbacCatalog.class);
+    
+    static final String CHANGE_CHANNEL = "ums:rbac-catalog:changed";
+    private static final String VERSION_KEY = "ums:rbac-catalog:version";
+    private static final String API_TYPE = "API";
+    
+    @Autowired
+    private RoleRepository roleRepository;
+    
+    @Autowired
+    private PermissionRepository permissionRepository;
+    
+    @Autowired
+    private ResourceRepository resourceRepository;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+    
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+    
+    // Used when Redis is unavailable, so the version still moves on this node
+    private final AtomicLong localVersion = new AtomicLong();
+    
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+    
+    /**
+     * Safety net for a missed change message.
+     */
+    @Scheduled(initialDelayString = "${ums.rbac-catalog.refresh-interval-ms:300000}",
+               fixedDelayString = "${ums.rbac-catalog.refresh-interval-ms:300000}")
+    public void refresh() {
+        reload();
+    }
+    
+    public long version() {
+        return current.get().version;
+    }
+    
+    /**
+     * Looks a role up by id. A miss falls through to the database, covering
+     * a role created on another node whose change message has not arrived.
+     */
+    public Optional<Role> findRole(UUID id) {
+        Role role = current.get().rolesById.get(id);
+        return role != null ? Optional.of(role) : roleRepository.findById(id);
+    }
+    
+    public Optional<Role> findRoleByName(String name) {
+        Role role = current.get().rolesByName.get(name);
+        return role != null ? Optional.of(role) : roleRepository.findByName(name);
+    }
+    
+    public Optional<Permission> findPermission(UUID id) {
+        Permission permission = current.get().permissionsById.get(id);
+        return permission != null ? Optional.of(permission) : permissionRepository.findById(id);
+    }
+    
+    public Optional<Permission> findPermissionByName(String name) {
+        Permission permission = current.get().permissionsByName.get(name);
+        return permission != null ? Optional.of(permission) : permissionRepository.findByName(name);
+    }
+    
+    public Optional<Resource> findResource(UUID id) {
+        Resource resource = current.get().resourcesById.get(id);
+        return resource != null ? Optional.of(resource) : resourceRepository.findById(id);
+    }
+    
+    public Optional<Resource> findResourceByName(String name) {
+        Resource resource = current.get().resourcesByName.get(name);
+        return resource != null ? Optional.of(resource) : resourceRepository.findByName(name);
+    }
+    
+    /**
+     * Resolves a request path to the most specific API resource whose
+     * identifier pattern matches it. No database fallback: unmatched paths
+     * simply have no resource.
+     */
+    public Optional<Resource> resolveApiResource(String path) {
+        return Optional.ofNullable(current.get().apiResources.match(path));
+    }
+    
+    /**
+     * Records a change to roles, permissions or resources. Inside a
+     * transaction the version bump and reload wait for the commit, so no
+     * node loads the tables before the change is visible.
+     */
+    public void markChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishChange();
+                }
+            });
+        } else {
+            publishChange();
+        }
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            long version = Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8));
+            if (version > current.get().version) {
+                reload();
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed RBAC catalog change message");
+        }
+    }
+    
+    /**
+     * Loads all three tables into a new snapshot and swaps it in. The version
+     * is read before the tables, so a snapshot is never labelled newer than
+     * its contents.
+     */
+    public synchronized void reload() {
+        try {
+            long version = readVersion();
+            Snapshot snapshot = new Snapshot(version,
+                roleRepository.findAllActive(),
+                permissionRepository.findAllActive(),
+                resourceRepository.findAll());
+            current.set(snapshot);
+            logger.debug("Loaded RBAC catalog version {}", version);
+        } catch (Exception e) {
+            // Keep serving the previous snapshot; misses still reach the database
+            logger.error("Failed to load RBAC catalog", e);
+        }
+    }
+    
+    private void publishChange() {
+        long version;
+        try {
+            version = redisTemplate.opsForValue().increment(VERSION_KEY);
+        } catch (Exception e) {
+            logger.error("Failed to bump RBAC catalog version", e);
+            reloadLocally();
+            return;
+        }
+        reload();
+        try {
+            redisTemplate.convertAndSend(CHANGE_CHANNEL, Long.toString(version));
+        } catch (Exception e) {
+            // Other nodes catch up on their scheduled refresh
+            logger.error("Failed to broadcast RBAC catalog change", e);
+        }
+    }
+    
+    private void reloadLocally() {
+        localVersion.updateAndGet(v -> Math.max(v, current.get().version) + 1);
+        reload();
+    }
+    
+    private long readVersion() {
+        try {
+            String value = redisTemplate.opsForValue().get(VERSION_KEY);
+            if (value != null) {
+                return Math.max(Long.parseLong(value), localVersion.get());
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to read RBAC catalog version: {}", e.getMessage());
+        }
+        return localVersion.get();
+    }
+    
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, List.of(), List.of(), List.of());
+        
+        final long version;
+        final Map<UUID, Role> rolesById;
+        final Map<String, Role> rolesByName;
+        final Map<UUID, Permission> permissionsById;
+        final Map<String, Permission> permissionsByName;
+        final Map<UUID, Resource> resourcesById;
+        final Map<String, Resource> resourcesByName;
+        final ResourcePathMatcher<Resource> apiResources;
+        
+        Snapshot(long version, List<Role> roles, List<Permission> permissions, List<Resource> resources) {
+            this.version = version;
+            Map<UUID, Role> roleIds = new HashMap<>();
+            Map<String, Role> roleNames = new HashMap<>();
+            for (Role role : roles) {
+                roleIds.put(role.getId(), role);
+                roleNames.put(role.getName(), role);
+            }
+            Map<UUID, Permission> permissionIds = new HashMap<>();
+            Map<String, Permission> permissionNames = new HashMap<>();
+            for (Permission permission : permissions) {
+                permissionIds.put(permission.getId(), permission);
+                permissionNames.put(permission.getName(), permission);
+            }
+            Map<UUID, Resource> resourceIds = new HashMap<>();
+            Map<String, Resource> resourceNames = new HashMap<>();
+            Map<String, Resource> apiPatterns = new HashMap<>();
+            for (Resource resource : resources) {
+                resourceIds.put(resource.getId(), resource);
+                resourceNames.put(resource.getName(), resource);
+                if (API_TYPE.equals(resource.getType()) && resource.getIdentifier() != null) {
+                    apiPatterns.put(resource.getIdentifier(), resource);
+                }
+            }
+            this.rolesById = Map.copyOf(roleIds);
+            this.rolesByName = Map.copyOf(roleNames);
+            this.permissionsById = Map.copyOf(permissionIds);
+            this.permissionsByName = Map.copyOf(permissionNames);
+            this.resourcesById = Map.copyOf(resourceIds);
+            this.resourcesByName = Map.copyOf(resourceNames);
+            this.apiResources = ResourcePathMatcher.compile(apiPatterns);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ums.cache;
+
+import com.ums.event.RolePermissionsChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-role snapshots of granted permissions. A snapshot is an immutable list
+ * replaced as a whole, never edited in place. Changes to a role's grants
+ * ({@link RolePermissionsChangedEvent}) evict its snapshot on every node
+ * through a pub/sub channel; changes to permissions themselves clear all
+ * snapshots.
+ */
+@Component
+public class RolePermissionCache implements MessageListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RolePermissionCache.class);
+    
+    static final String INVALIDATION_CHANNEL = "ums:role-permissions:invalidate";
+    private static final String ALL = "*";
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+    
+    private final Map<UUID, List<PermissionSnapshot>> snapshots = new ConcurrentHashMap<>();
+    
+    // Bumped on every eviction; a load that overlaps one does not populate the cache
+    private final AtomicLong evictions = new AtomicLong();
+    
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+    
+    /**
+     * Returns the role's snapshot, loading it on a miss. An empty loader
+     * result (unknown role) is not cached.
+     */
+    public Optional<List<PermissionSnapshot>> get(UUID roleId,
+                                                  Function<UUID, Optional<List<PermissionSnapshot>>> loader) {
+        List<PermissionSnapshot> cached = snapshots.get(roleId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        
+        long generation = evictions.get();
+        Optional<List<PermissionSnapshot>> loaded = loader.apply(roleId).map(List::copyOf);
+        loaded.ifPresent(snapshot -> {
+            if (evictions.get() == generation) {
+                snapshots.put(roleId, snapshot);
+            }
+        });
+        return loaded;
+    }
+    
+    /**
+     * Drops the role's snapshot on every node, again after commit when called
+     * inside a transaction.
+     */
+    public void evict(UUID roleId) {
+        afterChange(roleId.toString());
+    }
+    
+    public void evictAll() {
+        afterChange(ALL);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRolePermissionsChanged(RolePermissionsChangedEvent event) {
+        // Already after commit, so one eviction is enough
+        evictEverywhere(event.roleId().toString());
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String target = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            evictLocal(target);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring malformed role permission invalidation message");
+        }
+    }
+    
+    private void afterChange(String target) {
+        evictEverywhere(target);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(target);
+                }
+            });
+        }
+    }
+    
+    private void evictEverywhere(String target) {
+        evictLocal(target);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, target);
+        } catch (Exception e) {
+            logger.error("Failed to broadcast role permission eviction for {}", target, e);
+        }
+    }
+    
+    private void evictLocal(String target) {
+        evictions.incrementAndGet();
+        if (ALL.equals(target)) {
+            snapshots.clear();
+        } else {
+            snapshots.remove(UUID.fromString(target));
+        }
+    }
+}
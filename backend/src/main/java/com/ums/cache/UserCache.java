@@ -0,0 +1,204 @@
+package com.ums.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through user cache: a bounded in-process map in front of Redis.
+ * Evictions delete the Redis entry and are broadcast on a pub/sub channel so
+ * every node drops its local copy. Redis being unavailable only costs the
+ * L2 hit; reads then go to the loader.
+ * <p>
+ * A node can load a row just before another node commits a change to it, and
+ * the eviction can reach Redis before that load is written back. Each eviction
+ * therefore leaves a short-lived marker, and the Redis write is refused while
+ * the marker exists or when Redis already holds the same or a newer version.
+ */
+@Component
+public class UserCache implements MessageListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+    
+    static final String INVALIDATION_CHANNEL = "ums:user-cache:invalidate";
+    private static final String KEY_PREFIX = "user:cached:";
+    private static final String EVICTED_PREFIX = "user:evicted:";
+    
+    // KEYS[1] = cached user, KEYS[2] = eviction marker
+    // ARGV[1] = user JSON, ARGV[2] = TTL in seconds, ARGV[3] = row version
+    // Returns 1 if the user was cached, 0 if the write was refused.
+    private static final RedisScript<Long> WRITE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[2]) == 1 then return 0 end " +
+        "local current = redis.call('GET', KEYS[1]) " +
+        "if current then " +
+        "  local version = cjson.decode(current).version " +
+        "  if type(version) == 'number' and version >= tonumber(ARGV[3]) then return 0 end " +
+        "end " +
+        "redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2]) " +
+        "return 1",
+        Long.class);
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+    
+    @Value("${ums.user-cache.local-max-entries:10000}")
+    private int localMaxEntries;
+    
+    @Value("${ums.user-cache.local-ttl-seconds:30}")
+    private long localTtlSeconds;
+    
+    @Value("${ums.user-cache.redis-ttl-seconds:600}")
+    private long redisTtlSeconds;
+    
+    @Value("${ums.user-cache.eviction-guard-ms:5000}")
+    private long evictionGuardMs;
+    
+    private final Map<UUID, LocalEntry> local = new ConcurrentHashMap<>();
+    
+    // Bumped on every eviction; a load that overlaps one does not populate the cache
+    private final AtomicLong evictions = new AtomicLong();
+    
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+    
+    public Optional<CachedUser> get(UUID id, Function<UUID, Optional<CachedUser>> loader) {
+        long now = System.currentTimeMillis();
+        LocalEntry entry = local.get(id);
+        if (entry != null && entry.expiresAt > now) {
+            return Optional.of(entry.user);
+        }
+        
+        long generation = evictions.get();
+        CachedUser user = readRedis(id);
+        if (user != null) {
+            putLocal(id, user, generation, now);
+            return Optional.of(user);
+        }
+        
+        Optional<CachedUser> loaded = loader.apply(id);
+        loaded.ifPresent(value -> {
+            if (evictions.get() == generation) {
+                writeRedis(id, value);
+                putLocal(id, value, generation, now);
+            }
+        });
+        return loaded;
+    }
+    
+    /**
+     * Drops the user on every node. Inside a transaction the eviction is
+     * repeated after commit, so a concurrent read cannot re-cache the row as
+     * it was before the change.
+     */
+    public void evict(UUID id) {
+        evictEverywhere(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(id);
+                }
+            });
+        }
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            evictLocal(UUID.fromString(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring malformed user cache invalidation message");
+        }
+    }
+    
+    private void evictEverywhere(UUID id) {
+        evictLocal(id);
+        try {
+            // Set before the delete, so no load that started earlier can slip in between
+            redisTemplate.opsForValue().set(EVICTED_PREFIX + id, "1", evictionGuardMs, TimeUnit.MILLISECONDS);
+            redisTemplate.delete(KEY_PREFIX + id);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, id.toString());
+        } catch (Exception e) {
+            // Other nodes fall back to their local TTL
+            logger.error("Failed to broadcast user cache eviction for {}", id, e);
+        }
+    }
+    
+    private void evictLocal(UUID id) {
+        evictions.incrementAndGet();
+        local.remove(id);
+    }
+    
+    private void putLocal(UUID id, CachedUser user, long generation, long now) {
+        if (local.size() >= localMaxEntries) {
+            local.values().removeIf(entry -> entry.expiresAt <= now);
+            if (local.size() >= localMaxEntries) {
+                return;
+            }
+        }
+        if (evictions.get() == generation) {
+            local.put(id, new LocalEntry(user, now + localTtlSeconds * 1000));
+        }
+    }
+    
+    private CachedUser readRedis(UUID id) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + id);
+            return json != null ? objectMapper.readValue(json, CachedUser.class) : null;
+        } catch (Exception e) {
+            logger.error("Failed to read cached user {}", id, e);
+            return null;
+        }
+    }
+    
+    private void writeRedis(UUID id, CachedUser user) {
+        try {
+            long version = user.getVersion() != null ? user.getVersion() : 0L;
+            redisTemplate.execute(WRITE_SCRIPT, List.of(KEY_PREFIX + id, EVICTED_PREFIX + id),
+                objectMapper.writeValueAsString(user), String.valueOf(redisTtlSeconds), String.valueOf(version));
+        } catch (Exception e) {
+            logger.error("Failed to cache user {}", id, e);
+        }
+    }
+    
+    private static final class LocalEntry {
+        final CachedUser user;
+        final long expiresAt;
+        
+        LocalEntry(CachedUser user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
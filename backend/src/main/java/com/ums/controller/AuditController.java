@@ -1,14 +1,23 @@
 package com.ums.controller;
 
 import com.ums.dto.audit.AuditEvent;
+import com.ums.dto.audit.AuditExportFormat;
+import com.ums.dto.audit.AuditQuery;
 import com.ums.dto.common.ApiResponse;
 import com.ums.dto.common.PageResponse;
+import com.ums.service.AuditExportService;
 import com.ums.service.AuditService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @RestController
@@ -18,6 +27,9 @@ public class AuditController {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private AuditExportService auditExportService;
+
     @GetMapping
     @PreAuthorize("hasAuthority('audit:read')")
     public ResponseEntity<ApiResponse<PageResponse<AuditEvent>>> getAuditLogs(
@@ -25,10 +37,50 @@ public class AuditController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String userId,
             @RequestParam(required = false) String entityType,
-            @RequestParam(required = false) String entityId) {
+            @RequestParam(required = false) String entityId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count) {
+
+        try {
+            PageResponse<AuditEvent> response = auditService.getAuditLogs(page, size,
+                    AuditQuery.of(userId, entityType, entityId, action, from, to), cursor, count);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('audit:read')")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String entityId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        AuditExportFormat exportFormat;
+        AuditQuery query;
+        try {
+            exportFormat = AuditExportFormat.from(format);
+            query = AuditQuery.of(userId, entityType, entityId, action, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        PageResponse<AuditEvent> response = auditService.getAuditLogs(page, size, userId, entityType, entityId);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        StreamingResponseBody body = out -> auditExportService.export(exportFormat, query, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"audit." + exportFormat.getExtension() + "\"")
+                .cacheControl(CacheControl.noStore())
+                .body(body);
     }
 
     @GetMapping("/{id}")
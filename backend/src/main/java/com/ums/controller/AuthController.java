@@ -52,27 +52,35 @@ public class AuthController {
                 return ResponseEntity.ok(ApiResponse.success(mfaResponse));
             }
 
-            // Set httpOnly cookies for tokens
-            ResponseCookie accessTokenCookie = ResponseCookie.from("accessToken", response.getAccessToken())
-                    .httpOnly(true)
-                    .secure(false) // Set to true in production with HTTPS
-                    .sameSite("Lax")
-                    .path("/")
-                    .maxAge(ACCESS_TOKEN_MAX_AGE)
-                    .build();
+            setTokens(httpResponse, response);
 
-            ResponseCookie refreshTokenCookie = ResponseCookie.from("refreshToken", response.getRefreshToken())
-                    .httpOnly(true)
-                    .secure(false)
-                    .sameSite("Lax")
-                    .path("/")
-                    .maxAge(REFRESH_TOKEN_MAX_AGE)
-                    .build();
+            // Return minimal response without tokens in body
+            LoginResponse cookieResponse = new LoginResponse();
+            cookieResponse.setRequiresMfa(false);
+            return ResponseEntity.ok(ApiResponse.success(cookieResponse));
 
-            httpResponse.addHeader(HttpHeaders.SET_COOKIE, accessTokenCookie.toString());
-            httpResponse.addHeader(HttpHeaders.SET_COOKIE, refreshTokenCookie.toString());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/mfa/login")
+    public ResponseEntity<ApiResponse<LoginResponse>> mfaLogin(
+            @Valid @RequestBody MfaLoginRequest request,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+
+        try {
+            LoginResponse response = authService.completeMfaLogin(
+                request.getMfaToken(),
+                request.getCode(),
+                getClientIp(httpRequest),
+                httpRequest.getHeader("User-Agent")
+            );
+
+            setTokens(httpResponse, response);
 
-            // Return minimal response without tokens in body
             LoginResponse cookieResponse = new LoginResponse();
             cookieResponse.setRequiresMfa(false);
             return ResponseEntity.ok(ApiResponse.success(cookieResponse));
@@ -163,6 +171,28 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success(null, "Logged out successfully"));
     }
 
+    private void setTokens(HttpServletResponse response, LoginResponse tokens) {
+        // Set httpOnly cookies for tokens
+        ResponseCookie accessTokenCookie = ResponseCookie.from("accessToken", tokens.getAccessToken())
+                .httpOnly(true)
+                .secure(false) // Set to true in production with HTTPS
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(ACCESS_TOKEN_MAX_AGE)
+                .build();
+
+        ResponseCookie refreshTokenCookie = ResponseCookie.from("refreshToken", tokens.getRefreshToken())
+                .httpOnly(true)
+                .secure(false)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(REFRESH_TOKEN_MAX_AGE)
+                .build();
+
+        response.addHeader(HttpHeaders.SET_COOKIE, accessTokenCookie.toString());
+        response.addHeader(HttpHeaders.SET_COOKIE, refreshTokenCookie.toString());
+    }
+
     private void clearTokens(HttpServletResponse response) {
         ResponseCookie accessTokenCookie = ResponseCookie.from("accessToken", "")
                 .httpOnly(true)
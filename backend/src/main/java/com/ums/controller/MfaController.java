@@ -2,49 +2,100 @@ package com.ums.controller;
 
 import com.ums.dto.common.ApiResponse;
 import com.ums.service.MfaService;
+import com.ums.service.QrCodeService;
 import com.ums.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/auth/mfa")
 public class MfaController {
     @Autowired private MfaService mfaService;
     @Autowired private UserService userService;
+    @Autowired private QrCodeService qrCodeService;
+
+    private static final String MFA_ISSUER = "UserManagementSystem";
 
     @PostMapping("/setup")
     public ResponseEntity<ApiResponse<SetupResponse>> setupMfa() {
         String userId = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String secret = mfaService.generateSecret();
-        String qrUrl = mfaService.generateQrCodeUrl(secret, "UserManagementSystem", userId);
+        try {
+            // Stored now, enabled only once a code generated from it is verified
+            userService.setMfaSecret(userId, secret);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+        String qrUrl = mfaService.generateQrCodeUrl(secret, MFA_ISSUER, userId);
+        qrCodeService.prepare(userId, qrUrl);
         return ResponseEntity.ok(ApiResponse.success(new SetupResponse(secret, qrUrl)));
     }
 
-    @PostMapping("/verify")
-    public ResponseEntity<ApiResponse<Boolean>> verifyMfa(@RequestBody VerifyRequest request) {
+    @GetMapping(value = "/qr.png", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<StreamingResponseBody> qrCode(@RequestParam(defaultValue = "6") int scale) {
         String userId = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
-        // Get user's MFA secret from database
-        var userOpt = userService.getUserById(userId);
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("User not found"));
+        // Resolved before the response starts, so an expired entry is a 404 rather than an empty 200
+        QrCodeService.QrImage image = findQrImage(userId);
+        if (image == null) {
+            return ResponseEntity.notFound().build();
         }
 
-        var user = userOpt.get();
-        String secret = user.getMfaSecret();
+        int moduleSize = Math.max(2, Math.min(scale, 16));
+        StreamingResponseBody body = out -> image.writePng(moduleSize, out);
+
+        // The image encodes the TOTP secret, so it must never be stored by caches
+        return ResponseEntity.ok()
+            .contentType(MediaType.IMAGE_PNG)
+            .cacheControl(CacheControl.noStore())
+            .body(body);
+    }
+
+    /**
+     * Returns the cached enrollment image, re-encoding it from the pending
+     * secret once the cache entry has expired (or was prepared on another
+     * node); null if there is no enrollment in progress.
+     */
+    private QrCodeService.QrImage findQrImage(String userId) {
+        return qrCodeService.find(userId).orElseGet(() -> {
+            String secret;
+            try {
+                secret = userService.getPendingMfaSecret(userId);
+            } catch (RuntimeException e) {
+                return null;
+            }
+            if (secret == null || secret.isEmpty()) {
+                return null;
+            }
+            return qrCodeService.prepare(userId, mfaService.generateQrCodeUrl(secret, MFA_ISSUER, userId));
+        });
+    }
+
+    @PostMapping("/verify")
+    public ResponseEntity<ApiResponse<Boolean>> verifyMfa(@RequestBody VerifyRequest request) {
+        String userId = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
-        if (secret == null || secret.isEmpty()) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("MFA not setup"));
+        UUID userUuid;
+        try {
+            userUuid = UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid user ID format"));
         }
 
-        // Verify the code
-        boolean isValid = mfaService.verifyCode(secret, request.code);
+        // Secret is read through MfaService's short-lived decoded-secret cache
+        boolean isValid = mfaService.verifyCode(userUuid, request.code);
 
         if (isValid) {
             // Enable MFA for user
             userService.enableMfa(userId);
+            qrCodeService.evict(userId);
             return ResponseEntity.ok(ApiResponse.success(true));
         } else {
             return ResponseEntity.badRequest().body(ApiResponse.error("Invalid verification code"));
@@ -43,9 +43,16 @@ public class PermissionController {
     public ResponseEntity<ApiResponse<PageResponse<PermissionResponse>>> getPermissions(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(required = false) String search) {
-        PageResponse<PermissionResponse> response = permissionService.getPermissions(page, size, search);
-        return ResponseEntity.ok(ApiResponse.success(response));
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count) {
+        try {
+            PageResponse<PermissionResponse> response = permissionService.getPermissions(page, size, search, cursor, count);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
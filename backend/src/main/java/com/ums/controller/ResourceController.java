@@ -0,0 +1,71 @@
+package com.ums.controller;
+
+import com.ums.dto.common.ApiResponse;
+import com.ums.dto.resource.MoveResourceRequest;
+import com.ums.dto.resource.ResourceResponse;
+import com.ums.service.ResourceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/resources")
+public class ResourceController {
+    
+    @Autowired
+    private ResourceService resourceService;
+    
+    @GetMapping("/{id}/tree")
+    @PreAuthorize("hasAuthority('permission:read')")
+    public ResponseEntity<ApiResponse<ResourceResponse>> getResourceTree(@PathVariable String id) {
+        try {
+            UUID resourceId = UUID.fromString(id);
+            return ResponseEntity.ok(ApiResponse.success(resourceService.getResourceTree(resourceId)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Invalid resource ID format"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/{id}/ancestors")
+    @PreAuthorize("hasAuthority('permission:read')")
+    public ResponseEntity<ApiResponse<List<ResourceResponse>>> getAncestors(@PathVariable String id) {
+        try {
+            UUID resourceId = UUID.fromString(id);
+            return ResponseEntity.ok(ApiResponse.success(resourceService.getAncestors(resourceId)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Invalid resource ID format"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PutMapping("/{id}/parent")
+    @PreAuthorize("hasAuthority('permission:update')")
+    public ResponseEntity<ApiResponse<ResourceResponse>> moveResource(
+            @PathVariable String id,
+            @RequestBody MoveResourceRequest request) {
+        UUID resourceId;
+        try {
+            resourceId = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Invalid resource ID format"));
+        }
+        
+        try {
+            ResourceResponse response = resourceService.moveResource(resourceId, request.getParentId());
+            return ResponseEntity.ok(ApiResponse.success(response, "Resource moved successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
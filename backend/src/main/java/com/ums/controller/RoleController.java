@@ -9,9 +9,11 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -39,10 +41,30 @@ public class RoleController {
     @PreAuthorize("hasAuthority('role:read')")
     public ResponseEntity<ApiResponse<PageResponse<RoleResponse>>> getRoles(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count) {
         
-        PageResponse<RoleResponse> response = roleService.getRoles(page, size);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        try {
+            PageResponse<RoleResponse> response = roleService.getRoles(page, size, cursor, count);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Version of the role, permission and resource catalog; it changes
+     * whenever any of them does, so clients can key cached RBAC data on it.
+     */
+    @GetMapping("/catalog-version")
+    @PreAuthorize("hasAuthority('role:read')")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getCatalogVersion() {
+        long version = roleService.getCatalogVersion();
+        return ResponseEntity.ok()
+            .eTag(Long.toString(version))
+            .body(ApiResponse.success(Map.of("version", version)));
     }
     
     @GetMapping("/{id}")
@@ -132,4 +154,41 @@ public class RoleController {
                 .body(ApiResponse.error(e.getMessage()));
         }
     }
+    
+    @PostMapping("/{id}/members")
+    @PreAuthorize("hasAuthority('role:update')")
+    public ResponseEntity<ApiResponse<Integer>> addMembers(
+            @PathVariable String id,
+            @RequestBody RoleMembersRequest request) {
+        
+        try {
+            UUID roleId = UUID.fromString(id);
+            int granted = roleService.addMembers(roleId, request, currentUserId());
+            return ResponseEntity.ok(ApiResponse.success(granted, "Role granted to " + granted + " users"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/{id}/members")
+    @PreAuthorize("hasAuthority('role:update')")
+    public ResponseEntity<ApiResponse<Integer>> removeMembers(
+            @PathVariable String id,
+            @RequestBody RoleMembersRequest request) {
+        
+        try {
+            UUID roleId = UUID.fromString(id);
+            int revoked = roleService.removeMembers(roleId, request, currentUserId());
+            return ResponseEntity.ok(ApiResponse.success(revoked, "Role revoked from " + revoked + " users"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    private UUID currentUserId() {
+        String principal = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return UUID.fromString(principal);
+    }
 }
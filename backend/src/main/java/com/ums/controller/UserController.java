@@ -3,14 +3,24 @@ package com.ums.controller;
 import com.ums.dto.common.ApiResponse;
 import com.ums.dto.common.PageResponse;
 import com.ums.dto.user.*;
+import com.ums.service.UserExportService;
+import com.ums.service.UserImportService;
 import com.ums.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -20,6 +30,12 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private UserExportService userExportService;
+    
+    @Autowired
+    private UserImportService userImportService;
+    
     @GetMapping("/me")
     @PreAuthorize("hasAuthority('user:read')")
     public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser() {
@@ -56,10 +72,71 @@ public class UserController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String status,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String count) {
+        
+        try {
+            PageResponse<UserResponse> response = userService.getUsers(page, size, status, search, cursor, sort, count);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    @PreAuthorize("hasAuthority('user:create')")
+    public ResponseEntity<StreamingResponseBody> bulkImportUsers(
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) {
+        
+        UserDataFormat importFormat;
+        try {
+            importFormat = UserDataFormat.from(format, request.getContentType());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // The body is read while results are written, so neither side is buffered in full
+        StreamingResponseBody body = out -> userImportService.importUsers(importFormat, request.getInputStream(), out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(UserDataFormat.NDJSON.getContentType()))
+            .body(body);
+    }
+    
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('user:read')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String status,
             @RequestParam(required = false) String search) {
         
-        PageResponse<UserResponse> response = userService.getUsers(page, size, status, search);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        UserDataFormat exportFormat;
+        try {
+            exportFormat = UserDataFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody body = out -> userExportService.export(exportFormat, status, search, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"users." + exportFormat.getExtension() + "\"")
+            .cacheControl(CacheControl.noStore())
+            .body(body);
+    }
+    
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAuthority('user:read')")
+    public ResponseEntity<ApiResponse<List<String>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        List<String> suggestions = userService.suggest(q, Math.max(1, Math.min(limit, 50)));
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
     }
     
     @GetMapping("/{id}")
@@ -69,7 +146,9 @@ public class UserController {
         try {
             UUID userId = UUID.fromString(id);
             UserResponse response = userService.getUserById(userId);
-            return ResponseEntity.ok(ApiResponse.success(response));
+            return ResponseEntity.ok()
+                .eTag(String.valueOf(response.getVersion()))
+                .body(ApiResponse.success(response));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                 .body(ApiResponse.error("Invalid user ID format"));
@@ -87,7 +166,9 @@ public class UserController {
         try {
             UUID userId = UUID.fromString(id);
             UserResponse response = userService.updateUser(userId, request);
-            return ResponseEntity.ok(ApiResponse.success(response, "User updated successfully"));
+            return ResponseEntity.ok()
+                .eTag(String.valueOf(response.getVersion()))
+                .body(ApiResponse.success(response, "User updated successfully"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                 .body(ApiResponse.error("Invalid user ID format"));
@@ -97,6 +178,62 @@ public class UserController {
         }
     }
     
+    /**
+     * Conditional partial update: If-Match must carry the ETag from a previous
+     * read, and the change is rejected with 412 if the user changed since.
+     */
+    @PatchMapping("/{id}")
+    @PreAuthorize("hasAuthority('user:update')")
+    public ResponseEntity<ApiResponse<UserResponse>> patchUser(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UpdateUserRequest request) {
+        
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                .body(ApiResponse.error("If-Match header is required"));
+        }
+        
+        UUID userId;
+        Long expectedVersion;
+        try {
+            userId = UUID.fromString(id);
+            expectedVersion = parseVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        }
+        
+        try {
+            UserResponse response = userService.updateUser(userId, request, expectedVersion);
+            return ResponseEntity.ok()
+                .eTag(String.valueOf(response.getVersion()))
+                .body(ApiResponse.success(response, "User updated successfully"));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    private static Long parseVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if ("*".equals(tag)) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match value");
+        }
+    }
+    
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('user:delete')")
     public ResponseEntity<ApiResponse<Void>> deleteUser(@PathVariable String id) {
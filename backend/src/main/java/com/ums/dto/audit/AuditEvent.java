@@ -1,8 +1,12 @@
 package com.ums.dto.audit;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public class AuditEvent {
+    // Set only on events read back from audit_logs
+    private UUID id;
+    private LocalDateTime createdAt;
     private UUID userId;
     private String action;
     private String entityType;
@@ -74,6 +78,22 @@ public class AuditEvent {
     }
     
     // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+    
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
     public UUID getUserId() {
         return userId;
     }
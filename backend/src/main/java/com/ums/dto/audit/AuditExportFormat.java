@@ -0,0 +1,39 @@
+package com.ums.dto.audit;
+
+import java.util.Locale;
+
+/**
+ * Formats of the audit export. CSV is always gzip-compressed: audit rows
+ * carry JSON values and compress several times over.
+ */
+public enum AuditExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("application/gzip", "csv.gz");
+
+    private final String contentType;
+    private final String extension;
+
+    AuditExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static AuditExportFormat from(String value) {
+        if (value == null || value.isEmpty()) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported format: " + value);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ums.dto.audit;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Filters for audit log searches. Every field is optional; the time range is
+ * [from, to) on created_at and prunes monthly partitions.
+ */
+public record AuditQuery(UUID userId, String entityType, UUID entityId, String action,
+                         LocalDateTime from, LocalDateTime to) {
+
+    // Mirrors the audit_action enum, so a bad filter is a 400 rather than a failed cast
+    private static final Set<String> ACTIONS = Set.of("CREATE", "READ", "UPDATE", "DELETE", "LOGIN", "LOGOUT",
+        "MFA_ENABLE", "MFA_DISABLE", "PASSWORD_CHANGE", "ROLE_ASSIGN", "ROLE_REVOKE");
+
+    public AuditQuery {
+        if (entityId != null && entityType == null) {
+            throw new IllegalArgumentException("entityId requires entityType");
+        }
+        if (action != null) {
+            action = action.toUpperCase(Locale.ROOT);
+            if (!ACTIONS.contains(action)) {
+                throw new IllegalArgumentException("Invalid audit action: " + action);
+            }
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+    }
+
+    /**
+     * Builds a query from request parameters, treating empty strings as absent.
+     */
+    public static AuditQuery of(String userId, String entityType, String entityId, String action,
+                                LocalDateTime from, LocalDateTime to) {
+        return new AuditQuery(uuid(userId), text(entityType), uuid(entityId), text(action), from, to);
+    }
+
+    /** Identifies the filter combination, e.g. as a count cache key. */
+    public String filterKey() {
+        return userId + "|" + entityType + "|" + entityId + "|" + action + "|" + from + "|" + to;
+    }
+
+    private static UUID uuid(String value) {
+        return value == null || value.isEmpty() ? null : UUID.fromString(value);
+    }
+
+    private static String text(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ums.dto.auth;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class MfaLoginRequest {
+    
+    @NotBlank(message = "MFA token is required")
+    private String mfaToken;
+    
+    @NotBlank(message = "Verification code is required")
+    private String code;
+    
+    public MfaLoginRequest() {}
+    
+    public String getMfaToken() {
+        return mfaToken;
+    }
+    
+    public void setMfaToken(String mfaToken) {
+        this.mfaToken = mfaToken;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public void setCode(String code) {
+        this.code = code;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ums.dto.common;
+
+import java.util.Locale;
+
+/**
+ * How a paged listing computes its total.
+ * <ul>
+ *   <li>EXACT - COUNT(*) on every request (default)</li>
+ *   <li>CACHED - exact count reused for a short TTL, dropped on writes</li>
+ *   <li>ESTIMATED - row estimate from planner statistics</li>
+ *   <li>NONE - no total; only whether another page exists</li>
+ * </ul>
+ */
+public enum CountMode {
+    EXACT,
+    CACHED,
+    ESTIMATED,
+    NONE;
+
+    public static CountMode from(String value) {
+        if (value == null || value.isEmpty()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid count mode: " + value);
+        }
+    }
+}
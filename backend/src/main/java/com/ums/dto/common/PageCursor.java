@@ -0,0 +1,58 @@
+package com.ums.dto.common;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset pagination cursor: the sort key and id of the last row of a page.
+ * Timestamps are carried as microseconds, matching Postgres TIMESTAMP precision.
+ */
+public class PageCursor {
+    private final long sortKey;
+    private final UUID id;
+    
+    public PageCursor(long sortKey, UUID id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+    
+    public static PageCursor of(LocalDateTime timestamp, UUID id) {
+        long micros = ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), timestamp);
+        return new PageCursor(micros, id);
+    }
+    
+    public static PageCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            return new PageCursor(
+                Long.parseLong(decoded.substring(0, separator)),
+                UUID.fromString(decoded.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+    
+    public String encode() {
+        String raw = sortKey + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public long getSortKey() {
+        return sortKey;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(sortKey, 1_000_000L),
+            (int) Math.floorMod(sortKey, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+    
+    public UUID getId() {
+        return id;
+    }
+}
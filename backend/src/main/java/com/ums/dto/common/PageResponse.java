@@ -1,6 +1,8 @@
 package com.ums.dto.common;
 
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class PageResponse<T> {
     private List<T> content;
@@ -10,6 +12,9 @@ public class PageResponse<T> {
     private int totalPages;
     private boolean first;
     private boolean last;
+    private boolean hasNext;
+    private String countMode = "exact";
+    private String nextCursor;
     
     public PageResponse() {}
     
@@ -21,6 +26,43 @@ public class PageResponse<T> {
         this.totalPages = (int) Math.ceil((double) totalElements / size);
         this.first = page == 0;
         this.last = page >= totalPages - 1;
+        this.hasNext = !last;
+    }
+    
+    /**
+     * Builds a keyset page from rows fetched with {@code size + 1} as the limit;
+     * the extra row only signals that another page exists.
+     */
+    public static <E, T> PageResponse<T> keyset(List<E> rows, int size, long totalElements, boolean first,
+                                                Function<E, PageCursor> cursorOf, Function<E, T> mapper) {
+        PageResponse<T> response = lookAhead(rows, 0, size, totalElements, mapper);
+        response.first = first;
+        if (response.hasNext) {
+            response.nextCursor = cursorOf.apply(rows.get(size - 1)).encode();
+        }
+        return response;
+    }
+    
+    /**
+     * Builds an offset page from rows fetched with {@code size + 1} as the limit,
+     * so first/last/hasNext are exact whatever the total is. A negative total
+     * means it was not computed; totalElements and totalPages are then -1.
+     */
+    public static <E, T> PageResponse<T> lookAhead(List<E> rows, int page, int size, long totalElements,
+                                                   Function<E, T> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> pageRows = hasMore ? rows.subList(0, size) : rows;
+        
+        PageResponse<T> response = new PageResponse<>();
+        response.content = pageRows.stream().map(mapper).collect(Collectors.toList());
+        response.page = page;
+        response.size = size;
+        response.totalElements = totalElements < 0 ? -1 : totalElements;
+        response.totalPages = totalElements < 0 ? -1 : (int) Math.ceil((double) totalElements / size);
+        response.first = page == 0;
+        response.last = !hasMore;
+        response.hasNext = hasMore;
+        return response;
     }
     
     // Getters and Setters
@@ -79,4 +121,28 @@ public class PageResponse<T> {
     public void setLast(boolean last) {
         this.last = last;
     }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+    
+    public String getCountMode() {
+        return countMode;
+    }
+    
+    public void setCountMode(String countMode) {
+        this.countMode = countMode;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,16 @@
+package com.ums.dto.resource;
+
+import java.util.UUID;
+
+public class MoveResourceRequest {
+    // Null moves the resource to the top level
+    private UUID parentId;
+    
+    public UUID getParentId() {
+        return parentId;
+    }
+    
+    public void setParentId(UUID parentId) {
+        this.parentId = parentId;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ums.dto.resource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class ResourceResponse {
+    private UUID id;
+    private String type;
+    private String identifier;
+    private String name;
+    private String description;
+    private UUID parentId;
+    private String metadata;
+    private List<ResourceResponse> children = new ArrayList<>();
+    private LocalDateTime createdAt;
+    
+    public ResourceResponse() {}
+    
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+    
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public String getIdentifier() {
+        return identifier;
+    }
+    
+    public void setIdentifier(String identifier) {
+        this.identifier = identifier;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public UUID getParentId() {
+        return parentId;
+    }
+    
+    public void setParentId(UUID parentId) {
+        this.parentId = parentId;
+    }
+    
+    public String getMetadata() {
+        return metadata;
+    }
+    
+    public void setMetadata(String metadata) {
+        this.metadata = metadata;
+    }
+    
+    public List<ResourceResponse> getChildren() {
+        return children;
+    }
+    
+    public void setChildren(List<ResourceResponse> children) {
+        this.children = children;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
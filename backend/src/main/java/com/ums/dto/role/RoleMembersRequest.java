@@ -0,0 +1,79 @@
+package com.ums.dto.role;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Selects the users to add to or remove from a role: either an explicit list
+ * of ids, or the same status/search filter the user list accepts.
+ */
+public class RoleMembersRequest {
+    
+    private List<UUID> userIds;
+    
+    private String status;
+    
+    private String search;
+    
+    private String scope;
+    
+    private String scopeType;
+    
+    private LocalDateTime expiresAt;
+    
+    public RoleMembersRequest() {}
+    
+    public boolean hasUserFilter() {
+        return (status != null && !status.isEmpty()) || (search != null && !search.isEmpty());
+    }
+    
+    // Getters and Setters
+    public List<UUID> getUserIds() {
+        return userIds;
+    }
+    
+    public void setUserIds(List<UUID> userIds) {
+        this.userIds = userIds;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getSearch() {
+        return search;
+    }
+    
+    public void setSearch(String search) {
+        this.search = search;
+    }
+    
+    public String getScope() {
+        return scope;
+    }
+    
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+    
+    public String getScopeType() {
+        return scopeType;
+    }
+    
+    public void setScopeType(String scopeType) {
+        this.scopeType = scopeType;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
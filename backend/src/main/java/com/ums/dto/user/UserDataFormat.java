@@ -0,0 +1,49 @@
+package com.ums.dto.user;
+
+import java.util.Locale;
+
+/**
+ * Line-oriented formats accepted by user export and bulk import.
+ */
+public enum UserDataFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    UserDataFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static UserDataFormat from(String value) {
+        if (value == null || value.isEmpty()) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported format: " + value);
+        }
+    }
+
+    /**
+     * Picks the format from an explicit parameter, falling back to the request content type.
+     */
+    public static UserDataFormat from(String value, String contentType) {
+        if ((value == null || value.isEmpty()) && contentType != null
+                && contentType.toLowerCase(Locale.ROOT).startsWith(CSV.contentType)) {
+            return CSV;
+        }
+        return from(value);
+    }
+}
@@ -15,6 +15,8 @@ public class UserResponse {
     private LocalDateTime lastLoginAt;
     private LocalDateTime createdAt;
     private List<String> roles;
+    private List<UUID> roleIds;
+    private Long version;
     
     public UserResponse() {}
     
@@ -98,4 +100,20 @@ public class UserResponse {
     public void setRoles(List<String> roles) {
         this.roles = roles;
     }
+    
+    public List<UUID> getRoleIds() {
+        return roleIds;
+    }
+    
+    public void setRoleIds(List<UUID> roleIds) {
+        this.roleIds = roleIds;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
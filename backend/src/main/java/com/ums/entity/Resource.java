@@ -5,8 +5,14 @@ import java.util.UUID;
 
 public class Resource {
     private UUID id;
+    private String type;
+    private String identifier;
     private String name;
     private String description;
+    private UUID parentId;
+    // Ids from the root down to this resource, '/'-separated; maintained by the repository
+    private String path;
+    private String metadata;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -20,6 +26,22 @@ public class Resource {
         this.id = id;
     }
 
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public void setIdentifier(String identifier) {
+        this.identifier = identifier;
+    }
+
     public String getName() {
         return name;
     }
@@ -36,6 +58,30 @@ public class Resource {
         this.description = description;
     }
 
+    public UUID getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(UUID parentId) {
+        this.parentId = parentId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(String metadata) {
+        this.metadata = metadata;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
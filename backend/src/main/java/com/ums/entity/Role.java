@@ -13,6 +13,8 @@ public class Role {
     private Role parent;
     private int priority = 0;
     private Set<Role> children = new HashSet<>();
+    // Active assignments, read from role_member_counts; never written by save
+    private int memberCount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime deletedAt;
@@ -79,6 +81,14 @@ public class Role {
         this.children = children;
     }
     
+    public int getMemberCount() {
+        return memberCount;
+    }
+    
+    public void setMemberCount(int memberCount) {
+        this.memberCount = memberCount;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
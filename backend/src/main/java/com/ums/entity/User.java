@@ -1,6 +1,8 @@
 package com.ums.entity;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.UUID;
 
 public class User {
@@ -18,17 +20,52 @@ public class User {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime deletedAt;
+    private Long version;
+    
+    // Fields set since the user was loaded; an update writes only these
+    private final EnumSet<Field> changedFields = EnumSet.noneOf(Field.class);
     
     public enum UserStatus {
         ACTIVE, INACTIVE, LOCKED, PENDING
     }
     
+    public enum Field {
+        USERNAME, EMAIL, PASSWORD_HASH, PHONE, STATUS, MFA_ENABLED, MFA_SECRET,
+        LAST_LOGIN_AT, LOGIN_ATTEMPTS, LOCKED_UNTIL, DELETED_AT
+    }
+    
     // Default constructor
     public User() {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
     
+    /**
+     * A user known only by id, for updates that do not read the row first.
+     * Setting fields on it records them as changes.
+     */
+    public static User reference(UUID id) {
+        User user = new User();
+        user.id = id;
+        user.markClean();
+        return user;
+    }
+    
+    public Set<Field> changedFields() {
+        return changedFields;
+    }
+    
+    public boolean hasChanges() {
+        return !changedFields.isEmpty();
+    }
+    
+    /**
+     * Forgets recorded changes; called once the state matches the database.
+     */
+    public void markClean() {
+        changedFields.clear();
+    }
+    
     // Getters and Setters
     public UUID getId() {
         return id;
@@ -44,6 +81,7 @@ public class User {
     
     public void setUsername(String username) {
         this.username = username;
+        changedFields.add(Field.USERNAME);
     }
     
     public String getEmail() {
@@ -52,6 +90,7 @@ public class User {
     
     public void setEmail(String email) {
         this.email = email;
+        changedFields.add(Field.EMAIL);
     }
     
     public String getPasswordHash() {
@@ -60,6 +99,7 @@ public class User {
     
     public void setPasswordHash(String passwordHash) {
         this.passwordHash = passwordHash;
+        changedFields.add(Field.PASSWORD_HASH);
     }
     
     public String getPhone() {
@@ -68,6 +108,7 @@ public class User {
     
     public void setPhone(String phone) {
         this.phone = phone;
+        changedFields.add(Field.PHONE);
     }
     
     public UserStatus getStatus() {
@@ -76,6 +117,7 @@ public class User {
     
     public void setStatus(UserStatus status) {
         this.status = status;
+        changedFields.add(Field.STATUS);
     }
     
     public boolean isMfaEnabled() {
@@ -84,6 +126,7 @@ public class User {
     
     public void setMfaEnabled(boolean mfaEnabled) {
         this.mfaEnabled = mfaEnabled;
+        changedFields.add(Field.MFA_ENABLED);
     }
     
     public String getMfaSecret() {
@@ -92,6 +135,7 @@ public class User {
     
     public void setMfaSecret(String mfaSecret) {
         this.mfaSecret = mfaSecret;
+        changedFields.add(Field.MFA_SECRET);
     }
     
     public LocalDateTime getLastLoginAt() {
@@ -100,6 +144,7 @@ public class User {
     
     public void setLastLoginAt(LocalDateTime lastLoginAt) {
         this.lastLoginAt = lastLoginAt;
+        changedFields.add(Field.LAST_LOGIN_AT);
     }
     
     public int getLoginAttempts() {
@@ -108,6 +153,7 @@ public class User {
     
     public void setLoginAttempts(int loginAttempts) {
         this.loginAttempts = loginAttempts;
+        changedFields.add(Field.LOGIN_ATTEMPTS);
     }
     
     public LocalDateTime getLockedUntil() {
@@ -116,6 +162,7 @@ public class User {
     
     public void setLockedUntil(LocalDateTime lockedUntil) {
         this.lockedUntil = lockedUntil;
+        changedFields.add(Field.LOCKED_UNTIL);
     }
     
     public LocalDateTime getCreatedAt() {
@@ -140,6 +187,15 @@ public class User {
     
     public void setDeletedAt(LocalDateTime deletedAt) {
         this.deletedAt = deletedAt;
+        changedFields.add(Field.DELETED_AT);
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
     }
     
     public boolean isLocked() {
@@ -13,6 +13,7 @@ public class UserRole {
     private LocalDateTime expiresAt;
     private UUID grantedBy;
     private LocalDateTime revokedAt;
+    private String roleName;  // populated by joined queries only
     
     public UserRole() {
         this.grantedAt = LocalDateTime.now();
@@ -98,4 +99,12 @@ public class UserRole {
     public boolean isExpired() {
         return expiresAt != null && expiresAt.isBefore(LocalDateTime.now());
     }
+    
+    public String getRoleName() {
+        return roleName;
+    }
+    
+    public void setRoleName(String roleName) {
+        this.roleName = roleName;
+    }
 }
@@ -0,0 +1,20 @@
+package com.ums.event;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published when a role's permission grants change, carrying only the
+ * grants that were actually added or removed. Listeners run after commit.
+ */
+public record RolePermissionsChangedEvent(UUID roleId, Set<UUID> addedPermissionIds, Set<UUID> removedPermissionIds) {
+    
+    public RolePermissionsChangedEvent {
+        addedPermissionIds = Set.copyOf(addedPermissionIds);
+        removedPermissionIds = Set.copyOf(removedPermissionIds);
+    }
+    
+    public boolean isEmpty() {
+        return addedPermissionIds.isEmpty() && removedPermissionIds.isEmpty();
+    }
+}
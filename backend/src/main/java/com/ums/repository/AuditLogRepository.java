@@ -1,16 +1,37 @@
 package com.ums.repository;
 
+import com.ums.dto.audit.AuditQuery;
+import com.ums.dto.common.PageCursor;
 import com.ums.entity.AuditLog;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface AuditLogRepository {
     
     AuditLog save(AuditLog auditLog);
     
-    List<AuditLog> findByUserId(UUID userId, int page, int size);
+    void saveAll(List<AuditLog> auditLogs);
     
-    List<AuditLog> findByEntityTypeAndEntityId(String entityType, UUID entityId, int page, int size);
+    /**
+     * Looks the row up through the primary key index of each partition.
+     */
+    Optional<AuditLog> findById(UUID id);
     
-    List<AuditLog> findAll(int page, int size);
+    /**
+     * Returns matching rows newest first, starting after {@code cursor} when
+     * one is given and at {@code offset} otherwise.
+     */
+    List<AuditLog> find(AuditQuery query, PageCursor cursor, int offset, int limit);
+    
+    long count(AuditQuery query);
+    
+    long estimateCount(AuditQuery query);
+    
+    /**
+     * Streams matching rows oldest first through a forward-only server-side
+     * cursor. Must run inside a transaction for the fetch size to take effect.
+     */
+    void streamForExport(AuditQuery query, int fetchSize, Consumer<AuditLog> action);
 }
@@ -0,0 +1,34 @@
+package com.ums.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Manages the monthly partitions of audit_logs, named audit_logs_pYYYYMM.
+ */
+public interface AuditPartitionRepository {
+
+    /**
+     * Creates the missing partitions for every month from {@code firstMonth}
+     * through {@code lastMonth}.
+     *
+     * @return number of partitions created
+     */
+    int createPartitions(LocalDate firstMonth, LocalDate lastMonth);
+
+    /**
+     * Returns the first day of the month of every attached partition, oldest first.
+     */
+    List<LocalDate> findPartitionMonths();
+
+    /**
+     * Detaches the partition for the month without blocking audit writes. The
+     * table stays in the database under its own name.
+     */
+    void detachPartition(LocalDate month);
+
+    /**
+     * Detaches the partition for the month and drops it.
+     */
+    void dropPartition(LocalDate month);
+}
@@ -1,5 +1,6 @@
 package com.ums.repository;
 
+import com.ums.dto.common.PageCursor;
 import com.ums.entity.Permission;
 import java.util.List;
 import java.util.Optional;
@@ -13,10 +14,22 @@ public interface PermissionRepository {
     
     List<Permission> findAll(int page, int size);
     
+    List<Permission> findRange(int offset, int limit);
+    
+    List<Permission> findAllAfter(PageCursor cursor, int limit);
+    
     List<Permission> findByResourceId(UUID resourceId);
     
+    /**
+     * Permissions granted to a role, with resource names, in one query.
+     * Empty if the role does not exist.
+     */
+    Optional<List<Permission>> findGrantedToRole(UUID roleId);
+    
     long count();
     
+    long estimateCount();
+    
     Permission save(Permission permission);
     
     void deleteById(UUID id);
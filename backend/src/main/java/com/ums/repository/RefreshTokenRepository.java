@@ -1,6 +1,7 @@
 package com.ums.repository;
 
 import com.ums.entity.RefreshToken;
+import com.ums.repository.projection.RefreshSession;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,6 +13,13 @@ public interface RefreshTokenRepository {
     
     Optional<RefreshToken> findByUserId(UUID userId);
     
+    /**
+     * Reads only the columns needed to decide whether a token can be used.
+     */
+    Optional<RefreshSession> findSessionByTokenHash(String tokenHash);
+    
+    void revoke(UUID id);
+    
     RefreshToken save(RefreshToken token);
     
     void deleteById(UUID id);
@@ -12,4 +12,24 @@ public interface ResourceRepository {
     List<Resource> findAll();
     Resource save(Resource resource);
     void deleteById(UUID id);
+    
+    /**
+     * The resource and all its descendants in one index range scan, parents
+     * before children. Empty if the resource does not exist.
+     */
+    List<Resource> findSubtree(UUID id);
+    
+    /**
+     * The resource's ancestors, root first, excluding the resource itself.
+     */
+    List<Resource> findAncestors(UUID id);
+    
+    /**
+     * Re-parents the resource (null makes it a root), rewriting the paths of
+     * its subtree in one statement.
+     *
+     * @return false if the resource or the new parent does not exist
+     * @throws IllegalArgumentException if the new parent is inside the subtree
+     */
+    boolean move(UUID id, UUID newParentId);
 }
@@ -1,6 +1,7 @@
 package com.ums.repository;
 
 import com.ums.entity.RolePermission;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,5 +17,21 @@ public interface RolePermissionRepository {
     
     void deleteByRoleIdAndPermissionId(UUID roleId, UUID permissionId);
     
+    List<UUID> findPermissionIdsByRoleId(UUID roleId);
+    
+    /**
+     * Grants the permissions to the role in one batch, skipping existing grants.
+     *
+     * @return the permission ids that were actually inserted
+     */
+    List<UUID> insertBatch(UUID roleId, Collection<UUID> permissionIds);
+    
+    /**
+     * Revokes the permissions from the role in one statement.
+     *
+     * @return the permission ids that were actually deleted
+     */
+    List<UUID> deleteByRoleIdAndPermissionIds(UUID roleId, Collection<UUID> permissionIds);
+    
     List<RolePermission> findAll();
 }
@@ -1,5 +1,6 @@
 package com.ums.repository;
 
+import com.ums.dto.common.PageCursor;
 import com.ums.entity.Role;
 import java.util.List;
 import java.util.Optional;
@@ -13,12 +14,18 @@ public interface RoleRepository {
     
     List<Role> findAll(int page, int size);
     
+    List<Role> findRange(int offset, int limit);
+    
+    List<Role> findAllAfter(PageCursor cursor, int limit);
+    
     List<Role> findByParentId(UUID parentId);
     
     List<Role> findHierarchy(UUID roleId);
     
     long count();
     
+    long estimateCount();
+    
     Role save(Role role);
     
     void deleteById(UUID id);
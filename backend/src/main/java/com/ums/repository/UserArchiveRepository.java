@@ -0,0 +1,27 @@
+package com.ums.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Moves soft-deleted users, with their role assignments and refresh tokens,
+ * between the hot tables and the *_archive tables.
+ */
+public interface UserArchiveRepository {
+    
+    /**
+     * Archives up to {@code limit} users soft-deleted before {@code cutoff} in a
+     * single statement. Rows locked by a concurrent run are skipped.
+     *
+     * @return number of users archived
+     */
+    int archiveDeletedBefore(LocalDateTime cutoff, int limit);
+    
+    /**
+     * Moves an archived user and its rows back into the hot tables. The user
+     * stays soft-deleted; the caller clears deleted_at.
+     *
+     * @return false if the user is not in the archive
+     */
+    boolean restore(UUID id);
+}
@@ -1,26 +1,123 @@
 package com.ums.repository;
 
+import com.ums.cache.CachedUser;
+import com.ums.dto.common.PageCursor;
 import com.ums.entity.User;
+import com.ums.repository.projection.UserChange;
+import com.ums.repository.projection.UserCredentials;
+import com.ums.repository.projection.UserSummary;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface UserRepository {
     
     Optional<User> findById(UUID id);
     
+    /**
+     * Cached lookup for read paths that do not need the password hash or MFA
+     * secret. Served from the local and Redis user caches when possible.
+     */
+    Optional<CachedUser> findCachedById(UUID id);
+    
     Optional<User> findByEmail(String email);
     
     Optional<User> findByUsername(String username);
     
-    List<User> findAll(int page, int size, String status, String search);
+    /**
+     * Looks a user up by username, then email, reading only what a password
+     * login checks.
+     */
+    Optional<UserCredentials> findCredentials(String usernameOrEmail);
+    
+    /**
+     * Resets the failed-attempt state and stamps the last login time.
+     */
+    void recordLogin(UUID id);
+    
+    List<UserSummary> findAll(int page, int size, String status, String search);
+    
+    List<UserSummary> findRange(int offset, int limit, String status, String search);
+    
+    List<UserSummary> findAllAfter(PageCursor cursor, int limit, String status, String search);
+    
+    /**
+     * Search ordered by trigram similarity to the search term; also matches
+     * near misses (typos) that a substring match would not.
+     */
+    List<UserSummary> findAllRanked(int offset, int limit, String status, String search);
     
     long count(String status, String search);
     
+    long countRanked(String status, String search);
+    
+    long estimateCount(String status, String search);
+    
+    /**
+     * Streams username and email of every non-deleted user through a
+     * server-side cursor. Must run inside a transaction for the fetch size
+     * to take effect.
+     */
+    void forEachUsernameAndEmail(int fetchSize, BiConsumer<String, String> action);
+    
+    /**
+     * Streams non-sensitive user columns through a forward-only server-side
+     * cursor. Must run inside a transaction for the fetch size to take effect.
+     */
+    void streamForExport(String status, String search, int fetchSize, Consumer<User> action);
+    
+    /**
+     * Inserts a new user, or writes the changed fields of an existing one
+     * through {@link #update}. A user without changes is returned as is.
+     */
     User save(User user);
     
+    /**
+     * Writes only the fields changed on the user in one UPDATE ... RETURNING
+     * and bumps its version. The user need not have been read first (see
+     * {@link User#reference}); if it carries a version, the update applies only
+     * while the row still has that version.
+     *
+     * @return the updated row and its previous identity values; empty if no
+     *         active user has the id
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the
+     *         row exists but its version has moved on
+     */
+    Optional<UserChange> update(User user);
+    
+    /**
+     * Inserts new users with one JDBC batch. Rows that hit a unique constraint
+     * are skipped; their update count is 0.
+     */
+    int[] insertBatch(List<User> users);
+    
+    /**
+     * Returns users (including soft-deleted ones) holding any of the given
+     * usernames or emails. Only id, username and email are populated.
+     */
+    List<User> findByUsernamesOrEmails(Collection<String> usernames, Collection<String> emails);
+    
     void deleteById(UUID id);
     
+    /**
+     * Records a login lockout. Only login_attempts and locked_until change, so
+     * the account unlocks on its own when {@code lockedUntil} passes.
+     */
+    void markLocked(UUID id, int loginAttempts, LocalDateTime lockedUntil);
+    
+    /**
+     * Counts a failed login in the users row and sets locked_until to
+     * {@code lockedUntil} when the count reaches {@code maxAttempts}, in one
+     * statement. The count restarts after an expired lock.
+     *
+     * @return the new failure count, or 0 if the user does not exist
+     */
+    int recordFailedLogin(UUID id, int maxAttempts, LocalDateTime lockedUntil);
+    
     boolean existsByEmail(String email);
     
     boolean existsByUsername(String username);
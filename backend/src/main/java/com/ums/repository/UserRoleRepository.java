@@ -1,15 +1,32 @@
 package com.ums.repository;
 
 import com.ums.entity.UserRole;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface UserRoleRepository {
     
+    /**
+     * Inserts a new grant. If the user already holds the role in that scope
+     * nothing is inserted and the id of the existing grant is set instead.
+     */
     UserRole save(UserRole userRole);
     
     List<UserRole> findByUserId(UUID userId);
     
+    /**
+     * Loads the active (not revoked, not expired) assignments for all given users
+     * in one query, with the role name joined in.
+     */
+    List<UserRole> findActiveByUserIds(Collection<UUID> userIds);
+    
+    /**
+     * Ids of the roles the user currently holds (not revoked, not expired).
+     */
+    List<UUID> findActiveRoleIds(UUID userId);
+    
     List<UserRole> findByRoleId(UUID roleId);
 
     int countByRoleId(UUID roleId);
@@ -17,4 +34,22 @@ public interface UserRoleRepository {
     void deleteByUserIdAndRoleId(UUID userId, UUID roleId);
     
     void revokeByUserId(UUID userId);
+
+    /**
+     * Grants a role to every selected user in one INSERT ... SELECT. Users are
+     * selected by id when {@code userIds} is non-null, otherwise by the user list
+     * filters. Users that already hold the role in the same scope are skipped.
+     *
+     * @return ids of the users that received a new assignment
+     */
+    List<UUID> grantRole(UUID roleId, Collection<UUID> userIds, String status, String search,
+                         String scope, String scopeType, LocalDateTime expiresAt, UUID grantedBy);
+
+    /**
+     * Revokes a role, in every scope, from the selected users in one UPDATE.
+     * Selection works as in {@link #grantRole}.
+     *
+     * @return ids of the users that lost at least one assignment
+     */
+    List<UUID> revokeRole(UUID roleId, Collection<UUID> userIds, String status, String search);
 }
@@ -1,5 +1,7 @@
 package com.ums.repository.impl;
 
+import com.ums.dto.audit.AuditQuery;
+import com.ums.dto.common.PageCursor;
 import com.ums.entity.AuditLog;
 import com.ums.repository.AuditLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,10 +9,14 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Timestamp;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Repository
 public class AuditLogRepositoryImpl implements AuditLogRepository {
@@ -88,21 +94,123 @@ public class AuditLogRepositoryImpl implements AuditLogRepository {
         return auditLog;
     }
     
+    
+    @Override
+    public void saveAll(List<AuditLog> auditLogs) {
+        String sql = "INSERT INTO \"audit_logs\" (id, user_id, action, entity_type, entity_id, old_value, new_value, ip_address, user_agent, metadata, created_at) " +
+                    "VALUES (?, ?, ?::audit_action, ?, ?, ?::jsonb, ?::jsonb, ?::inet, ?, ?::jsonb, COALESCE(?, NOW()))";
+        // created_at comes from the event, not the insert, since writes are batched and may lag
+        jdbcTemplate.batchUpdate(sql, auditLogs, auditLogs.size(), (ps, auditLog) -> {
+            if (auditLog.getId() == null) {
+                auditLog.setId(UUID.randomUUID());
+            }
+            ps.setObject(1, auditLog.getId());
+            ps.setObject(2, auditLog.getUserId());
+            ps.setString(3, auditLog.getAction());
+            ps.setString(4, auditLog.getEntityType());
+            ps.setObject(5, auditLog.getEntityId());
+            ps.setString(6, auditLog.getOldValue());
+            ps.setString(7, auditLog.getNewValue());
+            ps.setString(8, auditLog.getIpAddress());
+            ps.setString(9, auditLog.getUserAgent());
+            ps.setString(10, auditLog.getMetadata() != null ? auditLog.getMetadata() : "{}");
+            ps.setTimestamp(11, auditLog.getCreatedAt() != null ? Timestamp.valueOf(auditLog.getCreatedAt()) : null);
+        });
+    }
+    @Override
+    public Optional<AuditLog> findById(UUID id) {
+        String sql = "SELECT * FROM \"audit_logs\" WHERE id = ?";
+        return jdbcTemplate.query(sql, auditLogRowMapper, id).stream().findFirst();
+    }
+    
+    @Override
+    public List<AuditLog> find(AuditQuery query, PageCursor cursor, int offset, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM \"audit_logs\" WHERE TRUE");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, query);
+        if (cursor != null) {
+            // The plain created_at bound is redundant with the row comparison but lets it prune partitions too
+            sql.append(" AND created_at <= ? AND (created_at, id) < (?, ?)");
+            params.add(Timestamp.valueOf(cursor.getTimestamp()));
+            params.add(Timestamp.valueOf(cursor.getTimestamp()));
+            params.add(cursor.getId());
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        params.add(limit);
+        if (cursor == null && offset > 0) {
+            sql.append(" OFFSET ?");
+            params.add(offset);
+        }
+        return jdbcTemplate.query(sql.toString(), auditLogRowMapper, params.toArray());
+    }
+    
     @Override
-    public List<AuditLog> findByUserId(UUID userId, int page, int size) {
-        String sql = "SELECT * FROM \"audit_logs\" WHERE user_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
-        return jdbcTemplate.query(sql, auditLogRowMapper, userId, size, page * size);
+    public long count(AuditQuery query) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM \"audit_logs\" WHERE TRUE");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, query);
+        return jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
     }
     
     @Override
-    public List<AuditLog> findByEntityTypeAndEntityId(String entityType, UUID entityId, int page, int size) {
-        String sql = "SELECT * FROM \"audit_logs\" WHERE entity_type = ? AND entity_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
-        return jdbcTemplate.query(sql, auditLogRowMapper, entityType, entityId, size, page * size);
+    public long estimateCount(AuditQuery query) {
+        StringBuilder sql = new StringBuilder("SELECT 1 FROM \"audit_logs\" WHERE TRUE");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, query);
+        return PlannerEstimates.estimateRows(jdbcTemplate, sql.toString(), params.toArray());
     }
     
     @Override
-    public List<AuditLog> findAll(int page, int size) {
-        String sql = "SELECT * FROM \"audit_logs\" ORDER BY created_at DESC LIMIT ? OFFSET ?";
-        return jdbcTemplate.query(sql, auditLogRowMapper, size, page * size);
+    public void streamForExport(AuditQuery query, int fetchSize, Consumer<AuditLog> action) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM \"audit_logs\" WHERE TRUE");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, query);
+        sql.append(" ORDER BY created_at, id");
+        
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, rs -> {
+            action.accept(auditLogRowMapper.mapRow(rs, 0));
+        });
+    }
+    
+    /**
+     * Each filter is an equality on the leading columns of one composite
+     * index: user_id -> idx_audit_logs_user, entity_type/entity_id ->
+     * idx_audit_logs_entity, action -> idx_audit_logs_action, each followed by
+     * (created_at, id) so the range and ORDER BY continue the same scan. The
+     * created_at bounds are on the partition key and prune partitions.
+     */
+    private void appendFilters(StringBuilder sql, List<Object> params, AuditQuery query) {
+        if (query.userId() != null) {
+            sql.append(" AND user_id = ?");
+            params.add(query.userId());
+        }
+        if (query.entityType() != null) {
+            sql.append(" AND entity_type = ?");
+            params.add(query.entityType());
+        }
+        if (query.entityId() != null) {
+            sql.append(" AND entity_id = ?");
+            params.add(query.entityId());
+        }
+        if (query.action() != null) {
+            sql.append(" AND action = ?::audit_action");
+            params.add(query.action());
+        }
+        if (query.from() != null) {
+            sql.append(" AND created_at >= ?");
+            params.add(Timestamp.valueOf(query.from()));
+        }
+        if (query.to() != null) {
+            sql.append(" AND created_at < ?");
+            params.add(Timestamp.valueOf(query.to()));
+        }
     }
 }
@@ -0,0 +1,62 @@
+package com.ums.repository.impl;
+
+import com.ums.repository.AuditPartitionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+
+@Repository
+public class AuditPartitionRepositoryImpl implements AuditPartitionRepository {
+
+    private static final String PREFIX = "audit_logs_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int createPartitions(LocalDate firstMonth, LocalDate lastMonth) {
+        Integer created = jdbcTemplate.queryForObject("SELECT audit_logs_create_partitions(?, ?)",
+            Integer.class, firstMonth, lastMonth);
+        return created != null ? created : 0;
+    }
+
+    @Override
+    public List<LocalDate> findPartitionMonths() {
+        String sql = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                    "WHERE i.inhparent = 'audit_logs'::regclass ORDER BY c.relname";
+        return jdbcTemplate.queryForList(sql, String.class).stream()
+            .map(AuditPartitionRepositoryImpl::monthOf)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    @Override
+    public void detachPartition(LocalDate month) {
+        // CONCURRENTLY only takes a SHARE UPDATE EXCLUSIVE lock on audit_logs; it cannot run in a transaction
+        jdbcTemplate.execute("ALTER TABLE audit_logs DETACH PARTITION " + partitionName(month) + " CONCURRENTLY");
+    }
+
+    @Override
+    public void dropPartition(LocalDate month) {
+        detachPartition(month);
+        jdbcTemplate.execute("DROP TABLE " + partitionName(month));
+    }
+
+    static String partitionName(LocalDate month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+
+    private static LocalDate monthOf(String partitionName) {
+        if (!partitionName.matches(PREFIX + "\\d{6}")) {
+            return null;
+        }
+        return YearMonth.parse(partitionName.substring(PREFIX.length()), SUFFIX).atDay(1);
+    }
+}
@@ -1,5 +1,6 @@
 package com.ums.repository.impl;
 
+import com.ums.dto.common.PageCursor;
 import com.ums.entity.Permission;
 import com.ums.entity.Resource;
 import com.ums.repository.PermissionRepository;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -53,6 +55,32 @@ public class PermissionRepositoryImpl implements PermissionRepository {
         return permission;
     };
 
+    @Override
+    public Optional<List<Permission>> findGrantedToRole(UUID roleId) {
+        // Driven from roles so a role without grants (one all-null row) differs from a missing role
+        String sql = "SELECT p.id::text AS id, p.name, p.resource_id::text AS resource_id, p.action, p.conditions, " +
+                    "p.created_at, p.updated_at, p.deleted_at, r.name AS resource_name " +
+                    "FROM \"roles\" ro " +
+                    "LEFT JOIN \"role_permissions\" rp ON rp.role_id = ro.id " +
+                    "LEFT JOIN \"permissions\" p ON p.id = rp.permission_id AND p.deleted_at IS NULL " +
+                    "LEFT JOIN \"resources\" r ON r.id = p.resource_id " +
+                    "WHERE ro.id = ? AND ro.deleted_at IS NULL " +
+                    "ORDER BY p.name";
+        List<Permission> granted = new ArrayList<>();
+        boolean[] roleFound = {false};
+        jdbcTemplate.query(sql, rs -> {
+            roleFound[0] = true;
+            if (rs.getString("id") != null) {
+                Permission permission = permissionRowMapper.mapRow(rs, granted.size());
+                if (permission.getResource() != null) {
+                    permission.getResource().setName(rs.getString("resource_name"));
+                }
+                granted.add(permission);
+            }
+        }, roleId);
+        return roleFound[0] ? Optional.of(granted) : Optional.empty();
+    }
+
     @Override
     public Optional<Permission> findById(UUID id) {
         String sql = "SELECT p.id::text, p.name, p.resource_id::text, p.action, p.conditions, " +
@@ -77,12 +105,29 @@ public class PermissionRepositoryImpl implements PermissionRepository {
 
     @Override
     public List<Permission> findAll(int page, int size) {
+        return findRange(page * size, size);
+    }
+
+    @Override
+    public List<Permission> findRange(int offset, int limit) {
+        String sql = "SELECT p.id::text, p.name, p.resource_id::text, p.action, p.conditions, " +
+                    "p.created_at, p.updated_at, p.deleted_at, r.id as resource_id " +
+                    "FROM \"permissions\" p " +
+                    "LEFT JOIN \"resources\" r ON p.resource_id = r.id " +
+                    "WHERE p.deleted_at IS NULL ORDER BY p.created_at DESC, p.id DESC LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, permissionRowMapper, limit, offset);
+    }
+
+    @Override
+    public List<Permission> findAllAfter(PageCursor cursor, int limit) {
         String sql = "SELECT p.id::text, p.name, p.resource_id::text, p.action, p.conditions, " +
                     "p.created_at, p.updated_at, p.deleted_at, r.id as resource_id " +
                     "FROM \"permissions\" p " +
                     "LEFT JOIN \"resources\" r ON p.resource_id = r.id " +
-                    "WHERE p.deleted_at IS NULL ORDER BY p.created_at DESC LIMIT ? OFFSET ?";
-        return jdbcTemplate.query(sql, permissionRowMapper, size, page * size);
+                    "WHERE p.deleted_at IS NULL AND (p.created_at, p.id) < (?, ?) " +
+                    "ORDER BY p.created_at DESC, p.id DESC LIMIT ?";
+        return jdbcTemplate.query(sql, permissionRowMapper,
+            Timestamp.valueOf(cursor.getTimestamp()), cursor.getId(), limit);
     }
 
     @Override
@@ -101,6 +146,11 @@ public class PermissionRepositoryImpl implements PermissionRepository {
         return jdbcTemplate.queryForObject(sql, Long.class);
     }
 
+    @Override
+    public long estimateCount() {
+        return PlannerEstimates.estimateRows(jdbcTemplate, "SELECT 1 FROM \"permissions\" WHERE deleted_at IS NULL");
+    }
+
     @Override
     public Permission save(Permission permission) {
         if (permission.getId() == null) {
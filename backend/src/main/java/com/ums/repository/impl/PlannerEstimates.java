@@ -0,0 +1,26 @@
+package com.ums.repository.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Row-count estimates taken from the query planner instead of executing
+ * the query. Accuracy depends on how fresh the table statistics are.
+ */
+final class PlannerEstimates {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PlannerEstimates() {}
+
+    static long estimateRows(JdbcTemplate jdbcTemplate, String sql, Object... params) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, params);
+        try {
+            JsonNode root = objectMapper.readTree(plan);
+            return root.path(0).path("Plan").path("Plan Rows").asLong(0);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read query plan estimate", e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ums.repository.impl;
 
 import com.ums.entity.RefreshToken;
 import com.ums.repository.RefreshTokenRepository;
+import com.ums.repository.projection.RefreshSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -69,6 +70,27 @@ public class RefreshTokenRepositoryImpl implements RefreshTokenRepository {
         return tokens.isEmpty() ? Optional.empty() : Optional.of(tokens.get(0));
     }
     
+    @Override
+    public Optional<RefreshSession> findSessionByTokenHash(String tokenHash) {
+        String sql = "SELECT id, user_id, expires_at, revoked_at FROM \"refresh_tokens\" WHERE token_hash = ?";
+        List<RefreshSession> sessions = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Timestamp expiresAt = rs.getTimestamp("expires_at");
+            Timestamp revokedAt = rs.getTimestamp("revoked_at");
+            return new RefreshSession(
+                UUID.fromString(rs.getString("id")),
+                UUID.fromString(rs.getString("user_id")),
+                expiresAt != null ? expiresAt.toLocalDateTime() : null,
+                revokedAt != null ? revokedAt.toLocalDateTime() : null);
+        }, tokenHash);
+        return sessions.isEmpty() ? Optional.empty() : Optional.of(sessions.get(0));
+    }
+    
+    @Override
+    public void revoke(UUID id) {
+        String sql = "UPDATE \"refresh_tokens\" SET revoked_at = ? WHERE id = ? AND revoked_at IS NULL";
+        jdbcTemplate.update(sql, Timestamp.valueOf(LocalDateTime.now()), id);
+    }
+    
     @Override
     public RefreshToken save(RefreshToken token) {
         if (token.getId() == null) {
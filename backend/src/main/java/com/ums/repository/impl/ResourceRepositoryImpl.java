@@ -16,14 +16,25 @@ import java.util.UUID;
 @Repository
 public class ResourceRepositoryImpl implements ResourceRepository {
 
+    private static final String COLUMNS =
+        "id::text, type::text, identifier, name, description, parent_id::text, path, metadata::text, created_at, updated_at";
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
     private final RowMapper<Resource> resourceRowMapper = (rs, rowNum) -> {
         Resource resource = new Resource();
         resource.setId(UUID.fromString(rs.getString("id")));
+        resource.setType(rs.getString("type"));
+        resource.setIdentifier(rs.getString("identifier"));
         resource.setName(rs.getString("name"));
         resource.setDescription(rs.getString("description"));
+        String parentId = rs.getString("parent_id");
+        if (parentId != null) {
+            resource.setParentId(UUID.fromString(parentId));
+        }
+        resource.setPath(rs.getString("path"));
+        resource.setMetadata(rs.getString("metadata"));
 
         Timestamp createdAt = rs.getTimestamp("created_at");
         if (createdAt != null) {
@@ -40,14 +51,14 @@ public class ResourceRepositoryImpl implements ResourceRepository {
 
     @Override
     public Optional<Resource> findById(UUID id) {
-        String sql = "SELECT id::text, name, description, created_at, updated_at FROM \"resources\" WHERE id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM \"resources\" WHERE id = ?";
         List<Resource> resources = jdbcTemplate.query(sql, resourceRowMapper, id);
         return resources.isEmpty() ? Optional.empty() : Optional.of(resources.get(0));
     }
 
     @Override
     public Optional<Resource> findByName(String name) {
-        String sql = "SELECT id::text, name, description, created_at, updated_at FROM \"resources\" WHERE name = ?";
+        String sql = "SELECT " + COLUMNS + " FROM \"resources\" WHERE name = ?";
         List<Resource> resources = jdbcTemplate.query(sql, resourceRowMapper, name);
         return resources.isEmpty() ? Optional.empty() : Optional.of(resources.get(0));
     }
@@ -60,28 +71,47 @@ public class ResourceRepositoryImpl implements ResourceRepository {
 
     @Override
     public List<Resource> findAll() {
-        String sql = "SELECT id::text, name, description, created_at, updated_at FROM \"resources\" ORDER BY name";
+        String sql = "SELECT " + COLUMNS + " FROM \"resources\" ORDER BY name";
         return jdbcTemplate.query(sql, resourceRowMapper);
     }
 
     @Override
     public Resource save(Resource resource) {
         if (resource.getId() == null) {
-            String sql = "INSERT INTO \"resources\" (id, name, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+            // The path extends the parent's, read in the same statement
+            String sql = "INSERT INTO \"resources\" " +
+                        "(id, type, identifier, name, description, parent_id, path, metadata, created_at, updated_at) " +
+                        "SELECT ?, ?::resource_type, ?, ?, ?, ?, " +
+                        "COALESCE((SELECT path FROM \"resources\" WHERE id = ?), '/') || ? || '/', " +
+                        "COALESCE(?::jsonb, '{}'::jsonb), ?, ? " +
+                        "RETURNING path";
             UUID id = UUID.randomUUID();
-            resource.setId(id);
-            jdbcTemplate.update(sql,
+            LocalDateTime now = LocalDateTime.now();
+            String path = jdbcTemplate.queryForObject(sql, String.class,
                 id,
+                resource.getType(),
+                resource.getIdentifier(),
                 resource.getName(),
                 resource.getDescription(),
-                LocalDateTime.now(),
-                LocalDateTime.now()
+                resource.getParentId(),
+                resource.getParentId(),
+                id.toString(),
+                resource.getMetadata(),
+                now,
+                now
             );
+            resource.setId(id);
+            resource.setPath(path);
         } else {
-            String sql = "UPDATE \"resources\" SET name = ?, description = ?, updated_at = ? WHERE id = ?";
+            // parent_id and path only change through move()
+            String sql = "UPDATE \"resources\" SET type = ?::resource_type, identifier = ?, name = ?, description = ?, " +
+                        "metadata = COALESCE(?::jsonb, metadata), updated_at = ? WHERE id = ?";
             jdbcTemplate.update(sql,
+                resource.getType(),
+                resource.getIdentifier(),
                 resource.getName(),
                 resource.getDescription(),
+                resource.getMetadata(),
                 LocalDateTime.now(),
                 resource.getId()
             );
@@ -94,4 +124,61 @@ public class ResourceRepositoryImpl implements ResourceRepository {
         String sql = "DELETE FROM \"resources\" WHERE id = ?";
         jdbcTemplate.update(sql, id);
     }
+
+    @Override
+    public List<Resource> findSubtree(UUID id) {
+        // '0' follows '/' in binary order, so [path, path-without-slash || '0') is exactly the subtree
+        String sql = "SELECT " + prefixed("r") + " FROM \"resources\" n " +
+                    "JOIN \"resources\" r ON r.path >= n.path AND r.path < left(n.path, -1) || '0' " +
+                    "WHERE n.id = ? AND n.deleted_at IS NULL AND r.deleted_at IS NULL " +
+                    "ORDER BY r.path";
+        return jdbcTemplate.query(sql, resourceRowMapper, id);
+    }
+
+    @Override
+    public List<Resource> findAncestors(UUID id) {
+        String sql = "SELECT " + prefixed("a") + " FROM \"resources\" n " +
+                    "JOIN \"resources\" a ON a.id = ANY(string_to_array(trim(both '/' from n.path), '/')::uuid[]) " +
+                    "WHERE n.id = ? AND a.id <> n.id AND n.deleted_at IS NULL AND a.deleted_at IS NULL " +
+                    "ORDER BY length(a.path)";
+        return jdbcTemplate.query(sql, resourceRowMapper, id);
+    }
+
+    @Override
+    public boolean move(UUID id, UUID newParentId) {
+        // Moves are rare; serializing them keeps a concurrent move from rewriting paths read here
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext('resources.move'))", rs -> { });
+        List<String> paths = jdbcTemplate.queryForList(
+            "SELECT path FROM \"resources\" WHERE id = ? AND deleted_at IS NULL", String.class, id);
+        if (paths.isEmpty()) {
+            return false;
+        }
+        String oldPath = paths.get(0);
+
+        String parentPath = "/";
+        if (newParentId != null) {
+            List<String> parentPaths = jdbcTemplate.queryForList(
+                "SELECT path FROM \"resources\" WHERE id = ? AND deleted_at IS NULL", String.class, newParentId);
+            if (parentPaths.isEmpty()) {
+                return false;
+            }
+            parentPath = parentPaths.get(0);
+            if (parentPath.startsWith(oldPath)) {
+                throw new IllegalArgumentException("Cannot move a resource under itself or its descendants");
+            }
+        }
+        String newPath = parentPath + id + "/";
+
+        jdbcTemplate.update("UPDATE \"resources\" SET parent_id = ?, updated_at = ? WHERE id = ?",
+            newParentId, Timestamp.valueOf(LocalDateTime.now()), id);
+        // Only the moved subtree is rewritten: its prefix is swapped in one range update
+        jdbcTemplate.update("UPDATE \"resources\" SET path = ? || substr(path, ?) " +
+                "WHERE path >= ? AND path < ?",
+            newPath, oldPath.length() + 1, oldPath, oldPath.substring(0, oldPath.length() - 1) + "0");
+        return true;
+    }
+
+    private static String prefixed(String alias) {
+        return COLUMNS.replaceAll("(^|, )", "$1" + alias + ".");
+    }
 }
@@ -79,6 +79,51 @@ public class RolePermissionRepositoryImpl implements RolePermissionRepository {
         jdbcTemplate.update(sql, roleId, permissionId);
     }
     
+    @Override
+    public List<UUID> findPermissionIdsByRoleId(UUID roleId) {
+        String sql = "SELECT permission_id FROM \"role_permissions\" WHERE role_id = ?";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> UUID.fromString(rs.getString(1)), roleId);
+    }
+    
+    @Override
+    public List<UUID> insertBatch(UUID roleId, Collection<UUID> permissionIds) {
+        if (permissionIds.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ordered = new ArrayList<>(permissionIds);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = "INSERT INTO \"role_permissions\" (id, role_id, permission_id, created_at) " +
+                    "VALUES (?, ?, ?, ?) ON CONFLICT (role_id, permission_id) DO NOTHING";
+        int[] counts = jdbcTemplate.batchUpdate(sql, ordered, ordered.size(), (ps, permissionId) -> {
+            ps.setObject(1, UUID.randomUUID());
+            ps.setObject(2, roleId);
+            ps.setObject(3, permissionId);
+            ps.setTimestamp(4, now);
+        })[0];
+        
+        List<UUID> inserted = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            // A concurrent writer may have granted it first; the driver may also report SUCCESS_NO_INFO
+            if (counts[i] != 0) {
+                inserted.add(ordered.get(i));
+            }
+        }
+        return inserted;
+    }
+    
+    @Override
+    public List<UUID> deleteByRoleIdAndPermissionIds(UUID roleId, Collection<UUID> permissionIds) {
+        if (permissionIds.isEmpty()) {
+            return List.of();
+        }
+        String sql = "DELETE FROM \"role_permissions\" WHERE role_id = ? AND permission_id = ANY(?) " +
+                    "RETURNING permission_id";
+        return jdbcTemplate.query(sql, ps -> {
+            ps.setObject(1, roleId);
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", permissionIds.toArray()));
+        }, (rs, rowNum) -> UUID.fromString(rs.getString(1)));
+    }
+    
     @Override
     public List<RolePermission> findAll() {
         String sql = "SELECT * FROM \"role_permissions\"";
@@ -1,5 +1,6 @@
 package com.ums.repository.impl;
 
+import com.ums.dto.common.PageCursor;
 import com.ums.entity.Role;
 import com.ums.repository.RoleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +15,13 @@ import java.util.*;
 @Repository
 public class RoleRepositoryImpl implements RoleRepository {
     
+    // Parent name and member count come from joins, so one query serves a whole listing page
+    private static final String SELECT_ROLES =
+        "SELECT r.*, p.name AS parent_name, COALESCE(c.member_count, 0) AS member_count " +
+        "FROM \"roles\" r " +
+        "LEFT JOIN \"roles\" p ON p.id = r.parent_id " +
+        "LEFT JOIN \"role_member_counts\" c ON c.role_id = r.id ";
+    
     @Autowired
     private JdbcTemplate jdbcTemplate;
     
@@ -24,11 +32,13 @@ public class RoleRepositoryImpl implements RoleRepository {
         role.setDescription(rs.getString("description"));
         role.setSystem(rs.getBoolean("is_system"));
         role.setPriority(rs.getInt("priority"));
+        role.setMemberCount(rs.getInt("member_count"));
         
         String parentId = rs.getString("parent_id");
         if (parentId != null) {
             Role parent = new Role();
             parent.setId(UUID.fromString(parentId));
+            parent.setName(rs.getString("parent_name"));
             role.setParent(parent);
         }
         
@@ -52,27 +62,40 @@ public class RoleRepositoryImpl implements RoleRepository {
     
     @Override
     public Optional<Role> findById(UUID id) {
-        String sql = "SELECT * FROM \"roles\" WHERE id = ? AND deleted_at IS NULL";
+        String sql = SELECT_ROLES + "WHERE r.id = ? AND r.deleted_at IS NULL";
         List<Role> roles = jdbcTemplate.query(sql, roleRowMapper, id);
         return roles.isEmpty() ? Optional.empty() : Optional.of(roles.get(0));
     }
     
     @Override
     public Optional<Role> findByName(String name) {
-        String sql = "SELECT * FROM \"roles\" WHERE name = ? AND deleted_at IS NULL";
+        String sql = SELECT_ROLES + "WHERE r.name = ? AND r.deleted_at IS NULL";
         List<Role> roles = jdbcTemplate.query(sql, roleRowMapper, name);
         return roles.isEmpty() ? Optional.empty() : Optional.of(roles.get(0));
     }
     
     @Override
     public List<Role> findAll(int page, int size) {
-        String sql = "SELECT * FROM \"roles\" WHERE deleted_at IS NULL ORDER BY priority DESC LIMIT ? OFFSET ?";
-        return jdbcTemplate.query(sql, roleRowMapper, size, page * size);
+        return findRange(page * size, size);
+    }
+    
+    @Override
+    public List<Role> findRange(int offset, int limit) {
+        String sql = SELECT_ROLES + "WHERE r.deleted_at IS NULL ORDER BY r.priority DESC, r.id DESC LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, roleRowMapper, limit, offset);
+    }
+    
+    @Override
+    public List<Role> findAllAfter(PageCursor cursor, int limit) {
+        // Roles are ordered by priority, so the cursor sort key carries the priority
+        String sql = SELECT_ROLES + "WHERE r.deleted_at IS NULL AND (r.priority, r.id) < (?, ?) " +
+                    "ORDER BY r.priority DESC, r.id DESC LIMIT ?";
+        return jdbcTemplate.query(sql, roleRowMapper, (int) cursor.getSortKey(), cursor.getId(), limit);
     }
     
     @Override
     public List<Role> findByParentId(UUID parentId) {
-        String sql = "SELECT * FROM \"roles\" WHERE parent_id = ? AND deleted_at IS NULL";
+        String sql = SELECT_ROLES + "WHERE r.parent_id = ? AND r.deleted_at IS NULL";
         return jdbcTemplate.query(sql, roleRowMapper, parentId);
     }
     
@@ -88,6 +111,11 @@ public class RoleRepositoryImpl implements RoleRepository {
         return jdbcTemplate.queryForObject(sql, Long.class);
     }
     
+    @Override
+    public long estimateCount() {
+        return PlannerEstimates.estimateRows(jdbcTemplate, "SELECT 1 FROM \"roles\" WHERE deleted_at IS NULL");
+    }
+    
     @Override
     public Role save(Role role) {
         if (role.getId() == null) {
@@ -136,7 +164,7 @@ public class RoleRepositoryImpl implements RoleRepository {
     
     @Override
     public List<Role> findAllActive() {
-        String sql = "SELECT * FROM \"roles\" WHERE deleted_at IS NULL ORDER BY priority DESC";
+        String sql = SELECT_ROLES + "WHERE r.deleted_at IS NULL ORDER BY r.priority DESC";
         return jdbcTemplate.query(sql, roleRowMapper);
     }
 }
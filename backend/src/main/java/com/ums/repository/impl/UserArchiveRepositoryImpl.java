@@ -0,0 +1,83 @@
+package com.ums.repository.impl;
+
+import com.ums.repository.UserArchiveRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public class UserArchiveRepositoryImpl implements UserArchiveRepository {
+    
+    // Explicit column lists keep the copies correct if either side gains columns
+    private static final String USER_COLUMNS =
+        "id, username, email, password_hash, phone, \"status\", mfa_enabled, mfa_secret, last_login_at, " +
+        "login_attempts, locked_until, created_at, updated_at, deleted_at, version";
+    private static final String USER_ROLE_COLUMNS =
+        "id, user_id, role_id, scope, scope_type, granted_at, expires_at, granted_by, revoked_at";
+    private static final String REFRESH_TOKEN_COLUMNS =
+        "id, user_id, token_hash, expires_at, revoked_at, ip_address, user_agent, created_at";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public int archiveDeletedBefore(LocalDateTime cutoff, int limit) {
+        // One statement per batch: every CTE sees the same snapshot and the batch commits atomically
+        String sql =
+            "WITH batch AS (" +
+            "  SELECT id FROM \"users\" WHERE deleted_at < ? ORDER BY deleted_at LIMIT ? FOR UPDATE SKIP LOCKED" +
+            "), moved_roles AS (" +
+            "  DELETE FROM \"user_roles\" ur USING batch WHERE ur.user_id = batch.id RETURNING ur.*" +
+            "), archived_roles AS (" +
+            "  INSERT INTO \"user_roles_archive\" (" + USER_ROLE_COLUMNS + ") " +
+            "  SELECT " + USER_ROLE_COLUMNS + " FROM moved_roles" +
+            "), moved_tokens AS (" +
+            "  DELETE FROM \"refresh_tokens\" rt USING batch WHERE rt.user_id = batch.id RETURNING rt.*" +
+            "), archived_tokens AS (" +
+            "  INSERT INTO \"refresh_tokens_archive\" (" + REFRESH_TOKEN_COLUMNS + ") " +
+            "  SELECT " + REFRESH_TOKEN_COLUMNS + " FROM moved_tokens" +
+            "), moved_users AS (" +
+            "  DELETE FROM \"users\" u USING batch WHERE u.id = batch.id RETURNING u.*" +
+            ") " +
+            "INSERT INTO \"users_archive\" (" + USER_COLUMNS + ", archived_at) " +
+            "SELECT " + USER_COLUMNS + ", NOW() FROM moved_users";
+        return jdbcTemplate.update(sql, Timestamp.valueOf(cutoff), limit);
+    }
+    
+    @Override
+    public boolean restore(UUID id) {
+        // Users go first so the foreign keys of the restored roles and tokens resolve
+        String sql =
+            "WITH moved_user AS (" +
+            "  DELETE FROM \"users_archive\" WHERE id = ? RETURNING " + USER_COLUMNS +
+            "), restored_user AS (" +
+            "  INSERT INTO \"users\" (" + USER_COLUMNS + ") SELECT " + USER_COLUMNS + " FROM moved_user RETURNING id" +
+            ") " +
+            "SELECT COUNT(*) FROM restored_user";
+        Integer restored;
+        try {
+            restored = jdbcTemplate.queryForObject(sql, Integer.class, id);
+        } catch (DuplicateKeyException e) {
+            // The archive has no unique constraints, so the name may have been reused meanwhile
+            throw new RuntimeException("Username or email is already taken by another user");
+        }
+        if (restored == null || restored == 0) {
+            return false;
+        }
+        
+        jdbcTemplate.update(
+            "WITH moved AS (DELETE FROM \"user_roles_archive\" WHERE user_id = ? RETURNING " + USER_ROLE_COLUMNS + ") " +
+            "INSERT INTO \"user_roles\" (" + USER_ROLE_COLUMNS + ") SELECT " + USER_ROLE_COLUMNS + " FROM moved " +
+            // Assignments to roles deleted while the user was archived are dropped
+            "WHERE role_id IN (SELECT id FROM \"roles\")", id);
+        jdbcTemplate.update(
+            "WITH moved AS (DELETE FROM \"refresh_tokens_archive\" WHERE user_id = ? RETURNING " + REFRESH_TOKEN_COLUMNS + ") " +
+            "INSERT INTO \"refresh_tokens\" (" + REFRESH_TOKEN_COLUMNS + ") SELECT " + REFRESH_TOKEN_COLUMNS + " FROM moved", id);
+        return true;
+    }
+}
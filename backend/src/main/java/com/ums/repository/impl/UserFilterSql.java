@@ -0,0 +1,42 @@
+package com.ums.repository.impl;
+
+import java.util.List;
+
+/**
+ * WHERE-clause fragments for the user list filters (status and search), shared
+ * by the queries that read users directly and the ones that select users to
+ * act on, so both interpret a filter the same way.
+ */
+final class UserFilterSql {
+
+    private UserFilterSql() {}
+
+    /**
+     * Appends the status and search conditions for columns qualified with
+     * {@code alias} (pass an empty string for unqualified columns).
+     */
+    static void appendFilters(StringBuilder sql, List<Object> params, String alias, String status, String search) {
+        appendStatusFilter(sql, params, alias, status);
+
+        if (search != null && !search.isEmpty()) {
+            // Served by the gin_trgm_ops indexes on username and email
+            String pattern = "%" + escapeLike(search) + "%";
+            sql.append(" AND (").append(alias).append("username ILIKE ? OR ")
+                .append(alias).append("email ILIKE ?)");
+            params.add(pattern);
+            params.add(pattern);
+        }
+    }
+
+    static void appendStatusFilter(StringBuilder sql, List<Object> params, String alias, String status) {
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND ").append(alias).append("status = ?::user_status");
+            params.add(status);
+        }
+    }
+
+    static String escapeLike(String value) {
+        // Backslash is the default LIKE escape character in PostgreSQL
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
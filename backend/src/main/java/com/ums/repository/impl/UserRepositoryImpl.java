@@ -1,32 +1,44 @@
 package com.ums.repository.impl;
 
+import com.ums.cache.CachedUser;
+import com.ums.cache.UserCache;
+import com.ums.dto.common.PageCursor;
 import com.ums.entity.User;
 import com.ums.repository.UserRepository;
+import com.ums.repository.projection.UserChange;
+import com.ums.repository.projection.UserCredentials;
+import com.ums.repository.projection.UserSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
     @Repository
 public class UserRepositoryImpl implements UserRepository {
     
-    private static final Logger logger = LoggerFactory.getLogger(UserRepositoryImpl.class);
-    
     @Autowired
     private JdbcTemplate jdbcTemplate;
     
     @Autowired
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     
+    @Autowired
+    private UserCache userCache;
+    
     private Timestamp toTimestamp(LocalDateTime localDateTime) {
         if (localDateTime == null) {
             return null;
@@ -77,9 +89,40 @@ public class UserRepositoryImpl implements UserRepository {
             user.setDeletedAt(deletedAt.toLocalDateTime());
         }
         
+        user.setVersion(rs.getLong("version"));
+        user.markClean();
         return user;
     };
     
+    private static final String SUMMARY_COLUMNS =
+        "id, username, email, phone, \"status\", mfa_enabled, last_login_at, created_at";
+    
+    private final RowMapper<UserSummary> userSummaryRowMapper = (rs, rowNum) -> {
+        Timestamp lastLogin = rs.getTimestamp("last_login_at");
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new UserSummary(
+            UUID.fromString(rs.getString("id")),
+            rs.getString("username"),
+            rs.getString("email"),
+            rs.getString("phone"),
+            User.UserStatus.valueOf(rs.getString("status")),
+            rs.getBoolean("mfa_enabled"),
+            lastLogin != null ? lastLogin.toLocalDateTime() : null,
+            createdAt != null ? createdAt.toLocalDateTime() : null);
+    };
+    
+    private final RowMapper<UserCredentials> userCredentialsRowMapper = (rs, rowNum) -> {
+        Timestamp lockedUntil = rs.getTimestamp("locked_until");
+        return new UserCredentials(
+            UUID.fromString(rs.getString("id")),
+            rs.getString("username"),
+            rs.getString("email"),
+            rs.getString("password_hash"),
+            User.UserStatus.valueOf(rs.getString("status")),
+            rs.getBoolean("mfa_enabled"),
+            lockedUntil != null ? lockedUntil.toLocalDateTime() : null);
+    };
+    
     @Override
     public Optional<User> findById(UUID id) {
         String sql = "SELECT * FROM \"users\" WHERE id = ? AND deleted_at IS NULL";
@@ -87,6 +130,38 @@ public class UserRepositoryImpl implements UserRepository {
         return users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
     }
     
+    @Override
+    public Optional<CachedUser> findCachedById(UUID id) {
+        return userCache.get(id, this::loadCachedUser);
+    }
+    
+    private Optional<CachedUser> loadCachedUser(UUID id) {
+        // Secrets are not selected, so they cannot end up in the cache
+        String sql = "SELECT id, username, email, phone, \"status\", mfa_enabled, last_login_at, login_attempts, " +
+                    "locked_until, created_at, updated_at, version FROM \"users\" WHERE id = ? AND deleted_at IS NULL";
+        List<CachedUser> users = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            User user = new User();
+            user.setId(UUID.fromString(rs.getString("id")));
+            user.setUsername(rs.getString("username"));
+            user.setEmail(rs.getString("email"));
+            user.setPhone(rs.getString("phone"));
+            user.setStatus(User.UserStatus.valueOf(rs.getString("status")));
+            user.setMfaEnabled(rs.getBoolean("mfa_enabled"));
+            user.setLoginAttempts(rs.getInt("login_attempts"));
+            Timestamp lastLogin = rs.getTimestamp("last_login_at");
+            user.setLastLoginAt(lastLogin != null ? lastLogin.toLocalDateTime() : null);
+            Timestamp lockedUntil = rs.getTimestamp("locked_until");
+            user.setLockedUntil(lockedUntil != null ? lockedUntil.toLocalDateTime() : null);
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            user.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            user.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+            user.setVersion(rs.getLong("version"));
+            return CachedUser.from(user);
+        }, id);
+        return users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
+    }
+    
     @Override
     public Optional<User> findByEmail(String email) {
         String sql = "SELECT * FROM \"users\" WHERE email = ? AND deleted_at IS NULL";
@@ -102,47 +177,203 @@ public class UserRepositoryImpl implements UserRepository {
     }
     
     @Override
-    public List<User> findAll(int page, int size, String status, String search) {
-        StringBuilder sql = new StringBuilder("SELECT * FROM \"users\" WHERE deleted_at IS NULL");
+    public Optional<UserCredentials> findCredentials(String usernameOrEmail) {
+        // A username match wins over another account's email
+        String sql = "SELECT id, username, email, password_hash, \"status\", mfa_enabled, locked_until FROM \"users\" " +
+                    "WHERE (username = ? OR email = ?) AND deleted_at IS NULL ORDER BY (username = ?) DESC LIMIT 1";
+        List<UserCredentials> users = jdbcTemplate.query(sql, userCredentialsRowMapper,
+            usernameOrEmail, usernameOrEmail, usernameOrEmail);
+        return users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
+    }
+    
+    @Override
+    public void recordLogin(UUID id) {
+        String sql = "UPDATE \"users\" SET login_attempts = 0, locked_until = NULL, last_login_at = NOW(), updated_at = NOW(), " +
+                    "version = version + 1 WHERE id = ?";
+        jdbcTemplate.update(sql, id);
+        userCache.evict(id);
+    }
+    
+    @Override
+    public List<UserSummary> findAll(int page, int size, String status, String search) {
+        return findRange(page * size, size, status, search);
+    }
+    
+    @Override
+    public List<UserSummary> findRange(int offset, int limit, String status, String search) {
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + " FROM \"users\" WHERE deleted_at IS NULL");
         List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, status, search);
         
-        if (status != null && !status.isEmpty()) {
-            sql.append(" AND status = ?");
-            params.add(status);
-        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?");
+        params.add(limit);
+        params.add(offset);
         
-        if (search != null && !search.isEmpty()) {
-            sql.append(" AND (username ILIKE ? OR email ILIKE ?)");
-            params.add("%" + search + "%");
-            params.add("%" + search + "%");
-        }
+        return jdbcTemplate.query(sql.toString(), userSummaryRowMapper, params.toArray());
+    }
+    
+    @Override
+    public List<UserSummary> findAllAfter(PageCursor cursor, int limit, String status, String search) {
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + " FROM \"users\" WHERE deleted_at IS NULL");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, status, search);
         
-        sql.append(" ORDER BY created_at DESC LIMIT ? OFFSET ?");
-        params.add(size);
-        params.add(page * size);
+        // Row-value comparison walks idx_users_created_id from the cursor position
+        sql.append(" AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?");
+        params.add(Timestamp.valueOf(cursor.getTimestamp()));
+        params.add(cursor.getId());
+        params.add(limit);
         
-        return jdbcTemplate.query(sql.toString(), userRowMapper, params.toArray());
+        return jdbcTemplate.query(sql.toString(), userSummaryRowMapper, params.toArray());
     }
     
     @Override
     public long count(String status, String search) {
         StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM \"users\" WHERE deleted_at IS NULL");
         List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, status, search);
         
-        if (status != null && !status.isEmpty()) {
-            sql.append(" AND status = ?");
-            params.add(status);
-        }
+        return jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
+    }
+    
+    @Override
+    public long estimateCount(String status, String search) {
+        StringBuilder sql = new StringBuilder("SELECT 1 FROM \"users\" WHERE deleted_at IS NULL");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, status, search);
         
-        if (search != null && !search.isEmpty()) {
-            sql.append(" AND (username ILIKE ? OR email ILIKE ?)");
-            params.add("%" + search + "%");
-            params.add("%" + search + "%");
-        }
+        return PlannerEstimates.estimateRows(jdbcTemplate, sql.toString(), params.toArray());
+    }
+    
+    @Override
+    public List<UserSummary> findAllRanked(int offset, int limit, String status, String search) {
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + " FROM \"users\" WHERE deleted_at IS NULL");
+        List<Object> params = new ArrayList<>();
+        appendRankedFilters(sql, params, status, search);
+        
+        sql.append(" ORDER BY GREATEST(similarity(username, ?), similarity(email, ?)) DESC, created_at DESC, id DESC LIMIT ? OFFSET ?");
+        params.add(search);
+        params.add(search);
+        params.add(limit);
+        params.add(offset);
+        
+        return jdbcTemplate.query(sql.toString(), userSummaryRowMapper, params.toArray());
+    }
+    
+    @Override
+    public long countRanked(String status, String search) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM \"users\" WHERE deleted_at IS NULL");
+        List<Object> params = new ArrayList<>();
+        appendRankedFilters(sql, params, status, search);
         
         return jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
     }
     
+    @Override
+    public void forEachUsernameAndEmail(int fetchSize, BiConsumer<String, String> action) {
+        String sql = "SELECT username, email FROM \"users\" WHERE deleted_at IS NULL";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, rs -> {
+            action.accept(rs.getString("username"), rs.getString("email"));
+        });
+    }
+    
+    @Override
+    public int[] insertBatch(List<User> users) {
+        String sql = "INSERT INTO \"users\" (id, username, email, password_hash, phone, \"status\", mfa_enabled, login_attempts, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?::user_status, false, 0, NOW(), NOW()) ON CONFLICT DO NOTHING";
+        return jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                User user = users.get(i);
+                if (user.getId() == null) {
+                    user.setId(UUID.randomUUID());
+                }
+                ps.setObject(1, user.getId());
+                ps.setString(2, user.getUsername());
+                ps.setString(3, user.getEmail());
+                ps.setString(4, user.getPasswordHash());
+                ps.setString(5, user.getPhone());
+                ps.setString(6, user.getStatus() != null ? user.getStatus().name() : "PENDING");
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return users.size();
+            }
+        });
+    }
+    
+    @Override
+    public List<User> findByUsernamesOrEmails(Collection<String> usernames, Collection<String> emails) {
+        String sql = "SELECT id, username, email FROM \"users\" WHERE username = ANY(?) OR email = ANY(?)";
+        return jdbcTemplate.query(sql, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("varchar", usernames.toArray()));
+            ps.setArray(2, ps.getConnection().createArrayOf("varchar", emails.toArray()));
+        }, (rs, rowNum) -> {
+            User user = new User();
+            user.setId(UUID.fromString(rs.getString("id")));
+            user.setUsername(rs.getString("username"));
+            user.setEmail(rs.getString("email"));
+            return user;
+        });
+    }
+    
+    @Override
+    public void streamForExport(String status, String search, int fetchSize, Consumer<User> action) {
+        // Password hash, MFA secret and lock state are deliberately not selected
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, username, email, phone, status, mfa_enabled, last_login_at, created_at, updated_at " +
+            "FROM \"users\" WHERE deleted_at IS NULL");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, status, search);
+        sql.append(" ORDER BY created_at DESC, id DESC");
+        
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, rs -> {
+            User user = new User();
+            user.setId(UUID.fromString(rs.getString("id")));
+            user.setUsername(rs.getString("username"));
+            user.setEmail(rs.getString("email"));
+            user.setPhone(rs.getString("phone"));
+            user.setStatus(User.UserStatus.valueOf(rs.getString("status")));
+            user.setMfaEnabled(rs.getBoolean("mfa_enabled"));
+            Timestamp lastLogin = rs.getTimestamp("last_login_at");
+            user.setLastLoginAt(lastLogin != null ? lastLogin.toLocalDateTime() : null);
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            user.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            user.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+            action.accept(user);
+        });
+    }
+    
+    private void appendFilters(StringBuilder sql, List<Object> params, String status, String search) {
+        UserFilterSql.appendFilters(sql, params, "", status, search);
+    }
+    
+    private void appendRankedFilters(StringBuilder sql, List<Object> params, String status, String search) {
+        UserFilterSql.appendStatusFilter(sql, params, "", status);
+        
+        String pattern = "%" + UserFilterSql.escapeLike(search) + "%";
+        sql.append(" AND (username ILIKE ? OR email ILIKE ? OR username % ? OR email % ?)");
+        params.add(pattern);
+        params.add(pattern);
+        params.add(search);
+        params.add(search);
+    }
+    
     @Override
     public User save(User user) {
         if (user.getId() == null) {
@@ -164,66 +395,112 @@ public class UserRepositoryImpl implements UserRepository {
             params.put("loginAttempts", user.getLoginAttempts());
 
             namedParameterJdbcTemplate.update(sql, params);
-        } else {
-            // Update existing user - build dynamic SQL for fields that are set
-            StringBuilder sql = new StringBuilder("UPDATE \"users\" SET updated_at = NOW()");
-
-            java.util.HashMap<String, Object> params = new java.util.HashMap<>();
-            params.put("id", user.getId());
-
-            if (user.getUsername() != null) {
-                sql.append(", username = :username");
-                params.put("username", user.getUsername());
-            }
-            if (user.getEmail() != null) {
-                sql.append(", email = :email");
-                params.put("email", user.getEmail());
-            }
-            if (user.getPasswordHash() != null) {
-                sql.append(", password_hash = :passwordHash");
-                params.put("passwordHash", user.getPasswordHash());
-            }
-            if (user.getPhone() != null) {
-                sql.append(", phone = :phone");
-                params.put("phone", user.getPhone());
-            }
-            if (user.getStatus() != null) {
-                sql.append(", status = :status::user_status");
-                params.put("status", user.getStatus().name());
-            }
-            if (user.getMfaSecret() != null) {
-                sql.append(", mfa_secret = :mfaSecret");
-                params.put("mfaSecret", user.getMfaSecret());
-            }
-            if (user.getLastLoginAt() != null) {
-                sql.append(", last_login_at = :lastLoginAt");
-                params.put("lastLoginAt", toTimestamp(user.getLastLoginAt()));
-            }
-            if (user.getLockedUntil() != null) {
-                sql.append(", locked_until = :lockedUntil");
-                params.put("lockedUntil", toTimestamp(user.getLockedUntil()));
+            user.setVersion(0L);
+            user.markClean();
+        } else if (user.hasChanges()) {
+            return update(user)
+                .orElseThrow(() -> new RuntimeException("User not found"))
+                .user();
+        }
+        return user;
+    }
+    
+    @Override
+    public Optional<UserChange> update(User user) {
+        if (!user.hasChanges()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        
+        StringBuilder sql = new StringBuilder("UPDATE \"users\" u SET updated_at = NOW(), version = u.version + 1");
+        List<Object> params = new ArrayList<>();
+        for (User.Field field : user.changedFields()) {
+            switch (field) {
+                case USERNAME -> appendSet(sql, params, "username = ?", user.getUsername());
+                case EMAIL -> appendSet(sql, params, "email = ?", user.getEmail());
+                case PASSWORD_HASH -> appendSet(sql, params, "password_hash = ?", user.getPasswordHash());
+                case PHONE -> appendSet(sql, params, "phone = ?", user.getPhone());
+                case STATUS -> appendSet(sql, params, "\"status\" = ?::user_status",
+                    user.getStatus() != null ? user.getStatus().name() : null);
+                case MFA_ENABLED -> appendSet(sql, params, "mfa_enabled = ?", user.isMfaEnabled());
+                case MFA_SECRET -> appendSet(sql, params, "mfa_secret = ?", user.getMfaSecret());
+                case LAST_LOGIN_AT -> appendSet(sql, params, "last_login_at = ?", toTimestamp(user.getLastLoginAt()));
+                case LOGIN_ATTEMPTS -> appendSet(sql, params, "login_attempts = ?", user.getLoginAttempts());
+                case LOCKED_UNTIL -> appendSet(sql, params, "locked_until = ?", toTimestamp(user.getLockedUntil()));
+                case DELETED_AT -> appendSet(sql, params, "deleted_at = ?", toTimestamp(user.getDeletedAt()));
             }
-
-            sql.append(" WHERE id = :id");
-
-            String finalSql = sql.toString();
-            logger.info("DEBUG_SQL: {}", finalSql);
-            logger.info("DEBUG_PARAMS: {}", params);
-            try {
-                namedParameterJdbcTemplate.update(finalSql, params);
-                logger.info("UPDATE completed successfully");
-            } catch (Exception e) {
-                logger.error("UPDATE FAILED: " + e.getMessage(), e);
-                throw e;
+        }
+        
+        // The self-join exposes the pre-update row, so callers need no read beforehand
+        sql.append(" FROM \"users\" prev WHERE prev.id = u.id AND u.id = ?");
+        params.add(user.getId());
+        boolean restoring = user.changedFields().contains(User.Field.DELETED_AT) && user.getDeletedAt() == null;
+        if (!restoring) {
+            sql.append(" AND u.deleted_at IS NULL");
+        }
+        if (user.getVersion() != null) {
+            sql.append(" AND u.version = ?");
+            params.add(user.getVersion());
+        }
+        sql.append(" RETURNING u.*, prev.username AS previous_username, prev.email AS previous_email, " +
+                   "prev.\"status\" AS previous_status");
+        
+        List<UserChange> rows = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new UserChange(
+            userRowMapper.mapRow(rs, rowNum),
+            rs.getString("previous_username"),
+            rs.getString("previous_email"),
+            User.UserStatus.valueOf(rs.getString("previous_status"))), params.toArray());
+        
+        if (rows.isEmpty()) {
+            if (user.getVersion() != null && exists(user.getId(), restoring)) {
+                throw new OptimisticLockingFailureException("User was modified by another request");
             }
+            return Optional.empty();
         }
-        return user;
+        user.markClean();
+        userCache.evict(user.getId());
+        return Optional.of(rows.get(0));
+    }
+    
+    private void appendSet(StringBuilder sql, List<Object> params, String assignment, Object value) {
+        sql.append(", ").append(assignment);
+        params.add(value);
+    }
+    
+    private boolean exists(UUID id, boolean includeDeleted) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM \"users\" WHERE id = ?" +
+                     (includeDeleted ? "" : " AND deleted_at IS NULL") + ")";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
     }
     
     @Override
     public void deleteById(UUID id) {
-        String sql = "UPDATE \"users\" SET deleted_at = ? WHERE id = ?";
+        String sql = "UPDATE \"users\" SET deleted_at = ?, version = version + 1 WHERE id = ?";
         jdbcTemplate.update(sql, LocalDateTime.now(), id);
+        userCache.evict(id);
+    }
+    
+    @Override
+    public void markLocked(UUID id, int loginAttempts, LocalDateTime lockedUntil) {
+        // status is left alone: the lock ends by itself once locked_until passes
+        String sql = "UPDATE \"users\" SET login_attempts = ?, locked_until = ?, updated_at = NOW(), " +
+                    "version = version + 1 " +
+                    "WHERE id = ? AND deleted_at IS NULL";
+        jdbcTemplate.update(sql, loginAttempts, toTimestamp(lockedUntil), id);
+        userCache.evict(id);
+    }
+    
+    @Override
+    public int recordFailedLogin(UUID id, int maxAttempts, LocalDateTime lockedUntil) {
+        String attempts = "CASE WHEN locked_until <= NOW() THEN 1 ELSE login_attempts + 1 END";
+        String sql = "UPDATE \"users\" SET login_attempts = " + attempts + ", " +
+                    "locked_until = CASE WHEN " + attempts + " >= ? THEN ? " +
+                    "WHEN locked_until <= NOW() THEN NULL ELSE locked_until END, " +
+                    "updated_at = NOW(), version = version + 1 " +
+                    "WHERE id = ? AND deleted_at IS NULL RETURNING login_attempts";
+        List<Integer> rows = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt(1),
+            maxAttempts, toTimestamp(lockedUntil), id);
+        userCache.evict(id);
+        return rows.isEmpty() ? 0 : rows.get(0);
     }
     
     @Override
@@ -25,6 +25,9 @@ public class UserRoleRepositoryImpl implements UserRoleRepository {
     @Autowired
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
+    private static final String COLUMNS =
+        "id, user_id, role_id, scope, scope_type, granted_at, expires_at, granted_by, revoked_at";
+
     private final RowMapper<UserRole> userRoleRowMapper = (rs, rowNum) -> {
         UserRole userRole = new UserRole();
         userRole.setId(UUID.fromString(rs.getString("id")));
@@ -62,8 +65,10 @@ public class UserRoleRepositoryImpl implements UserRoleRepository {
             UUID id = UUID.randomUUID();
             userRole.setId(id);
 
+            // Same arbiter as grantRole, so re-granting an active role is a no-op rather than a DuplicateKeyException
             String sql = "INSERT INTO \"user_roles\" (id, user_id, role_id, scope, scope_type, granted_at, expires_at, granted_by) " +
-                        "VALUES (:id, :userId, :roleId, :scope, CAST(:scopeType AS scope_type), :grantedAt, :expiresAt, :grantedBy)";
+                        "VALUES (:id, :userId, :roleId, :scope, CAST(:scopeType AS scope_type), :grantedAt, :expiresAt, :grantedBy) " +
+                        "ON CONFLICT (user_id, role_id, (COALESCE(scope, ''))) WHERE revoked_at IS NULL DO NOTHING";
 
             java.util.HashMap<String, Object> params = new java.util.HashMap<>();
             params.put("id", id);
@@ -75,32 +80,59 @@ public class UserRoleRepositoryImpl implements UserRoleRepository {
             params.put("expiresAt", userRole.getExpiresAt() != null ? Timestamp.valueOf(userRole.getExpiresAt()) : null);
             params.put("grantedBy", userRole.getGrantedBy());
 
-            logger.info("DEBUG: Inserting user_role with id={}, userId={}, roleId={}, scope={}, scopeType={}, grantedAt={}, expiresAt={}, grantedBy={}",
-                id, userRole.getUserId(), userRole.getRoleId(), userRole.getScope(), userRole.getScopeType(),
-                userRole.getGrantedAt(), userRole.getExpiresAt(), userRole.getGrantedBy());
-            logger.info("DEBUG_SQL: {}", sql);
-            logger.info("DEBUG_PARAMS: {}", params);
-
-            try {
-                namedParameterJdbcTemplate.update(sql, params);
-                logger.info("DEBUG: Insert successful");
-            } catch (Exception e) {
-                logger.error("DEBUG: Insert failed: " + e.getMessage(), e);
-                throw e;
+            logger.debug("Inserting user_role {} for user {} and role {}", id, userRole.getUserId(), userRole.getRoleId());
+            if (namedParameterJdbcTemplate.update(sql, params) == 0) {
+                logger.debug("User {} already holds role {}", userRole.getUserId(), userRole.getRoleId());
+                userRole.setId(findActiveGrantId(userRole.getUserId(), userRole.getRoleId(), userRole.getScope()));
             }
         }
         return userRole;
     }
     
+    private UUID findActiveGrantId(UUID userId, UUID roleId, String scope) {
+        String sql = "SELECT id FROM \"user_roles\" WHERE user_id = ? AND role_id = ? " +
+                    "AND COALESCE(scope, '') = COALESCE(?, '') AND revoked_at IS NULL";
+        List<UUID> ids = jdbcTemplate.query(sql, (rs, rowNum) -> UUID.fromString(rs.getString("id")), userId, roleId, scope);
+        // Revoked between the insert and this read; there is no grant to point at
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
     @Override
     public List<UserRole> findByUserId(UUID userId) {
-        String sql = "SELECT * FROM \"user_roles\" WHERE user_id = ? AND revoked_at IS NULL";
+        String sql = "SELECT " + COLUMNS + " FROM \"user_roles\" WHERE user_id = ? AND revoked_at IS NULL";
         return jdbcTemplate.query(sql, userRoleRowMapper, userId);
     }
     
+    @Override
+    public List<UserRole> findActiveByUserIds(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sql = "SELECT ur.id, ur.user_id, ur.role_id, ur.scope, ur.scope_type, ur.granted_at, ur.expires_at, " +
+                    "ur.granted_by, ur.revoked_at, r.name AS role_name FROM \"user_roles\" ur " +
+                    "JOIN \"roles\" r ON r.id = ur.role_id " +
+                    "WHERE ur.user_id = ANY(?) AND ur.revoked_at IS NULL " +
+                    "AND (ur.expires_at IS NULL OR ur.expires_at > NOW()) AND r.deleted_at IS NULL " +
+                    "ORDER BY r.priority DESC, r.name";
+        return jdbcTemplate.query(sql,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds.toArray())),
+            (rs, rowNum) -> {
+                UserRole userRole = userRoleRowMapper.mapRow(rs, rowNum);
+                userRole.setRoleName(rs.getString("role_name"));
+                return userRole;
+            });
+    }
+    
+    @Override
+    public List<UUID> findActiveRoleIds(UUID userId) {
+        String sql = "SELECT role_id FROM \"user_roles\" WHERE user_id = ? AND revoked_at IS NULL " +
+                    "AND (expires_at IS NULL OR expires_at > NOW())";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> UUID.fromString(rs.getString("role_id")), userId);
+    }
+    
     @Override
     public List<UserRole> findByRoleId(UUID roleId) {
-        String sql = "SELECT * FROM \"user_roles\" WHERE role_id = ? AND revoked_at IS NULL";
+        String sql = "SELECT " + COLUMNS + " FROM \"user_roles\" WHERE role_id = ? AND revoked_at IS NULL";
         return jdbcTemplate.query(sql, userRoleRowMapper, roleId);
     }
 
@@ -121,4 +153,65 @@ public class UserRoleRepositoryImpl implements UserRoleRepository {
         String sql = "UPDATE \"user_roles\" SET revoked_at = ? WHERE user_id = ?";
         jdbcTemplate.update(sql, Timestamp.valueOf(LocalDateTime.now()), userId);
     }
+
+    @Override
+    public List<UUID> grantRole(UUID roleId, Collection<UUID> userIds, String status, String search,
+                                String scope, String scopeType, LocalDateTime expiresAt, UUID grantedBy) {
+        // The select list needs explicit casts: its parameters are not typed from the target columns
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO \"user_roles\" (user_id, role_id, scope, scope_type, granted_at, expires_at, granted_by) " +
+            "SELECT u.id, ?::uuid, ?::varchar, ?::scope_type, NOW(), ?::timestamp, ?::uuid " +
+            "FROM \"users\" u WHERE u.deleted_at IS NULL");
+        List<Object> params = new ArrayList<>();
+        params.add(roleId);
+        params.add(scope);
+        params.add(scopeType);
+        params.add(expiresAt != null ? Timestamp.valueOf(expiresAt) : null);
+        params.add(grantedBy);
+        appendUserSelection(sql, params, userIds, status, search);
+
+        // Backed by idx_user_roles_active_unique, so re-granting is a no-op rather than a duplicate row
+        sql.append(" ON CONFLICT (user_id, role_id, (COALESCE(scope, ''))) WHERE revoked_at IS NULL DO NOTHING");
+        sql.append(" RETURNING user_id");
+        return queryUserIds(sql.toString(), params);
+    }
+
+    @Override
+    public List<UUID> revokeRole(UUID roleId, Collection<UUID> userIds, String status, String search) {
+        StringBuilder sql = new StringBuilder(
+            "UPDATE \"user_roles\" ur SET revoked_at = NOW() FROM \"users\" u " +
+            "WHERE u.id = ur.user_id AND ur.role_id = ? AND ur.revoked_at IS NULL");
+        List<Object> params = new ArrayList<>();
+        params.add(roleId);
+        if (userIds == null) {
+            sql.append(" AND u.deleted_at IS NULL");
+        }
+        appendUserSelection(sql, params, userIds, status, search);
+
+        sql.append(" RETURNING ur.user_id");
+        return queryUserIds(sql.toString(), params);
+    }
+
+    private void appendUserSelection(StringBuilder sql, List<Object> params, Collection<UUID> userIds,
+                                     String status, String search) {
+        if (userIds != null) {
+            sql.append(" AND u.id = ANY(?)");
+            params.add(userIds.toArray(new UUID[0]));
+        } else {
+            UserFilterSql.appendFilters(sql, params, "u.", status, search);
+        }
+    }
+
+    private List<UUID> queryUserIds(String sql, List<Object> params) {
+        return jdbcTemplate.query(sql, ps -> {
+            for (int i = 0; i < params.size(); i++) {
+                Object param = params.get(i);
+                if (param instanceof UUID[] ids) {
+                    ps.setArray(i + 1, ps.getConnection().createArrayOf("uuid", ids));
+                } else {
+                    ps.setObject(i + 1, param);
+                }
+            }
+        }, (rs, rowNum) -> UUID.fromString(rs.getString(1)));
+    }
 }
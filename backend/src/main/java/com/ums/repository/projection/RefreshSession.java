@@ -0,0 +1,23 @@
+package com.ums.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The state of a refresh token needed to rotate or revoke it. The token hash
+ * is the lookup key and is not read back, and neither are the client details.
+ */
+public record RefreshSession(
+        UUID id,
+        UUID userId,
+        LocalDateTime expiresAt,
+        LocalDateTime revokedAt) {
+
+    public boolean isRevoked() {
+        return revokedAt != null;
+    }
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(LocalDateTime.now());
+    }
+}
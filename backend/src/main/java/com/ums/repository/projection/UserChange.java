@@ -0,0 +1,15 @@
+package com.ums.repository.projection;
+
+import com.ums.entity.User;
+
+/**
+ * Result of a single-statement user update: the row as written, plus the
+ * identity values it had before, which audit entries and the suggestion
+ * index need and which would otherwise cost a read up front.
+ */
+public record UserChange(
+        User user,
+        String previousUsername,
+        String previousEmail,
+        User.UserStatus previousStatus) {
+}
@@ -0,0 +1,47 @@
+package com.ums.repository.projection;
+
+import com.ums.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * What a password login needs: identity, the password hash and the lock and
+ * MFA state. The MFA secret is not part of it; it is only read when a code
+ * is verified.
+ */
+public record UserCredentials(
+        UUID id,
+        String username,
+        String email,
+        String passwordHash,
+        User.UserStatus status,
+        boolean mfaEnabled,
+        LocalDateTime lockedUntil) {
+
+    public static UserCredentials from(User user) {
+        return new UserCredentials(user.getId(), user.getUsername(), user.getEmail(), user.getPasswordHash(),
+            user.getStatus(), user.isMfaEnabled(), user.getLockedUntil());
+    }
+
+    public boolean isLocked() {
+        return status == User.UserStatus.LOCKED ||
+               (lockedUntil != null && lockedUntil.isAfter(LocalDateTime.now()));
+    }
+
+    /**
+     * Returns the identity fields as a user for token generation; the
+     * password hash is not copied.
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setStatus(status);
+        user.setMfaEnabled(mfaEnabled);
+        user.setLockedUntil(lockedUntil);
+        user.markClean();
+        return user;
+    }
+}
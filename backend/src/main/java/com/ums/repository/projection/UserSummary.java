@@ -0,0 +1,26 @@
+package com.ums.repository.projection;
+
+import com.ums.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The columns a user list page shows. List queries select only these, so
+ * secrets and bookkeeping columns are never read for a page of users.
+ */
+public record UserSummary(
+        UUID id,
+        String username,
+        String email,
+        String phone,
+        User.UserStatus status,
+        boolean mfaEnabled,
+        LocalDateTime lastLoginAt,
+        LocalDateTime createdAt) {
+
+    public static UserSummary from(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getEmail(), user.getPhone(),
+            user.getStatus(), user.isMfaEnabled(), user.getLastLoginAt(), user.getCreatedAt());
+    }
+}
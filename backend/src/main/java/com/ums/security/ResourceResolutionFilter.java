@@ -0,0 +1,41 @@
+package com.ums.security;
+
+import com.ums.cache.RbacCatalog;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+
+/**
+ * Resolves each request to the API resource whose identifier pattern
+ * matches its path and exposes it as a request attribute, so authorization
+ * code can check permissions against the resource instead of the raw URI.
+ */
+@Component
+public class ResourceResolutionFilter extends OncePerRequestFilter {
+    
+    public static final String RESOURCE_ATTRIBUTE = "ums.resource";
+    
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    
+    @Autowired
+    private RbacCatalog rbacCatalog;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // Identifiers include the context path, so match against the full decoded URI
+        String path = urlPathHelper.getRequestUri(request);
+        rbacCatalog.resolveApiResource(path)
+            .ifPresent(resource -> request.setAttribute(RESOURCE_ATTRIBUTE, resource));
+        
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,159 @@
+package com.ums.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ums.dto.audit.AuditExportFormat;
+import com.ums.dto.audit.AuditQuery;
+import com.ums.entity.AuditLog;
+import com.ums.repository.AuditLogRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams audit_logs rows matching an {@link AuditQuery} as NDJSON or
+ * gzip-compressed CSV, oldest first. Filters run in SQL and rows go from the
+ * JDBC cursor straight to the response, so memory stays flat for extracts of
+ * any size.
+ */
+@Service
+public class AuditExportService {
+
+    private static final int FETCH_SIZE = 2000;
+    private static final int FLUSH_EVERY_ROWS = 5000;
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+    private static final String[] CSV_HEADER = {
+        "id", "createdAt", "userId", "action", "entityType", "entityId",
+        "ipAddress", "userAgent", "oldValue", "newValue", "metadata"
+    };
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public void export(AuditExportFormat format, AuditQuery query, OutputStream out) throws IOException {
+        // The PostgreSQL driver only uses a server-side cursor inside a transaction
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        try {
+            if (format == AuditExportFormat.CSV) {
+                // syncFlush so each periodic flush reaches the client instead of waiting in the deflater
+                GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_BYTES, true);
+                Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+                writer.write(String.join(",", CSV_HEADER));
+                writer.write("\r\n");
+                writer.flush();
+                transaction.executeWithoutResult(tx -> streamCsv(query, writer));
+                writer.flush();
+                gzip.finish();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                // One object per line; the newline is written explicitly after each row
+                generator.setRootValueSeparator(null);
+                transaction.executeWithoutResult(tx -> streamNdjson(query, generator));
+                generator.flush();
+            }
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the exception has already aborted the query
+            throw e.getCause();
+        }
+    }
+
+    private void streamNdjson(AuditQuery query, JsonGenerator generator) {
+        int[] rows = {0};
+        auditLogRepository.streamForExport(query, FETCH_SIZE, log -> {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("id", log.getId().toString());
+                generator.writeStringField("createdAt", log.getCreatedAt().toString());
+                generator.writeStringField("userId", text(log.getUserId()));
+                generator.writeStringField("action", log.getAction());
+                generator.writeStringField("entityType", log.getEntityType());
+                generator.writeStringField("entityId", text(log.getEntityId()));
+                generator.writeStringField("ipAddress", log.getIpAddress());
+                generator.writeStringField("userAgent", log.getUserAgent());
+                // jsonb columns come back as valid JSON text and are embedded as-is
+                writeJsonField(generator, "oldValue", log.getOldValue());
+                writeJsonField(generator, "newValue", log.getNewValue());
+                writeJsonField(generator, "metadata", log.getMetadata());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++rows[0] == 1 || rows[0] % FLUSH_EVERY_ROWS == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void streamCsv(AuditQuery query, Writer writer) {
+        int[] rows = {0};
+        auditLogRepository.streamForExport(query, FETCH_SIZE, log -> {
+            try {
+                writeCsvRow(writer, log);
+                if (++rows[0] == 1 || rows[0] % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void writeCsvRow(Writer writer, AuditLog log) throws IOException {
+        writer.write(log.getId().toString());
+        writer.write(',');
+        writer.write(log.getCreatedAt().toString());
+        writer.write(',');
+        UserExportService.writeCsvField(writer, text(log.getUserId()));
+        writer.write(',');
+        writer.write(log.getAction());
+        writer.write(',');
+        UserExportService.writeCsvText(writer, log.getEntityType());
+        writer.write(',');
+        UserExportService.writeCsvField(writer, text(log.getEntityId()));
+        writer.write(',');
+        UserExportService.writeCsvField(writer, log.getIpAddress());
+        writer.write(',');
+        UserExportService.writeCsvText(writer, log.getUserAgent());
+        writer.write(',');
+        // JSON text never starts with a formula character other than '-' of a bare number; kept verbatim
+        UserExportService.writeCsvField(writer, log.getOldValue());
+        writer.write(',');
+        UserExportService.writeCsvField(writer, log.getNewValue());
+        writer.write(',');
+        UserExportService.writeCsvField(writer, log.getMetadata());
+        writer.write("\r\n");
+    }
+
+    private static void writeJsonField(JsonGenerator generator, String name, String json) throws IOException {
+        generator.writeFieldName(name);
+        if (json == null) {
+            generator.writeNull();
+        } else {
+            generator.writeRawValue(json);
+        }
+    }
+
+    private static String text(UUID value) {
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ums.service;
+
+import com.ums.repository.AuditPartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps audit_logs partitioned ahead of time and applies retention by
+ * removing whole monthly partitions, which costs the same no matter how many
+ * rows a month holds and leaves no dead tuples behind.
+ */
+@Service
+public class AuditPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditPartitionService.class);
+
+    public enum RetentionMode {
+        /** Old months become standalone tables, for export or cold storage. */
+        DETACH,
+        DROP
+    }
+
+    @Autowired
+    private AuditPartitionRepository auditPartitionRepository;
+
+    @Value("${ums.audit.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${ums.audit.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${ums.audit.partitions.retention-mode:DETACH}")
+    private RetentionMode retentionMode;
+
+    @Scheduled(initialDelayString = "${ums.audit.partitions.initial-delay-ms:30000}",
+               fixedDelayString = "${ums.audit.partitions.interval-ms:86400000}")
+    public void maintainPartitions() {
+        try {
+            maintainPartitions(LocalDate.now());
+        } catch (Exception e) {
+            logger.warn("Audit partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Creates partitions from the current month through months-ahead, then
+     * removes months entirely older than the retention period. The current
+     * month and the retention-months before it are kept; 0 keeps everything.
+     */
+    public void maintainPartitions(LocalDate today) {
+        LocalDate currentMonth = today.withDayOfMonth(1);
+        int created = auditPartitionRepository.createPartitions(currentMonth, currentMonth.plusMonths(monthsAhead));
+        if (created > 0) {
+            logger.info("Created {} audit_logs partitions", created);
+        }
+
+        if (retentionMonths <= 0) {
+            return;
+        }
+        LocalDate oldestKept = oldestKeptMonth(today);
+        for (LocalDate month : auditPartitionRepository.findPartitionMonths()) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            if (retentionMode == RetentionMode.DROP) {
+                auditPartitionRepository.dropPartition(month);
+            } else {
+                auditPartitionRepository.detachPartition(month);
+            }
+            logger.info("Audit retention applied ({}) to the audit_logs partition for {}", retentionMode, month);
+        }
+    }
+
+    /**
+     * True if the month of the timestamp is past the retention period, so
+     * retention has removed or will remove its partition.
+     */
+    public boolean isExpired(LocalDateTime createdAt) {
+        return retentionMonths > 0
+            && createdAt.toLocalDate().withDayOfMonth(1).isBefore(oldestKeptMonth(LocalDate.now()));
+    }
+
+    /**
+     * Creates the partition for a late event's month, unless the month is
+     * expired: re-creating it would only undo retention.
+     *
+     * @return false if the month is expired
+     */
+    public boolean createPartitionFor(LocalDateTime createdAt) {
+        if (isExpired(createdAt)) {
+            return false;
+        }
+        LocalDate month = createdAt.toLocalDate().withDayOfMonth(1);
+        if (auditPartitionRepository.createPartitions(month, month) > 0) {
+            logger.info("Created the audit_logs partition for {} on demand", month);
+        }
+        return true;
+    }
+
+    private LocalDate oldestKeptMonth(LocalDate today) {
+        return today.withDayOfMonth(1).minusMonths(retentionMonths);
+    }
+}
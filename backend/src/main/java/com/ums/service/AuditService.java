@@ -1,15 +1,19 @@
 package com.ums.service;
 
 import com.ums.dto.audit.AuditEvent;
+import com.ums.dto.audit.AuditQuery;
 import com.ums.dto.common.PageResponse;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface AuditService {
 
     void logAuditEvent(AuditEvent event);
 
-    PageResponse<AuditEvent> getAuditLogs(int page, int size, String userId, String entityType, String entityId);
+    void logAuditEvents(List<AuditEvent> events);
+
+    PageResponse<AuditEvent> getAuditLogs(int page, int size, AuditQuery query, String cursor, String count);
 
     AuditEvent getAuditLogById(UUID id);
 }
@@ -0,0 +1,501 @@
+package com.ums.service;
+
+import com.ums.entity.AuditLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local, append-only spool for audit events that could not be written to the
+ * database. Events are stored in fixed-size, memory-mapped segment files as
+ * {@code [length][crc32][payload]} records. Once a record has been written to
+ * audit_logs its length is negated in place, so replay progress survives a
+ * restart without a separate checkpoint file. A segment is deleted when every
+ * record in it has been replayed and a newer segment exists. The directory
+ * must be on persistent storage and belongs to one process at a time, which
+ * holds a lock on {@value #LOCK_FILE} while the spool is open.
+ */
+@Service
+public class AuditSpool {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSpool.class);
+
+    private static final byte[] MAGIC = "UMSAUDT1".getBytes(StandardCharsets.US_ASCII);
+    private static final int RECORD_HEADER = 8;
+    private static final byte FORMAT_VERSION = 1;
+    private static final String LOCK_FILE = "spool.lock";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ums.audit.spool.dir:./data/audit-spool}")
+    private String spoolDir;
+
+    @Value("${ums.audit.spool.segment-bytes:16777216}")
+    private int segmentBytes;
+
+    @Value("${ums.audit.spool.max-segments:64}")
+    private int maxSegments;
+
+    private final LinkedList<Segment> segments = new LinkedList<>();
+    private long nextSequence;
+    private long pending;
+    private FileChannel lockChannel;
+
+    /** Events read by {@link #readBatch}; pass back to {@link #commit} once they are in the database. */
+    public record SpooledBatch(List<AuditLog> events, Segment segment, int[] positions) {
+        public boolean isEmpty() {
+            return events.isEmpty();
+        }
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Path dir = Path.of(spoolDir);
+        Files.createDirectories(dir);
+        lock(dir);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(path -> path.getFileName().toString().matches("audit-\\d{20}\\.seg"))
+                .sorted()
+                .toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Segment segment = Segment.recover(files.get(i), i == files.size() - 1);
+            pending += segment.pending;
+            nextSequence = segment.sequence + 1;
+            if (segment.pending == 0 && i < files.size() - 1) {
+                segment.delete();
+            } else {
+                segments.add(segment);
+            }
+        }
+        Gauge.builder("ums.audit.spool.pending", this, AuditSpool::pending).register(meterRegistry);
+        if (pending > 0) {
+            logger.info("Audit spool holds {} events in {} segment(s)", pending, segments.size());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+        try {
+            if (lockChannel != null) {
+                // Closing the channel releases the lock
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to release the audit spool lock in {}", spoolDir, e);
+        }
+        lockChannel = null;
+    }
+
+    /**
+     * Takes the directory for this process. Two writers appending to the same
+     * mapped segments would corrupt each other, so startup fails instead.
+     */
+    private void lock(Path dir) throws IOException {
+        FileChannel channel = FileChannel.open(dir.resolve(LOCK_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another spool in this JVM
+            acquired = null;
+        }
+        if (acquired == null) {
+            channel.close();
+            throw new IllegalStateException("Audit spool directory " + dir.toAbsolutePath() +
+                " is in use by another process; give each instance its own ums.audit.spool.dir");
+        }
+        lockChannel = channel;
+    }
+
+    public synchronized long pending() {
+        return pending;
+    }
+
+    /**
+     * Appends the events and forces them to disk. Returns how many were
+     * stored; the rest did not fit within max-segments.
+     */
+    public synchronized int append(List<AuditLog> events) {
+        int stored = 0;
+        Segment touched = null;
+        try {
+            for (AuditLog auditLog : events) {
+                // A fixed id lets the replayer recognise rows that already made it in
+                if (auditLog.getId() == null) {
+                    auditLog.setId(UUID.randomUUID());
+                }
+                byte[] payload = encode(auditLog);
+                if (RECORD_HEADER + payload.length > segmentBytes - MAGIC.length) {
+                    logger.error("Audit event {} is too large for the spool ({} bytes)", auditLog.getId(), payload.length);
+                    continue;
+                }
+                Segment segment = writableSegment(payload.length);
+                if (segment == null) {
+                    logger.error("Audit spool is full ({} segments)", maxSegments);
+                    break;
+                }
+                if (touched != null && touched != segment) {
+                    touched.force();
+                }
+                segment.append(payload);
+                touched = segment;
+                pending++;
+                stored++;
+            }
+            if (touched != null) {
+                touched.force();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to append to the audit spool in {}", spoolDir, e);
+        }
+        return stored;
+    }
+
+    /** Reads up to {@code max} pending events, oldest first, from a single segment. */
+    public synchronized SpooledBatch readBatch(int max) {
+        for (Segment segment : segments) {
+            if (segment.pending == 0) {
+                continue;
+            }
+            List<AuditLog> events = new ArrayList<>(max);
+            int[] positions = new int[max];
+            int position = segment.readPosition;
+            while (events.size() < max && position < segment.writePosition) {
+                int length = segment.buffer.getInt(position);
+                if (length == 0) {
+                    break;
+                }
+                if (length > 0) {
+                    byte[] payload = new byte[length];
+                    segment.buffer.get(position + RECORD_HEADER, payload);
+                    try {
+                        events.add(decode(payload));
+                        positions[events.size() - 1] = position;
+                    } catch (IOException | RuntimeException e) {
+                        // Passed its CRC but cannot be read by this version: never replayable
+                        logger.error("Discarding unreadable spooled audit event at {}:{}", segment.path, position, e);
+                        segment.markReplayed(position);
+                        pending--;
+                    }
+                }
+                position += RECORD_HEADER + Math.abs(length);
+            }
+            if (!events.isEmpty()) {
+                return new SpooledBatch(events, segment, Arrays.copyOf(positions, events.size()));
+            }
+        }
+        return new SpooledBatch(List.of(), null, new int[0]);
+    }
+
+    /** Marks a batch from {@link #readBatch} as written to the database. */
+    public synchronized void commit(SpooledBatch batch) {
+        if (batch.isEmpty() || !segments.contains(batch.segment())) {
+            return;
+        }
+        Segment segment = batch.segment();
+        for (int position : batch.positions()) {
+            if (segment.buffer.getInt(position) > 0) {
+                segment.markReplayed(position);
+                pending--;
+            }
+        }
+        segment.force();
+        segment.advanceReadPosition();
+        if (segment.pending == 0 && segment != segments.getLast()) {
+            segments.remove(segment);
+            segment.delete();
+        }
+    }
+
+    private Segment writableSegment(int payloadLength) throws IOException {
+        Segment last = segments.isEmpty() ? null : segments.getLast();
+        if (last != null && last.remaining() >= RECORD_HEADER + payloadLength) {
+            return last;
+        }
+        if (last != null && last.pending == 0) {
+            // Nothing left to replay in the full segment, so it can go right away
+            segments.removeLast();
+            last.delete();
+        }
+        if (segments.size() >= maxSegments) {
+            return null;
+        }
+        Segment segment = Segment.create(Path.of(spoolDir), nextSequence++, segmentBytes);
+        segments.add(segment);
+        return segment;
+    }
+
+    static byte[] encode(AuditLog auditLog) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        writeUuid(out, auditLog.getId());
+        writeUuid(out, auditLog.getUserId());
+        writeString(out, auditLog.getAction());
+        writeString(out, auditLog.getEntityType());
+        writeUuid(out, auditLog.getEntityId());
+        writeString(out, auditLog.getOldValue());
+        writeString(out, auditLog.getNewValue());
+        writeString(out, auditLog.getIpAddress());
+        writeString(out, auditLog.getUserAgent());
+        writeString(out, auditLog.getMetadata());
+        LocalDateTime createdAt = auditLog.getCreatedAt();
+        out.writeBoolean(createdAt != null);
+        if (createdAt != null) {
+            out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(createdAt.getNano());
+        }
+        return bytes.toByteArray();
+    }
+
+    static AuditLog decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unknown spool record version " + version);
+        }
+        AuditLog auditLog = new AuditLog();
+        auditLog.setId(readUuid(in));
+        auditLog.setUserId(readUuid(in));
+        auditLog.setAction(readString(in));
+        auditLog.setEntityType(readString(in));
+        auditLog.setEntityId(readUuid(in));
+        auditLog.setOldValue(readString(in));
+        auditLog.setNewValue(readString(in));
+        auditLog.setIpAddress(readString(in));
+        auditLog.setUserAgent(readString(in));
+        auditLog.setMetadata(readString(in));
+        auditLog.setCreatedAt(in.readBoolean()
+            ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+            : null);
+        return auditLog;
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * One mapped segment file. A record's length is positive while it waits
+     * for replay, negative once replayed, and zero past the last record.
+     */
+    static final class Segment {
+        final Path path;
+        final long sequence;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int readPosition;
+        int writePosition;
+        long pending;
+
+        private Segment(Path path, long sequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.sequence = sequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path dir, long sequence, int size) throws IOException {
+            Path path = dir.resolve(String.format("audit-%020d.seg", sequence));
+            FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.put(0, MAGIC);
+            buffer.force();
+            Segment segment = new Segment(path, sequence, channel, buffer);
+            segment.readPosition = MAGIC.length;
+            segment.writePosition = MAGIC.length;
+            return segment;
+        }
+
+        /**
+         * Maps an existing segment and finds its pending records. The scan
+         * stops at the first zero length or failed CRC; in the newest segment
+         * that is a torn append, and the tail is cleared so it can be reused.
+         */
+        static Segment recover(Path path, boolean newest) throws IOException {
+            String name = path.getFileName().toString();
+            long sequence = Long.parseLong(name.substring(6, 26));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            Segment segment = new Segment(path, sequence, channel, buffer);
+            byte[] magic = new byte[MAGIC.length];
+            if (buffer.capacity() >= MAGIC.length) {
+                buffer.get(0, magic);
+            }
+            if (!Arrays.equals(magic, MAGIC)) {
+                logger.error("Ignoring audit spool segment {} with an unknown header", path);
+                segment.readPosition = segment.writePosition = buffer.capacity();
+                return segment;
+            }
+
+            int position = MAGIC.length;
+            int firstPending = -1;
+            boolean torn = false;
+            while (position + RECORD_HEADER <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length == 0) {
+                    break;
+                }
+                int size = Math.abs(length);
+                if (size > buffer.capacity() - position - RECORD_HEADER) {
+                    torn = true;
+                    break;
+                }
+                if (length > 0) {
+                    if (crc(buffer, position + RECORD_HEADER, size) != buffer.getInt(position + 4)) {
+                        torn = true;
+                        break;
+                    }
+                    segment.pending++;
+                    if (firstPending < 0) {
+                        firstPending = position;
+                    }
+                }
+                position += RECORD_HEADER + size;
+            }
+            if (torn) {
+                logger.warn("Audit spool segment {} has a damaged record at offset {}; later records are ignored",
+                    path, position);
+                if (newest) {
+                    for (int i = position; i < buffer.capacity(); i++) {
+                        buffer.put(i, (byte) 0);
+                    }
+                    buffer.force();
+                }
+            }
+            segment.writePosition = position;
+            segment.readPosition = firstPending >= 0 ? firstPending : position;
+            return segment;
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        void append(byte[] payload) {
+            int position = writePosition;
+            buffer.putInt(position + 4, 0);
+            buffer.put(position + RECORD_HEADER, payload);
+            buffer.putInt(position + 4, crc(buffer, position + RECORD_HEADER, payload.length));
+            // The length goes in last; until then a reader sees the end of the segment
+            buffer.putInt(position, payload.length);
+            writePosition += RECORD_HEADER + payload.length;
+            pending++;
+        }
+
+        void markReplayed(int position) {
+            buffer.putInt(position, -buffer.getInt(position));
+            pending--;
+        }
+
+        void advanceReadPosition() {
+            while (readPosition < writePosition) {
+                int length = buffer.getInt(readPosition);
+                if (length > 0) {
+                    return;
+                }
+                if (length == 0) {
+                    readPosition = writePosition;
+                    return;
+                }
+                readPosition += RECORD_HEADER - length;
+            }
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void delete() {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete audit spool segment {}", path, e);
+            }
+        }
+    }
+}
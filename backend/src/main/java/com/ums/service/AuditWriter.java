@@ -0,0 +1,407 @@
+package com.ums.service;
+
+import com.ums.entity.AuditLog;
+import com.ums.repository.AuditLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single writer for audit_logs. Callers hand events to a bounded queue and
+ * return immediately; one background thread drains it and writes a JDBC batch
+ * every {@code batch-size} events or {@code flush-interval-ms}, whichever
+ * comes first. When the queue is full the overflow policy decides whether the
+ * caller waits, the event is dropped, or it is spilled to the {@link AuditSpool}.
+ * Batches the database does not accept for any reason other than a bad row
+ * also go to the spool, so audit records survive an outage. An event whose
+ * month has no audit_logs partition gets one created on demand, unless the
+ * month is past retention, in which case it is discarded as expired; if the
+ * partition cannot be created it stays in the spool.
+ */
+@Service
+public class AuditWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditWriter.class);
+
+    /** check_violation; audit_logs has no CHECK constraints, so it means no partition covers the row. */
+    private static final String NO_PARTITION_SQLSTATE = "23514";
+
+    public enum OverflowPolicy {
+        /** Wait up to block-timeout-ms for room, then drop. */
+        BLOCK,
+        DROP,
+        /** Append to the local spool; the replayer writes it to the database later. */
+        SPILL
+    }
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AuditPartitionService auditPartitionService;
+
+    @Autowired
+    private AuditSpool auditSpool;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ums.audit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${ums.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${ums.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${ums.audit.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${ums.audit.block-timeout-ms:1000}")
+    private long blockTimeoutMs;
+
+    @Value("${ums.audit.spool.replay-batches-per-run:100}")
+    private int replayBatchesPerRun;
+
+    @Value("${ums.audit.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<AuditLog> queue;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile boolean databaseAvailable = true;
+
+    private Counter writtenCounter;
+    private Counter droppedCounter;
+    private Counter spooledCounter;
+    private Counter failedCounter;
+    private Counter expiredCounter;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("ums.audit.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        writtenCounter = outcomeCounter("written");
+        droppedCounter = outcomeCounter("dropped");
+        spooledCounter = outcomeCounter("spooled");
+        failedCounter = outcomeCounter("failed");
+        expiredCounter = outcomeCounter("expired");
+        flushTimer = Timer.builder("ums.audit.flush").register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::drainLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops accepting work into the queue and waits for the writer to empty
+     * it. Whatever is still queued after the timeout is written from here.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            writer.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            logger.warn("Audit writer did not finish within {} ms", shutdownTimeoutMs);
+        }
+        // Picks up events offered while the writer was exiting
+        List<AuditLog> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    public void enqueue(AuditLog auditLog) {
+        if (!running) {
+            // Shutting down: nobody is left to drain the queue
+            flush(List.of(auditLog));
+            return;
+        }
+        if (queue.offer(auditLog)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    if (queue.offer(auditLog, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                drop(1);
+            }
+            case SPILL -> spool(List.of(auditLog));
+            default -> drop(1);
+        }
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long wait = deadline - System.nanoTime();
+                    if (wait <= 0 || !running) {
+                        break;
+                    }
+                    AuditLog next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Not expected; treat it as shutdown and drain what is left
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private void flush(List<AuditLog> batch) {
+        if (!databaseAvailable) {
+            // Do not wait on a dead connection per batch; the replayer probes for recovery
+            spool(batch);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            writeBatch(batch);
+            writtenCounter.increment(batch.size());
+        } catch (DataIntegrityViolationException e) {
+            // One bad row fails the whole batch; write the rest one at a time
+            logger.warn("Audit batch of {} rejected, retrying row by row: {}", batch.size(), e.getMessage());
+            for (AuditLog auditLog : batch) {
+                try {
+                    writeRow(auditLog);
+                    writtenCounter.increment();
+                } catch (DataIntegrityViolationException rowError) {
+                    if (isMissingPartition(rowError) && isExpired(auditLog)) {
+                        expire(auditLog);
+                    } else if (isMissingPartition(rowError)) {
+                        logger.warn("No audit_logs partition for audit event {} at {}, spooling it",
+                            auditLog.getId(), auditLog.getCreatedAt());
+                        spool(List.of(auditLog));
+                    } else {
+                        logger.error("Discarding audit event {}: {}", auditLog.getId(), rowError.getMessage());
+                        failedCounter.increment();
+                    }
+                } catch (Exception rowError) {
+                    handleFailedWrite(List.of(auditLog), rowError);
+                }
+            }
+        } catch (Exception e) {
+            handleFailedWrite(batch, e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void writeBatch(List<AuditLog> batch) {
+        // One transaction per batch, so a failed batch can be retried without duplicates
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(tx -> auditLogRepository.saveAll(batch));
+    }
+
+    /**
+     * Writes a single event, creating the partition for its month and trying
+     * once more if there is none, unless the month is past retention.
+     */
+    private void writeRow(AuditLog auditLog) {
+        try {
+            writeBatch(List.of(auditLog));
+        } catch (DataIntegrityViolationException e) {
+            if (!isMissingPartition(e) || auditLog.getCreatedAt() == null) {
+                throw e;
+            }
+            boolean created;
+            try {
+                created = auditPartitionService.createPartitionFor(auditLog.getCreatedAt());
+            } catch (Exception createError) {
+                logger.warn("Could not create the audit_logs partition for {}: {}",
+                    auditLog.getCreatedAt(), createError.getMessage());
+                throw e;
+            }
+            if (!created) {
+                // Past retention; the caller discards it
+                throw e;
+            }
+            writeBatch(List.of(auditLog));
+        }
+    }
+
+    private static boolean isMissingPartition(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && NO_PARTITION_SQLSTATE.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves spooled events into audit_logs. While the database is unreachable
+     * this is also the probe: the writer keeps spooling until a replay goes
+     * through. Each run is capped so it does not hold the shared scheduler.
+     */
+    @Scheduled(initialDelayString = "${ums.audit.spool.replay-interval-ms:5000}",
+               fixedDelayString = "${ums.audit.spool.replay-interval-ms:5000}")
+    public void replaySpool() {
+        // Events put back for want of a partition are retried next run, not read again in this one
+        long remaining = auditSpool.pending();
+        for (int i = 0; i < replayBatchesPerRun; i++) {
+            AuditSpool.SpooledBatch batch = auditSpool.readBatch(batchSize);
+            if (batch.isEmpty()) {
+                databaseAvailable = true;
+                return;
+            }
+            List<AuditLog> unpartitioned;
+            try {
+                unpartitioned = replay(batch.events());
+            } catch (Exception e) {
+                if (databaseAvailable) {
+                    logger.warn("Audit spool replay failed, database still unavailable: {}", e.getMessage());
+                }
+                databaseAvailable = false;
+                return;
+            }
+            if (!unpartitioned.isEmpty()) {
+                // Moved to the tail before the batch is committed, so they are never lost in between
+                logger.warn("No audit_logs partition for {} spooled audit events, keeping them in the spool",
+                    unpartitioned.size());
+                int stored = auditSpool.append(unpartitioned);
+                if (stored < unpartitioned.size()) {
+                    logger.error("Audit spool full, dropped {} unpartitioned event(s)", unpartitioned.size() - stored);
+                    droppedCounter.increment(unpartitioned.size() - stored);
+                }
+            }
+            auditSpool.commit(batch);
+            if (!databaseAvailable) {
+                logger.info("Database is back, replaying {} spooled audit events", auditSpool.pending());
+            }
+            databaseAvailable = true;
+            remaining -= batch.events().size();
+            if (remaining <= 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes spooled events and returns the ones that have to stay in the
+     * spool because no partition covers their month.
+     */
+    private List<AuditLog> replay(List<AuditLog> events) {
+        try {
+            writeBatch(events);
+            writtenCounter.increment(events.size());
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            // Usually rows that were written before a crash stopped the replay from being recorded
+        }
+        List<AuditLog> unpartitioned = new ArrayList<>();
+        for (AuditLog auditLog : events) {
+            try {
+                writeRow(auditLog);
+                writtenCounter.increment();
+            } catch (DuplicateKeyException e) {
+                logger.debug("Spooled audit event {} was already written", auditLog.getId());
+            } catch (DataIntegrityViolationException e) {
+                if (isMissingPartition(e) && isExpired(auditLog)) {
+                    expire(auditLog);
+                } else if (isMissingPartition(e)) {
+                    unpartitioned.add(auditLog);
+                } else {
+                    logger.error("Discarding spooled audit event {}: {}", auditLog.getId(), e.getMessage());
+                    failedCounter.increment();
+                }
+            }
+        }
+        return unpartitioned;
+    }
+
+    private boolean isExpired(AuditLog auditLog) {
+        return auditLog.getCreatedAt() != null && auditPartitionService.isExpired(auditLog.getCreatedAt());
+    }
+
+    private void expire(AuditLog auditLog) {
+        // Its month is past retention; keeping it would only fill the spool for good
+        logger.warn("Discarding audit event {} at {}, its month is past audit retention",
+            auditLog.getId(), auditLog.getCreatedAt());
+        expiredCounter.increment();
+    }
+
+    private void handleFailedWrite(List<AuditLog> batch, Exception e) {
+        if (databaseAvailable) {
+            logger.error("Failed to write {} audit events, spooling until the database recovers", batch.size(), e);
+        }
+        databaseAvailable = false;
+        spool(batch);
+    }
+
+    private void drop(int count) {
+        droppedCounter.increment(count);
+        logger.warn("Audit queue full, dropped {} event(s)", count);
+    }
+
+    private void spool(List<AuditLog> events) {
+        int stored = auditSpool.append(events);
+        spooledCounter.increment(stored);
+        if (stored < events.size()) {
+            droppedCounter.increment(events.size() - stored);
+        }
+    }
+
+    private Counter outcomeCounter(String outcome) {
+        return Counter.builder("ums.audit.events").tag("outcome", outcome).register(meterRegistry);
+    }
+}
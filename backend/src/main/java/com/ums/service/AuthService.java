@@ -14,4 +14,6 @@ public interface AuthService {
     void logout(String token);
     
     boolean verifyMfa(String code, String tempToken);
+    
+    LoginResponse completeMfaLogin(String tempToken, String code, String ipAddress, String userAgent);
 }
@@ -0,0 +1,107 @@
+package com.ums.service;
+
+import com.ums.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps failed-login counters and lock state in Redis so that password failures
+ * never touch the users table. Only the lock deadline is written back to
+ * Postgres, asynchronously. While Redis is unreachable failures are counted in
+ * the users table instead, so lockout keeps working.
+ */
+@Service
+public class LoginLockoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginLockoutService.class);
+
+    private static final String ATTEMPTS_PREFIX = "lockout:attempts:";
+    private static final String LOCKED_PREFIX = "lockout:locked:";
+
+    // KEYS[1] = attempts counter, KEYS[2] = lock flag
+    // ARGV[1] = max attempts, ARGV[2] = window / lock duration in seconds
+    // Returns 1 when this failure locked the account, 0 otherwise.
+    private static final RedisScript<Long> RECORD_FAILURE_SCRIPT = new DefaultRedisScript<>(
+        "local n = redis.call('INCR', KEYS[1]) " +
+        "if n == 1 then redis.call('EXPIRE', KEYS[1], ARGV[2]) end " +
+        "if n >= tonumber(ARGV[1]) then " +
+        "  redis.call('DEL', KEYS[1]) " +
+        "  if redis.call('SET', KEYS[2], '1', 'NX', 'EX', ARGV[2]) then return 1 end " +
+        "end " +
+        "return 0",
+        Long.class);
+
+    @Autowired private StringRedisTemplate redisTemplate;
+    @Autowired private UserRepository userRepository;
+
+    /**
+     * Atomically records a failed login and returns true if this failure moved
+     * the account into the locked state.
+     */
+    public boolean recordFailure(UUID userId, int maxAttempts, int lockSeconds) {
+        try {
+            Long lockedNow = redisTemplate.execute(RECORD_FAILURE_SCRIPT,
+                List.of(ATTEMPTS_PREFIX + userId, LOCKED_PREFIX + userId),
+                String.valueOf(maxAttempts), String.valueOf(lockSeconds));
+            return lockedNow != null && lockedNow == 1L;
+        } catch (Exception e) {
+            logger.error("Failed to record login failure in Redis for user: {}, counting it in the database", userId, e);
+        }
+        try {
+            int attempts = userRepository.recordFailedLogin(userId, maxAttempts,
+                LocalDateTime.now().plusSeconds(lockSeconds));
+            return attempts == maxAttempts;
+        } catch (Exception e) {
+            logger.error("Failed to record login failure for user: {}", userId, e);
+            return false;
+        }
+    }
+
+    public boolean isLocked(UUID userId) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(LOCKED_PREFIX + userId));
+        } catch (Exception e) {
+            logger.error("Failed to read lock state for user: {}", userId, e);
+            return false;
+        }
+    }
+
+    public void reset(UUID userId) {
+        try {
+            redisTemplate.delete(ATTEMPTS_PREFIX + userId);
+        } catch (Exception e) {
+            logger.error("Failed to reset login failures for user: {}", userId, e);
+        }
+    }
+
+    /**
+     * Removes the failure counter and any lock, e.g. when an administrator
+     * re-activates the account.
+     */
+    public void clear(UUID userId) {
+        try {
+            redisTemplate.delete(List.of(ATTEMPTS_PREFIX + userId, LOCKED_PREFIX + userId));
+        } catch (Exception e) {
+            logger.error("Failed to clear lockout for user: {}", userId, e);
+        }
+    }
+
+    @Async
+    public void persistLock(UUID userId, int loginAttempts, LocalDateTime lockedUntil) {
+        try {
+            userRepository.markLocked(userId, loginAttempts, lockedUntil);
+        } catch (Exception e) {
+            logger.error("Failed to persist lock for user: {}", userId, e);
+        }
+    }
+}
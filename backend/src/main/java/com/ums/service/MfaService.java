@@ -1,13 +1,42 @@
 package com.ums.service;
 
+import com.ums.entity.User;
+import com.ums.repository.UserRepository;
 import dev.samstevens.totp.code.*;
 import dev.samstevens.totp.secret.*;
 import dev.samstevens.totp.time.*;
+import org.apache.commons.codec.binary.Base32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
 public class MfaService {
+    private static final Logger logger = LoggerFactory.getLogger(MfaService.class);
+
+    private static final int TIME_STEP_SECONDS = 30;
+    private static final int ALLOWED_DISCREPANCY = 1;
+    private static final int CODE_DIGITS = 6;
+    private static final long SECRET_CACHE_TTL_MILLIS = 60_000;
+    private static final int SECRET_CACHE_MAX_ENTRIES = 10_000;
+    private static final String USED_STEPS_PREFIX = "mfa:used:";
+
     private final CodeVerifier codeVerifier = new DefaultCodeVerifier(new DefaultCodeGenerator(), new SystemTimeProvider());
+    private final Map<UUID, CachedKey> decodedSecrets = new ConcurrentHashMap<>();
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private StringRedisTemplate redisTemplate;
 
     public String generateSecret() {
         return new DefaultSecretGenerator().generate();
@@ -20,4 +49,107 @@ public class MfaService {
     public boolean verifyCode(String secret, String code) {
         return codeVerifier.isValidCode(secret, code);
     }
+
+    /**
+     * Verifies a TOTP code against the user's stored secret. A code is accepted
+     * at most once: the matching time step is recorded in Redis and any later
+     * attempt with the same step is rejected.
+     */
+    public boolean verifyCode(UUID userId, String code) {
+        if (code == null || code.length() != CODE_DIGITS) {
+            return false;
+        }
+
+        byte[] key = getDecodedSecret(userId);
+        if (key == null) {
+            return false;
+        }
+
+        long currentStep = System.currentTimeMillis() / 1000 / TIME_STEP_SECONDS;
+        byte[] expected = code.getBytes(StandardCharsets.US_ASCII);
+
+        for (int i = -ALLOWED_DISCREPANCY; i <= ALLOWED_DISCREPANCY; i++) {
+            long step = currentStep + i;
+            byte[] candidate = generateCode(key, step).getBytes(StandardCharsets.US_ASCII);
+            if (MessageDigest.isEqual(candidate, expected)) {
+                return markStepUsed(userId, step);
+            }
+        }
+        return false;
+    }
+
+    public void evictSecret(UUID userId) {
+        decodedSecrets.remove(userId);
+    }
+
+    private byte[] getDecodedSecret(UUID userId) {
+        long now = System.currentTimeMillis();
+        CachedKey cached = decodedSecrets.get(userId);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.key;
+        }
+
+        String secret = userRepository.findById(userId)
+            .map(User::getMfaSecret)
+            .orElse(null);
+        if (secret == null || secret.isEmpty()) {
+            decodedSecrets.remove(userId);
+            return null;
+        }
+
+        if (decodedSecrets.size() >= SECRET_CACHE_MAX_ENTRIES) {
+            decodedSecrets.values().removeIf(entry -> entry.expiresAt <= now);
+        }
+        byte[] key = new Base32().decode(secret);
+        decodedSecrets.put(userId, new CachedKey(key, now + SECRET_CACHE_TTL_MILLIS));
+        return key;
+    }
+
+    private boolean markStepUsed(UUID userId, long step) {
+        String redisKey = USED_STEPS_PREFIX + userId;
+        try {
+            Long added = redisTemplate.opsForSet().add(redisKey, String.valueOf(step));
+            // Keep the set only as long as any of its steps could still verify
+            redisTemplate.expire(redisKey, Duration.ofSeconds((2L * ALLOWED_DISCREPANCY + 2) * TIME_STEP_SECONDS));
+            return added != null && added > 0;
+        } catch (Exception e) {
+            logger.error("Failed to record used MFA time step for user: {}", userId, e);
+            return false;
+        }
+    }
+
+    private String generateCode(byte[] key, long step) {
+        try {
+            byte[] counter = new byte[8];
+            for (int i = 7; i >= 0; i--) {
+                counter[i] = (byte) (step & 0xff);
+                step >>= 8;
+            }
+
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(key, "HmacSHA1"));
+            byte[] hash = mac.doFinal(counter);
+
+            int offset = hash[hash.length - 1] & 0xf;
+            int binary = ((hash[offset] & 0x7f) << 24)
+                | ((hash[offset + 1] & 0xff) << 16)
+                | ((hash[offset + 2] & 0xff) << 8)
+                | (hash[offset + 3] & 0xff);
+
+            String otp = Integer.toString(binary % 1_000_000);
+            return "0".repeat(CODE_DIGITS - otp.length()) + otp;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate TOTP code", e);
+        }
+    }
+
+    private static class CachedKey {
+        private final byte[] key;
+        private final long expiresAt;
+
+        CachedKey(byte[] key, long expiresAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
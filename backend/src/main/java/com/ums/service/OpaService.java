@@ -1,5 +1,8 @@
 package com.ums.service;
 
+import com.ums.event.RolePermissionsChangedEvent;
+
+import java.util.Collection;
 import java.util.Map;
 
 public interface OpaService {
@@ -8,5 +11,16 @@ public interface OpaService {
     
     void invalidateCache(String userId);
     
+    /**
+     * Drops cached decisions for all given users in a single pass over the cache.
+     */
+    void invalidateCache(Collection<String> userIds);
+    
     void refreshOpaData();
+    
+    /**
+     * Patches only the changed role-permission grants into OPA, falling back
+     * to a full refresh if the patch is rejected.
+     */
+    void applyRolePermissionChange(RolePermissionsChangedEvent event);
 }
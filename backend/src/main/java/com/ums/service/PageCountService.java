@@ -0,0 +1,87 @@
+package com.ums.service;
+
+import com.ums.dto.common.CountMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves listing totals according to the requested {@link CountMode}.
+ * Cached counts live in one Redis hash per listing (field = filter key,
+ * value = "count:expiresAt"), so a write invalidates every cached filter
+ * combination with a single DEL.
+ */
+@Service
+public class PageCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageCountService.class);
+
+    private static final String KEY_PREFIX = "count:";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${ums.paging.count-cache-ttl:30}")
+    private long cacheTtlSeconds;
+
+    /**
+     * Returns the total for the listing, or -1 when the mode is NONE.
+     */
+    public long count(CountMode mode, String listing, String filterKey, LongSupplier exact, LongSupplier estimate) {
+        switch (mode) {
+            case NONE:
+                return -1;
+            case ESTIMATED:
+                try {
+                    return estimate.getAsLong();
+                } catch (Exception e) {
+                    logger.warn("Count estimate failed for {}, falling back to exact count", listing, e);
+                    return exact.getAsLong();
+                }
+            case CACHED:
+                return cachedCount(listing, filterKey, exact);
+            default:
+                return exact.getAsLong();
+        }
+    }
+
+    public void invalidate(String listing) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + listing);
+        } catch (Exception e) {
+            logger.error("Failed to invalidate cached counts for: {}", listing, e);
+        }
+    }
+
+    private long cachedCount(String listing, String filterKey, LongSupplier exact) {
+        String key = KEY_PREFIX + listing;
+        long now = System.currentTimeMillis();
+        try {
+            Object cached = redisTemplate.opsForHash().get(key, filterKey);
+            if (cached != null) {
+                String[] parts = cached.toString().split(":");
+                if (Long.parseLong(parts[1]) > now) {
+                    return Long.parseLong(parts[0]);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to read cached count for: {}", listing, e);
+        }
+
+        long total = exact.getAsLong();
+        try {
+            redisTemplate.opsForHash().put(key, filterKey, total + ":" + (now + cacheTtlSeconds * 1000));
+            // Bounds the lifetime of stale filter fields; each entry also carries its own expiry
+            redisTemplate.expire(key, Duration.ofSeconds(cacheTtlSeconds * 10));
+        } catch (Exception e) {
+            logger.error("Failed to cache count for: {}", listing, e);
+        }
+        return total;
+    }
+}
@@ -10,7 +10,7 @@ public interface PermissionService {
 
     PermissionResponse createPermission(String name, UUID resourceId, String action, String conditions);
 
-    PageResponse<PermissionResponse> getPermissions(int page, int size, String search);
+    PageResponse<PermissionResponse> getPermissions(int page, int size, String search, String cursor, String count);
 
     PermissionResponse getPermissionById(UUID id);
 
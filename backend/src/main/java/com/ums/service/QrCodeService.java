@@ -0,0 +1,264 @@
+package com.ums.service;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Renders QR codes as 1-bit grayscale PNGs written straight to an output stream.
+ * The encoded module matrix is packed into a compact bit matrix and cached per
+ * enrollment for a few minutes, so repeated renders only re-run the deflater.
+ */
+@Service
+public class QrCodeService {
+
+    private static final int QUIET_ZONE_MODULES = 4;
+    private static final long CACHE_TTL_MILLIS = 10 * 60 * 1000;
+    private static final int CACHE_MAX_ENTRIES = 10_000;
+    private static final int IDAT_CHUNK_SIZE = 8192;
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    private final Map<String, CachedMatrix> matrices = new ConcurrentHashMap<>();
+
+    /**
+     * Encodes the content and caches the resulting matrix under the given key.
+     */
+    public QrImage prepare(String key, String content) {
+        long now = System.currentTimeMillis();
+        if (matrices.size() >= CACHE_MAX_ENTRIES) {
+            matrices.values().removeIf(entry -> entry.expiresAt <= now);
+        }
+        QrImage image = new QrImage(encode(content));
+        matrices.put(key, new CachedMatrix(image, now + CACHE_TTL_MILLIS));
+        return image;
+    }
+
+    /**
+     * Returns the image prepared for the key, or empty if nothing is cached
+     * for it (or it has expired). The image stays renderable after the cache
+     * entry expires, so callers resolve it before starting a response.
+     */
+    public Optional<QrImage> find(String key) {
+        CachedMatrix cached = matrices.get(key);
+        if (cached == null || cached.expiresAt <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(cached.image);
+    }
+
+    public void evict(String key) {
+        matrices.remove(key);
+    }
+
+    static BitMatrix encode(String content) {
+        try {
+            QRCode code = Encoder.encode(content, ErrorCorrectionLevel.M,
+                Map.of(EncodeHintType.CHARACTER_SET, StandardCharsets.UTF_8.name()));
+            ByteMatrix modules = code.getMatrix();
+            BitMatrix matrix = new BitMatrix(modules.getWidth() + 2 * QUIET_ZONE_MODULES);
+            for (int y = 0; y < modules.getHeight(); y++) {
+                for (int x = 0; x < modules.getWidth(); x++) {
+                    if (modules.get(x, y) == 1) {
+                        matrix.set(x + QUIET_ZONE_MODULES, y + QUIET_ZONE_MODULES);
+                    }
+                }
+            }
+            return matrix;
+        } catch (WriterException e) {
+            throw new RuntimeException("Failed to encode QR code", e);
+        }
+    }
+
+    static void writePng(BitMatrix matrix, int scale, OutputStream out) throws IOException {
+        int size = matrix.size * scale;
+        int rowBytes = (size + 7) / 8;
+
+        out.write(PNG_SIGNATURE);
+
+        byte[] header = new byte[13];
+        writeInt(header, 0, size);
+        writeInt(header, 4, size);
+        header[8] = 1;  // bit depth
+        header[9] = 0;  // grayscale
+        header[10] = 0; // deflate
+        header[11] = 0; // adaptive filtering
+        header[12] = 0; // no interlace
+        writeChunk(out, "IHDR", header, header.length);
+
+        // One scanline buffer (filter byte + packed pixels), reused for every row
+        byte[] scanline = new byte[rowBytes + 1];
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            IdatOutputStream idat = new IdatOutputStream(out);
+            DeflaterOutputStream compressed = new DeflaterOutputStream(idat, deflater, IDAT_CHUNK_SIZE);
+            for (int moduleY = 0; moduleY < matrix.size; moduleY++) {
+                fillScanline(matrix, moduleY, scale, scanline);
+                for (int repeat = 0; repeat < scale; repeat++) {
+                    compressed.write(scanline, 0, scanline.length);
+                }
+            }
+            compressed.finish();
+            idat.flushChunk();
+        } finally {
+            deflater.end();
+        }
+
+        writeChunk(out, "IEND", new byte[0], 0);
+        out.flush();
+    }
+
+    private static void fillScanline(BitMatrix matrix, int moduleY, int scale, byte[] scanline) {
+        // In 1-bit grayscale a set bit is white; start white and clear dark modules
+        Arrays.fill(scanline, (byte) 0xff);
+        scanline[0] = 0; // filter type: none
+        for (int moduleX = 0; moduleX < matrix.size; moduleX++) {
+            if (!matrix.get(moduleX, moduleY)) {
+                continue;
+            }
+            int start = moduleX * scale;
+            for (int px = start; px < start + scale; px++) {
+                scanline[1 + (px >> 3)] &= (byte) ~(0x80 >>> (px & 7));
+            }
+        }
+        int size = matrix.size * scale;
+        if ((size & 7) != 0) {
+            // Padding bits past the image width are ignored, but keep them stable
+            scanline[scanline.length - 1] &= (byte) (0xff << (8 - (size & 7)));
+        }
+    }
+
+    private static void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] lengthBytes = new byte[4];
+        writeInt(lengthBytes, 0, length);
+
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        byte[] crcBytes = new byte[4];
+        writeInt(crcBytes, 0, (int) crc.getValue());
+
+        out.write(lengthBytes);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.write(crcBytes);
+    }
+
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    /**
+     * An encoded QR code, rendered on demand at any scale.
+     */
+    public static final class QrImage {
+        private final BitMatrix matrix;
+
+        private QrImage(BitMatrix matrix) {
+            this.matrix = matrix;
+        }
+
+        /** Streams the image as a PNG with {@code scale} pixels per module. */
+        public void writePng(int scale, OutputStream out) throws IOException {
+            QrCodeService.writePng(matrix, scale, out);
+        }
+    }
+
+    /**
+     * Module matrix packed one bit per module, row-major.
+     */
+    static class BitMatrix {
+        private final int size;
+        private final long[] bits;
+
+        BitMatrix(int size) {
+            this.size = size;
+            this.bits = new long[(size * size + 63) / 64];
+        }
+
+        void set(int x, int y) {
+            int index = y * size + x;
+            bits[index >>> 6] |= 1L << (index & 63);
+        }
+
+        boolean get(int x, int y) {
+            int index = y * size + x;
+            return (bits[index >>> 6] & (1L << (index & 63))) != 0;
+        }
+
+        int getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * Buffers compressed bytes and emits them as bounded IDAT chunks, so the
+     * image never has to be fully materialized before writing.
+     */
+    private static class IdatOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[IDAT_CHUNK_SIZE];
+        private int count;
+
+        IdatOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flushChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    flushChunk();
+                }
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        void flushChunk() throws IOException {
+            if (count > 0) {
+                writeChunk(out, "IDAT", buffer, count);
+                count = 0;
+            }
+        }
+    }
+
+    private static class CachedMatrix {
+        private final QrImage image;
+        private final long expiresAt;
+
+        CachedMatrix(QrImage image, long expiresAt) {
+            this.image = image;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
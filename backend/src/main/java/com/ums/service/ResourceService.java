@@ -0,0 +1,24 @@
+package com.ums.service;
+
+import com.ums.dto.resource.ResourceResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ResourceService {
+    
+    /**
+     * The resource with its whole subtree nested under {@code children}.
+     */
+    ResourceResponse getResourceTree(UUID id);
+    
+    /**
+     * The resource's ancestors, root first.
+     */
+    List<ResourceResponse> getAncestors(UUID id);
+    
+    /**
+     * Moves the resource, with its subtree, under a new parent; null makes it a root.
+     */
+    ResourceResponse moveResource(UUID id, UUID parentId);
+}
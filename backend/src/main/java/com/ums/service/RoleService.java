@@ -2,6 +2,7 @@ package com.ums.service;
 
 import com.ums.dto.permission.PermissionResponse;
 import com.ums.dto.role.CreateRoleRequest;
+import com.ums.dto.role.RoleMembersRequest;
 import com.ums.dto.role.UpdateRoleRequest;
 import com.ums.dto.role.RoleResponse;
 import com.ums.dto.common.PageResponse;
@@ -13,7 +14,7 @@ public interface RoleService {
     
     RoleResponse createRole(CreateRoleRequest request);
     
-    PageResponse<RoleResponse> getRoles(int page, int size);
+    PageResponse<RoleResponse> getRoles(int page, int size, String cursor, String count);
     
     RoleResponse getRoleById(UUID id);
     
@@ -28,4 +29,23 @@ public interface RoleService {
     List<PermissionResponse> getRolePermissions(UUID roleId);
     
     void updateRolePermissions(UUID roleId, List<UUID> permissionIds);
+    
+    /**
+     * Current version of the in-memory RBAC catalog.
+     */
+    long getCatalogVersion();
+    
+    /**
+     * Grants the role to every user selected by the request in one statement.
+     *
+     * @return number of users that received the role
+     */
+    int addMembers(UUID roleId, RoleMembersRequest request, UUID grantedBy);
+    
+    /**
+     * Revokes the role from every user selected by the request in one statement.
+     *
+     * @return number of users that lost the role
+     */
+    int removeMembers(UUID roleId, RoleMembersRequest request, UUID revokedBy);
 }
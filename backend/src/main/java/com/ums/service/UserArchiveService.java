@@ -0,0 +1,65 @@
+package com.ums.service;
+
+import com.ums.repository.UserArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves users soft-deleted longer than the retention period out of the hot
+ * tables. Each batch is one statement and commits on its own, so locks are
+ * short and a failed run resumes where it stopped on the next schedule.
+ */
+@Service
+public class UserArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserArchiveService.class);
+
+    @Autowired
+    private UserArchiveRepository userArchiveRepository;
+
+    @Value("${ums.archive.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${ums.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${ums.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(initialDelayString = "${ums.archive.initial-delay-ms:60000}",
+               fixedDelayString = "${ums.archive.interval-ms:3600000}")
+    public void archiveDeletedUsers() {
+        try {
+            int archived = archiveDeletedBefore(LocalDateTime.now().minusDays(retentionDays));
+            if (archived > 0) {
+                logger.info("Archived {} soft-deleted users", archived);
+            }
+        } catch (Exception e) {
+            logger.warn("Archiving deleted users failed", e);
+        }
+    }
+
+    /**
+     * Archives users deleted before the cutoff in batches until a short batch
+     * shows the backlog is drained or the per-run limit is reached.
+     *
+     * @return number of users archived
+     */
+    public int archiveDeletedBefore(LocalDateTime cutoff) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int moved = userArchiveRepository.archiveDeletedBefore(cutoff, batchSize);
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
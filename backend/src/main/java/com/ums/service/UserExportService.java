@@ -0,0 +1,155 @@
+package com.ums.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ums.dto.user.UserDataFormat;
+import com.ums.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Writes the user base as NDJSON or CSV while rows are still being read from
+ * the database. Rows go from the JDBC cursor straight to the output stream,
+ * so memory stays flat no matter how many users are exported.
+ */
+@Service
+public class UserExportService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int FLUSH_EVERY_ROWS = 500;
+    private static final String[] CSV_HEADER = {
+        "id", "username", "email", "phone", "status", "mfaEnabled", "lastLoginAt", "createdAt", "updatedAt"
+    };
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public void export(UserDataFormat format, String status, String search, OutputStream out) throws IOException {
+        // The PostgreSQL driver only uses a server-side cursor inside a transaction
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        try {
+            if (format == UserDataFormat.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writer.write(String.join(",", CSV_HEADER));
+                writer.write("\r\n");
+                writer.flush();
+                transaction.executeWithoutResult(tx -> streamCsv(status, search, writer));
+                writer.flush();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                // One object per line; the newline is written explicitly after each row
+                generator.setRootValueSeparator(null);
+                transaction.executeWithoutResult(tx -> streamNdjson(status, search, generator));
+                generator.flush();
+            }
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the exception has already aborted the query
+            throw e.getCause();
+        }
+    }
+
+    private void streamNdjson(String status, String search, JsonGenerator generator) {
+        int[] rows = {0};
+        userRepository.streamForExport(status, search, FETCH_SIZE, user -> {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("id", user.getId().toString());
+                generator.writeStringField("username", user.getUsername());
+                generator.writeStringField("email", user.getEmail());
+                generator.writeStringField("phone", user.getPhone());
+                generator.writeStringField("status", user.getStatus().name());
+                generator.writeBooleanField("mfaEnabled", user.isMfaEnabled());
+                generator.writeStringField("lastLoginAt", format(user.getLastLoginAt()));
+                generator.writeStringField("createdAt", format(user.getCreatedAt()));
+                generator.writeStringField("updatedAt", format(user.getUpdatedAt()));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++rows[0] == 1 || rows[0] % FLUSH_EVERY_ROWS == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void streamCsv(String status, String search, Writer writer) {
+        int[] rows = {0};
+        userRepository.streamForExport(status, search, FETCH_SIZE, user -> {
+            try {
+                writer.write(user.getId().toString());
+                writer.write(',');
+                writeCsvText(writer, user.getUsername());
+                writer.write(',');
+                writeCsvText(writer, user.getEmail());
+                writer.write(',');
+                writeCsvField(writer, user.getPhone());
+                writer.write(',');
+                writer.write(user.getStatus().name());
+                writer.write(',');
+                writer.write(Boolean.toString(user.isMfaEnabled()));
+                writer.write(',');
+                writeCsvField(writer, format(user.getLastLoginAt()));
+                writer.write(',');
+                writeCsvField(writer, format(user.getCreatedAt()));
+                writer.write(',');
+                writeCsvField(writer, format(user.getUpdatedAt()));
+                writer.write("\r\n");
+                if (++rows[0] == 1 || rows[0] % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Writes user-chosen text; a leading formula character is neutralised so
+     * spreadsheets opening the export do not evaluate it.
+     */
+    static void writeCsvText(Writer writer, String value) throws IOException {
+        if (value != null && !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        writeCsvField(writer, value);
+    }
+
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String format(LocalDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+}
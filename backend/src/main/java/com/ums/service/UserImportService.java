@@ -0,0 +1,434 @@
+package com.ums.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ums.dto.audit.AuditEvent;
+import com.ums.dto.user.CreateUserRequest;
+import com.ums.dto.user.UserDataFormat;
+import com.ums.entity.User;
+import com.ums.repository.UserRepository;
+import com.ums.util.PasswordService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports users from a streamed NDJSON or CSV body in fixed-size chunks.
+ * Per chunk: validation, one set-based duplicate lookup, password hashing on
+ * a bounded pool, one JDBC batch insert and one batched audit write. A result
+ * line per input row is streamed back as each chunk completes.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String USERS_LISTING = "users";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private UserSuggestService userSuggestService;
+
+    @Autowired
+    private PageCountService pageCountService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ums.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${ums.import.hash-threads:0}")
+    private int hashThreads;
+
+    private ThreadPoolExecutor hashPool;
+
+    @PostConstruct
+    void startHashPool() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        // Bounded queue with caller-runs: a burst of imports slows down instead of queueing unbounded work
+        hashPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads * 64),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stopHashPool() {
+        hashPool.shutdown();
+    }
+
+    public void importUsers(UserDataFormat format, InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        JsonGenerator results = objectMapper.getFactory().createGenerator(out);
+        results.setRootValueSeparator(null);
+
+        ImportState state = new ImportState();
+        Map<String, Integer> csvColumns = null;
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        int lineNumber = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == UserDataFormat.CSV && csvColumns == null) {
+                try {
+                    csvColumns = readCsvHeader(line);
+                } catch (IllegalArgumentException e) {
+                    results.writeStartObject();
+                    results.writeNumberField("line", lineNumber);
+                    results.writeStringField("error", e.getMessage());
+                    results.writeEndObject();
+                    results.writeRaw('\n');
+                    results.flush();
+                    return;
+                }
+                continue;
+            }
+
+            chunk.add(format == UserDataFormat.CSV
+                ? parseCsvRow(lineNumber, line, csvColumns)
+                : parseJsonRow(lineNumber, line));
+            if (chunk.size() >= chunkSize) {
+                processChunk(chunk, state, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, state, results);
+        }
+
+        results.writeStartObject();
+        results.writeBooleanField("summary", true);
+        results.writeNumberField("created", state.created);
+        results.writeNumberField("duplicates", state.duplicates);
+        results.writeNumberField("invalid", state.invalid);
+        results.writeNumberField("failed", state.failed);
+        results.writeEndObject();
+        results.writeRaw('\n');
+        results.flush();
+    }
+
+    private void processChunk(List<ImportRow> chunk, ImportState state, JsonGenerator results) throws IOException {
+        List<ImportRow> candidates = new ArrayList<>();
+        for (ImportRow row : chunk) {
+            if (row.status != null) {
+                continue;
+            }
+            String violation = validate(row.request);
+            if (violation != null) {
+                row.reject(RowStatus.INVALID, violation);
+            } else if (!state.seenUsernames.add(row.request.getUsername())) {
+                row.reject(RowStatus.DUPLICATE, "Username appears earlier in the import");
+            } else if (!state.seenEmails.add(row.request.getEmail())) {
+                row.reject(RowStatus.DUPLICATE, "Email appears earlier in the import");
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        candidates = rejectExisting(candidates);
+        if (!candidates.isEmpty()) {
+            insert(candidates);
+        }
+
+        List<AuditEvent> auditEvents = new ArrayList<>();
+        for (ImportRow row : chunk) {
+            writeResult(results, row);
+            switch (row.status) {
+                case CREATED:
+                    state.created++;
+                    auditEvents.add(AuditEvent.builder()
+                        .action("CREATE")
+                        .entityType("User")
+                        .entityId(row.user.getId())
+                        .newValue(objectMapper.writeValueAsString(
+                            Map.of("username", row.user.getUsername(), "email", row.user.getEmail())))
+                        .metadata("{\"source\": \"bulk_import\"}")
+                        .build());
+                    userSuggestService.add(row.user.getUsername(), row.user.getEmail());
+                    break;
+                case DUPLICATE:
+                    state.duplicates++;
+                    break;
+                case INVALID:
+                    state.invalid++;
+                    break;
+                default:
+                    state.failed++;
+            }
+        }
+        results.flush();
+
+        if (!auditEvents.isEmpty()) {
+            auditService.logAuditEvents(auditEvents);
+            pageCountService.invalidate(USERS_LISTING);
+        }
+    }
+
+    /**
+     * Drops rows whose username or email is already taken, using one query for the whole chunk.
+     */
+    private List<ImportRow> rejectExisting(List<ImportRow> candidates) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (ImportRow row : candidates) {
+            usernames.add(row.request.getUsername());
+            emails.add(row.request.getEmail());
+        }
+
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        for (User existing : userRepository.findByUsernamesOrEmails(usernames, emails)) {
+            takenUsernames.add(existing.getUsername());
+            takenEmails.add(existing.getEmail());
+        }
+
+        List<ImportRow> remaining = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            if (takenUsernames.contains(row.request.getUsername())) {
+                row.reject(RowStatus.DUPLICATE, "Username already exists");
+            } else if (takenEmails.contains(row.request.getEmail())) {
+                row.reject(RowStatus.DUPLICATE, "Email already exists");
+            } else {
+                remaining.add(row);
+            }
+        }
+        return remaining;
+    }
+
+    private void insert(List<ImportRow> rows) {
+        List<Future<String>> hashes = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            String password = row.request.getPassword();
+            hashes.add(hashPool.submit(() -> passwordService.hashPassword(password)));
+        }
+
+        List<ImportRow> hashed = new ArrayList<>(rows.size());
+        List<User> users = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            User user = new User();
+            user.setId(UUID.randomUUID());
+            user.setUsername(row.request.getUsername());
+            user.setEmail(row.request.getEmail());
+            user.setPhone(row.request.getPhone());
+            user.setStatus(User.UserStatus.PENDING);
+            try {
+                user.setPasswordHash(hashes.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                logger.error("Failed to hash password for import line {}", row.line, e.getCause());
+                row.reject(RowStatus.FAILED, "Failed to hash password");
+                continue;
+            }
+            row.user = user;
+            hashed.add(row);
+            users.add(user);
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+
+        try {
+            int[] counts = userRepository.insertBatch(users);
+            for (int i = 0; i < hashed.size(); i++) {
+                // A zero count means a concurrent insert took the username or email first
+                if (counts[i] == 0) {
+                    hashed.get(i).reject(RowStatus.DUPLICATE, "Username or email already exists");
+                } else if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    hashed.get(i).status = RowStatus.CREATED;
+                } else {
+                    hashed.get(i).reject(RowStatus.FAILED, "Insert failed");
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Bulk insert of {} users failed", users.size(), e);
+            for (ImportRow row : hashed) {
+                row.reject(RowStatus.FAILED, "Insert failed");
+            }
+        }
+    }
+
+    private String validate(CreateUserRequest request) {
+        Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.iterator().next().getMessage();
+    }
+
+    private void writeResult(JsonGenerator results, ImportRow row) throws IOException {
+        results.writeStartObject();
+        results.writeNumberField("line", row.line);
+        results.writeStringField("status", row.status.name());
+        if (row.request != null) {
+            results.writeStringField("username", row.request.getUsername());
+        }
+        if (row.status == RowStatus.CREATED) {
+            results.writeStringField("id", row.user.getId().toString());
+        }
+        if (row.error != null) {
+            results.writeStringField("error", row.error);
+        }
+        results.writeEndObject();
+        results.writeRaw('\n');
+    }
+
+    private ImportRow parseJsonRow(int lineNumber, String line) {
+        try {
+            return new ImportRow(lineNumber, objectMapper.readValue(line, CreateUserRequest.class));
+        } catch (Exception e) {
+            ImportRow row = new ImportRow(lineNumber, null);
+            row.reject(RowStatus.INVALID, "Malformed JSON");
+            return row;
+        }
+    }
+
+    private Map<String, Integer> readCsvHeader(String line) {
+        List<String> names = parseCsvLine(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : new String[] {"username", "email", "password"}) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private ImportRow parseCsvRow(int lineNumber, String line, Map<String, Integer> columns) {
+        List<String> fields = parseCsvLine(line);
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername(field(fields, columns, "username"));
+        request.setEmail(field(fields, columns, "email"));
+        request.setPassword(field(fields, columns, "password"));
+        request.setPhone(field(fields, columns, "phone"));
+        return new ImportRow(lineNumber, request);
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV record (RFC 4180 quoting, no embedded line breaks).
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private enum RowStatus {
+        CREATED, DUPLICATE, INVALID, FAILED
+    }
+
+    private static class ImportRow {
+        private final int line;
+        private final CreateUserRequest request;
+        private RowStatus status;
+        private String error;
+        private User user;
+
+        ImportRow(int line, CreateUserRequest request) {
+            this.line = line;
+            this.request = request;
+        }
+
+        void reject(RowStatus status, String error) {
+            this.status = status;
+            this.error = error;
+        }
+    }
+
+    private static class ImportState {
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private int created;
+        private int duplicates;
+        private int invalid;
+        private int failed;
+    }
+}
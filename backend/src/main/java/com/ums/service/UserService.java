@@ -5,6 +5,7 @@ import com.ums.dto.user.UpdateUserRequest;
 import com.ums.dto.user.UserResponse;
 import com.ums.dto.common.PageResponse;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,7 +13,9 @@ public interface UserService {
 
     UserResponse createUser(CreateUserRequest request);
 
-    PageResponse<UserResponse> getUsers(int page, int size, String status, String search);
+    PageResponse<UserResponse> getUsers(int page, int size, String status, String search, String cursor, String sort, String count);
+    
+    List<String> suggest(String prefix, int limit);
 
     UserResponse getUserById(UUID id);
 
@@ -20,6 +23,13 @@ public interface UserService {
 
     UserResponse updateUser(UUID id, UpdateUserRequest request);
 
+    /**
+     * Applies the non-null fields of the request without reading the user
+     * first. With an expected version the update only applies if the user
+     * still has that version.
+     */
+    UserResponse updateUser(UUID id, UpdateUserRequest request, Long expectedVersion);
+
     void softDeleteUser(UUID id);
 
     void restoreUser(UUID id);
@@ -34,7 +44,18 @@ public interface UserService {
 
     void enableMfa(String userId);
 
+    /**
+     * Stores a new, not yet verified MFA secret.
+     *
+     * @throws IllegalStateException if MFA is already enabled for the user
+     */
     void setMfaSecret(String userId, String secret);
 
     String getMfaSecret(String userId);
+
+    /**
+     * Returns the secret stored by MFA setup while it is still unverified;
+     * null once MFA is enabled, so an active secret is never handed out again.
+     */
+    String getPendingMfaSecret(String userId);
 }
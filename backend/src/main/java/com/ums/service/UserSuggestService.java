@@ -0,0 +1,140 @@
+package com.ums.service;
+
+import com.ums.repository.UserRepository;
+import com.ums.util.RadixTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory type-ahead index over usernames and emails of non-deleted users.
+ * The trie is kept current by the user write paths and rebuilt from the
+ * database periodically to pick up anything changed outside this instance.
+ */
+@Service
+public class UserSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSuggestService.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private RadixTrie<String> trie = new RadixTrie<>();
+
+    // Updates made while a rebuild is loading, replayed onto the new trie before the swap
+    private List<Consumer<RadixTrie<String>>> pendingDuringRebuild;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            return trie.findByPrefix(key, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(String username, String email) {
+        apply(t -> {
+            putTerm(t, username);
+            putTerm(t, email);
+        });
+    }
+
+    public void remove(String username, String email) {
+        apply(t -> {
+            removeTerm(t, username);
+            removeTerm(t, email);
+        });
+    }
+
+    @Scheduled(initialDelayString = "${ums.suggest.initial-delay-ms:0}",
+               fixedDelayString = "${ums.suggest.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        RadixTrie<String> fresh = new RadixTrie<>();
+        // The PostgreSQL driver only uses a server-side cursor inside a transaction
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            transaction.executeWithoutResult(tx ->
+                userRepository.forEachUsernameAndEmail(FETCH_SIZE, (username, email) -> {
+                    putTerm(fresh, username);
+                    putTerm(fresh, email);
+                }));
+        } catch (Exception e) {
+            logger.error("Failed to rebuild user suggestion index", e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild.forEach(update -> update.accept(fresh));
+            pendingDuringRebuild = null;
+            trie = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Rebuilt user suggestion index with {} terms", fresh.size());
+    }
+
+    private void apply(Consumer<RadixTrie<String>> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(trie);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void putTerm(RadixTrie<String> t, String term) {
+        if (term != null && !term.isEmpty()) {
+            t.put(normalize(term), term);
+        }
+    }
+
+    private static void removeTerm(RadixTrie<String> t, String term) {
+        if (term != null && !term.isEmpty()) {
+            t.remove(normalize(term));
+        }
+    }
+
+    private static String normalize(String term) {
+        return term.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,41 +1,42 @@
 package com.ums.service.impl;
 
 import com.ums.dto.audit.AuditEvent;
+import com.ums.dto.audit.AuditQuery;
+import com.ums.dto.common.CountMode;
+import com.ums.dto.common.PageCursor;
 import com.ums.dto.common.PageResponse;
 import com.ums.entity.AuditLog;
 import com.ums.repository.AuditLogRepository;
 import com.ums.service.AuditService;
+import com.ums.service.AuditWriter;
+import com.ums.service.PageCountService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 public class AuditServiceImpl implements AuditService {
 
+    private static final String AUDIT_LISTING = "audit_logs";
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private AuditWriter auditWriter;
+
+    @Autowired
+    private PageCountService pageCountService;
+
     @Override
-    @Async
     public void logAuditEvent(AuditEvent event) {
         try {
-            AuditLog auditLog = new AuditLog();
-            auditLog.setUserId(event.getUserId());
-            auditLog.setAction(event.getAction());
-            auditLog.setEntityType(event.getEntityType());
-            auditLog.setEntityId(event.getEntityId());
-            auditLog.setOldValue(event.getOldValue());
-            auditLog.setNewValue(event.getNewValue());
-            auditLog.setIpAddress(event.getIpAddress());
-            auditLog.setUserAgent(event.getUserAgent());
-            // Ensure metadata is never null - PostgreSQL JSONB requires valid JSON
-            auditLog.setMetadata(event.getMetadata() != null ? event.getMetadata() : "{}");
-
-            auditLogRepository.save(auditLog);
+            auditWriter.enqueue(toAuditLog(event));
         } catch (Exception e) {
             // Log error but don't fail the main operation
             System.err.println("Failed to log audit event: " + e.getMessage());
@@ -43,38 +44,73 @@ public class AuditServiceImpl implements AuditService {
     }
 
     @Override
-    public PageResponse<AuditEvent> getAuditLogs(int page, int size, String userId, String entityType, String entityId) {
-        List<AuditLog> logs;
-
-        if (userId != null && !userId.isEmpty()) {
-            logs = auditLogRepository.findByUserId(UUID.fromString(userId), page, size);
-        } else if (entityType != null && entityId != null && !entityId.isEmpty()) {
-            logs = auditLogRepository.findByEntityTypeAndEntityId(entityType, UUID.fromString(entityId), page, size);
-        } else {
-            logs = auditLogRepository.findAll(page, size);
+    public void logAuditEvents(List<AuditEvent> events) {
+        try {
+            for (AuditEvent event : events) {
+                auditWriter.enqueue(toAuditLog(event));
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to log " + events.size() + " audit events: " + e.getMessage());
         }
+    }
 
-        long total = logs.size(); // Simplified - actual implementation would count total
-        List<AuditEvent> events = logs.stream()
-                .map(this::mapToEvent)
-                .collect(Collectors.toList());
+    private AuditLog toAuditLog(AuditEvent event) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setUserId(event.getUserId());
+        auditLog.setAction(event.getAction());
+        auditLog.setEntityType(event.getEntityType());
+        auditLog.setEntityId(event.getEntityId());
+        auditLog.setOldValue(event.getOldValue());
+        auditLog.setNewValue(event.getNewValue());
+        auditLog.setIpAddress(event.getIpAddress());
+        auditLog.setUserAgent(event.getUserAgent());
+        // Ensure metadata is never null - PostgreSQL JSONB requires valid JSON
+        auditLog.setMetadata(event.getMetadata() != null ? event.getMetadata() : "{}");
+        // Stamped here so a spooled event keeps the time it happened, not the time it is replayed
+        auditLog.setCreatedAt(LocalDateTime.now());
+        return auditLog;
+    }
+
+    @Override
+    public PageResponse<AuditEvent> getAuditLogs(int page, int size, AuditQuery query, String cursor, String count) {
+        // Totals over the whole log are expensive, so the planner estimate is the default here
+        CountMode countMode = count == null || count.isEmpty() ? CountMode.ESTIMATED : CountMode.from(count);
+        boolean keyset = cursor != null && !cursor.isEmpty();
 
-        return new PageResponse<>(events, page, size, total);
+        // The log only grows, so cached counts are not invalidated on writes; the TTL bounds how stale they get
+        long total = pageCountService.count(countMode, AUDIT_LISTING, query.filterKey(),
+                () -> auditLogRepository.count(query),
+                () -> auditLogRepository.estimateCount(query));
+
+        List<AuditLog> rows = keyset
+                ? auditLogRepository.find(query, PageCursor.decode(cursor), 0, size + 1)
+                : auditLogRepository.find(query, null, page * size, size + 1);
+        Function<AuditLog, PageCursor> cursorOf = log -> PageCursor.of(log.getCreatedAt(), log.getId());
+
+        PageResponse<AuditEvent> response;
+        if (keyset) {
+            response = PageResponse.keyset(rows, size, total, false, cursorOf, this::mapToEvent);
+        } else {
+            response = PageResponse.lookAhead(rows, page, size, total, this::mapToEvent);
+            if (response.isHasNext()) {
+                response.setNextCursor(cursorOf.apply(rows.get(size - 1)).encode());
+            }
+        }
+        response.setCountMode(countMode.name().toLowerCase(Locale.ROOT));
+        return response;
     }
 
     @Override
     public AuditEvent getAuditLogById(UUID id) {
-        // Simplified - actual implementation would query by ID
-        List<AuditLog> logs = auditLogRepository.findAll(0, 100);
-        return logs.stream()
-                .filter(log -> log.getId().equals(id))
+        return auditLogRepository.findById(id)
                 .map(this::mapToEvent)
-                .findFirst()
                 .orElse(null);
     }
 
     private AuditEvent mapToEvent(AuditLog log) {
         AuditEvent event = new AuditEvent();
+        event.setId(log.getId());
+        event.setCreatedAt(log.getCreatedAt());
         event.setUserId(log.getUserId());
         event.setAction(log.getAction());
         event.setEntityType(log.getEntityType());
@@ -1,12 +1,18 @@
 package com.ums.service.impl;
 
+import com.ums.cache.CachedUser;
+import com.ums.cache.RbacCatalog;
 import com.ums.dto.auth.*;
 import com.ums.entity.*;
 import com.ums.repository.*;
+import com.ums.repository.projection.RefreshSession;
+import com.ums.repository.projection.UserCredentials;
 import com.ums.security.JwtTokenProvider;
 import com.ums.service.AuthService;
 import com.ums.service.AuditService;
 import com.ums.service.CacheService;
+import com.ums.service.LoginLockoutService;
+import com.ums.service.MfaService;
 import com.ums.service.OpaService;
 import com.ums.service.RateLimitService;
 import com.ums.util.PasswordService;
@@ -31,6 +37,9 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private UserRoleRepository userRoleRepository;
     
+    @Autowired
+    private RbacCatalog rbacCatalog;
+    
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
     
@@ -49,6 +58,12 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private PasswordService passwordService;
     
+    @Autowired
+    private LoginLockoutService loginLockoutService;
+    
+    @Autowired
+    private MfaService mfaService;
+    
     private static final int MAX_LOGIN_ATTEMPTS = 5;
     private static final int LOCKOUT_DURATION_MINUTES = 60;
     
@@ -58,33 +73,26 @@ public class AuthServiceImpl implements AuthService {
             throw new RuntimeException("Too many login attempts. Please try again later.");
         }
         
-        Optional<User> userOpt = userRepository.findByUsername(usernameOrEmail);
-        if (userOpt.isEmpty()) {
-            userOpt = userRepository.findByEmail(usernameOrEmail);
-        }
-        if (userOpt.isEmpty()) {
-            throw new RuntimeException("Invalid username or password");
-        }
-        
-        User user = userOpt.get();
+        UserCredentials credentials = userRepository.findCredentials(usernameOrEmail)
+            .orElseThrow(() -> new RuntimeException("Invalid username or password"));
         
-        if (user.isLocked()) {
+        if (loginLockoutService.isLocked(credentials.id()) || credentials.isLocked()) {
             throw new RuntimeException("Account is temporarily locked. Please try again later.");
         }
 
-        boolean passwordMatches = passwordService.verifyPassword(password, user.getPasswordHash());
+        boolean passwordMatches = passwordService.verifyPassword(password, credentials.passwordHash());
 
         if (!passwordMatches) {
             rateLimitService.increment(ipAddress, 300);
-            handleFailedLogin(user, ipAddress, usernameOrEmail);
+            handleFailedLogin(credentials, ipAddress, usernameOrEmail);
             throw new RuntimeException("Invalid username or password");
         }
         
         // Reset login attempts on successful login
-        user.setLoginAttempts(0);
-        user.setLockedUntil(null);
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        loginLockoutService.reset(credentials.id());
+        userRepository.recordLogin(credentials.id());
+        
+        User user = credentials.toUser();
         
         // Check if MFA is enabled
         if (user.isMfaEnabled()) {
@@ -92,6 +100,34 @@ public class AuthServiceImpl implements AuthService {
             return LoginResponse.withMfa(tempToken);
         }
         
+        return issueTokens(user, ipAddress, userAgent);
+    }
+    
+    @Override
+    public LoginResponse completeMfaLogin(String tempToken, String code, String ipAddress, String userAgent) {
+        UUID userId = getMfaTempTokenSubject(tempToken);
+        if (userId == null) {
+            throw new RuntimeException("MFA session is invalid or expired");
+        }
+        
+        String attemptsKey = "mfa:" + userId;
+        if (rateLimitService.isRateLimited(attemptsKey, 5, 300)) {
+            throw new RuntimeException("Too many verification attempts. Please try again later.");
+        }
+        
+        if (!mfaService.verifyCode(userId, code)) {
+            rateLimitService.increment(attemptsKey, 300);
+            throw new RuntimeException("Invalid verification code");
+        }
+        
+        User user = userRepository.findCachedById(userId)
+            .map(CachedUser::toUser)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        return issueTokens(user, ipAddress, userAgent);
+    }
+    
+    private LoginResponse issueTokens(User user, String ipAddress, String userAgent) {
         // Generate tokens
         List<Role> roles = getUserRoles(user.getId());
         String accessToken = jwtTokenProvider.generateAccessToken(user, roles);
@@ -129,15 +165,16 @@ public class AuthServiceImpl implements AuthService {
         UUID userId = UUID.fromString(claims.getSubject());
         
         // Check if token is revoked
-        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hashToken(token))
+        RefreshSession session = refreshTokenRepository.findSessionByTokenHash(hashToken(token))
             .orElseThrow(() -> new RuntimeException("Refresh token not found"));
         
-        if (refreshToken.isRevoked() || refreshToken.isExpired()) {
+        if (session.isRevoked() || session.isExpired()) {
             throw new RuntimeException("Refresh token is invalid or expired");
         }
         
         // Get user and generate new tokens
-        User user = userRepository.findById(userId)
+        User user = userRepository.findCachedById(userId)
+            .map(CachedUser::toUser)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         List<Role> roles = getUserRoles(userId);
@@ -145,8 +182,7 @@ public class AuthServiceImpl implements AuthService {
         String newRefreshToken = jwtTokenProvider.generateRefreshToken(user);
         
         // Revoke old refresh token and save new one
-        refreshToken.setRevokedAt(LocalDateTime.now());
-        refreshTokenRepository.save(refreshToken);
+        refreshTokenRepository.revoke(session.id());
         
         saveRefreshToken(user, newRefreshToken, null, null);
         
@@ -160,11 +196,8 @@ public class AuthServiceImpl implements AuthService {
             var claims = jwtTokenProvider.validateToken(token);
             String tokenHash = hashToken(token);
             
-            refreshTokenRepository.findByTokenHash(tokenHash)
-                .ifPresent(refreshToken -> {
-                    refreshToken.setRevokedAt(LocalDateTime.now());
-                    refreshTokenRepository.save(refreshToken);
-                });
+            refreshTokenRepository.findSessionByTokenHash(tokenHash)
+                .ifPresent(session -> refreshTokenRepository.revoke(session.id()));
             
             // Invalidate OPA cache
             UUID userId = UUID.fromString(claims.getSubject());
@@ -177,35 +210,40 @@ public class AuthServiceImpl implements AuthService {
     
     @Override
     public boolean verifyMfa(String code, String tempToken) {
-        return true;
+        UUID userId = getMfaTempTokenSubject(tempToken);
+        return userId != null && mfaService.verifyCode(userId, code);
     }
     
-    private void handleFailedLogin(User user, String ipAddress, String username) {
-        user.setLoginAttempts(user.getLoginAttempts() + 1);
-        
-        if (user.getLoginAttempts() >= MAX_LOGIN_ATTEMPTS) {
-            user.setLockedUntil(LocalDateTime.now().plusMinutes(LOCKOUT_DURATION_MINUTES));
-            user.setStatus(User.UserStatus.LOCKED);
+    private UUID getMfaTempTokenSubject(String tempToken) {
+        try {
+            var claims = jwtTokenProvider.validateToken(tempToken);
+            if (!"mfa_temp".equals(claims.get("type", String.class))) {
+                return null;
+            }
+            return UUID.fromString(claims.getSubject());
+        } catch (Exception e) {
+            return null;
         }
+    }
+    
+    private void handleFailedLogin(UserCredentials user, String ipAddress, String username) {
+        // Counters live in Redis (in the users row while Redis is down); the lock deadline always reaches Postgres
+        boolean lockedNow = loginLockoutService.recordFailure(
+            user.id(), MAX_LOGIN_ATTEMPTS, LOCKOUT_DURATION_MINUTES * 60);
         
-        userRepository.save(user);
+        if (lockedNow) {
+            loginLockoutService.persistLock(user.id(), MAX_LOGIN_ATTEMPTS,
+                LocalDateTime.now().plusMinutes(LOCKOUT_DURATION_MINUTES));
+        }
     }
     
-    @Autowired
-    private RoleRepository roleRepository;
-
     private List<Role> getUserRoles(UUID userId) {
-        List<UserRole> userRoles = userRoleRepository.findByUserId(userId);
         List<Role> roles = new ArrayList<>();
-
-        for (UserRole userRole : userRoles) {
-            if (!userRole.isRevoked() && !userRole.isExpired()) {
-                // Fetch the full role entity to get name and priority
-                roleRepository.findById(userRole.getRoleId())
-                    .ifPresent(roles::add);
-            }
+        for (UUID roleId : userRoleRepository.findActiveRoleIds(userId)) {
+            // Name and priority come from the in-memory catalog, not a query per role
+            rbacCatalog.findRole(roleId)
+                .ifPresent(roles::add);
         }
-
         return roles;
     }
     
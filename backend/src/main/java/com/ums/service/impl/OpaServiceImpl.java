@@ -3,6 +3,7 @@ package com.ums.service.impl;
 import com.ums.entity.Permission;
 import com.ums.entity.Role;
 import com.ums.entity.RolePermission;
+import com.ums.event.RolePermissionsChangedEvent;
 import com.ums.repository.PermissionRepository;
 import com.ums.repository.RolePermissionRepository;
 import com.ums.repository.RoleRepository;
@@ -11,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.*;
@@ -84,6 +87,18 @@ public class OpaServiceImpl implements OpaService {
         decisionCache.entrySet().removeIf(entry -> entry.getKey().startsWith(userId + ":"));
     }
 
+    @Override
+    public void invalidateCache(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Set<String> users = new HashSet<>(userIds);
+        decisionCache.keySet().removeIf(key -> {
+            int separator = key.indexOf(':');
+            return separator > 0 && users.contains(key.substring(0, separator));
+        });
+    }
+
     @Override
     public void refreshOpaData() {
         List<Role> roles = roleRepository.findAllActive();
@@ -92,10 +107,16 @@ public class OpaServiceImpl implements OpaService {
 
         List<RolePermission> rolePermissions = rolePermissionRepository.findAll();
 
+        // Keyed by role and permission so single grants can be patched in and out
+        Map<String, RolePermission> grants = new HashMap<>();
+        for (RolePermission rolePermission : rolePermissions) {
+            grants.put(grantKey(rolePermission.getRoleId(), rolePermission.getPermissionId()), rolePermission);
+        }
+
         Map<String, Object> opaData = new HashMap<>();
         opaData.put("roles", roles);
         opaData.put("permissions", permissions);
-        opaData.put("role_permissions", rolePermissions);
+        opaData.put("role_permissions", grants);
 
         try {
             getWebClient().post()
@@ -109,6 +130,44 @@ public class OpaServiceImpl implements OpaService {
         }
     }
 
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void applyRolePermissionChange(RolePermissionsChangedEvent event) {
+        List<Map<String, Object>> patch = new ArrayList<>();
+        for (UUID permissionId : event.addedPermissionIds()) {
+            RolePermission grant = new RolePermission();
+            grant.setRoleId(event.roleId());
+            grant.setPermissionId(permissionId);
+            patch.add(Map.of("op", "add",
+                    "path", "/role_permissions/" + grantKey(event.roleId(), permissionId),
+                    "value", grant));
+        }
+        for (UUID permissionId : event.removedPermissionIds()) {
+            patch.add(Map.of("op", "remove",
+                    "path", "/role_permissions/" + grantKey(event.roleId(), permissionId)));
+        }
+        // Decisions of any holder of the role may have changed
+        decisionCache.clear();
+
+        try {
+            getWebClient().patch()
+                    .uri(opaUrl + "/v1/data")
+                    .contentType(MediaType.valueOf("application/json-patch+json"))
+                    .bodyValue(patch)
+                    .retrieve()
+                    .bodyToMono(Void.class)
+                    .block();
+        } catch (Exception e) {
+            // OPA rejects the whole patch if its document has drifted (e.g. after a restart)
+            System.err.println("Failed to patch OPA data, refreshing: " + e.getMessage());
+            refreshOpaData();
+        }
+    }
+
+    private static String grantKey(UUID roleId, UUID permissionId) {
+        return roleId + ":" + permissionId;
+    }
+
     /**
      * Inner class for OPA response structure
      */
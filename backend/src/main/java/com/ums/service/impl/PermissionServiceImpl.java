@@ -1,12 +1,16 @@
 package com.ums.service.impl;
 
+import com.ums.cache.RbacCatalog;
+import com.ums.cache.RolePermissionCache;
+import com.ums.dto.common.CountMode;
+import com.ums.dto.common.PageCursor;
 import com.ums.dto.common.PageResponse;
 import com.ums.dto.permission.PermissionResponse;
 import com.ums.entity.Permission;
 import com.ums.entity.Resource;
 import com.ums.repository.PermissionRepository;
-import com.ums.repository.ResourceRepository;
 import com.ums.service.AuditService;
+import com.ums.service.PageCountService;
 import com.ums.service.PermissionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -14,7 +18,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,10 +30,18 @@ public class PermissionServiceImpl implements PermissionService {
     private PermissionRepository permissionRepository;
 
     @Autowired
-    private ResourceRepository resourceRepository;
+    private AuditService auditService;
 
     @Autowired
-    private AuditService auditService;
+    private PageCountService pageCountService;
+
+    @Autowired
+    private RolePermissionCache rolePermissionCache;
+
+    @Autowired
+    private RbacCatalog rbacCatalog;
+
+    private static final String PERMISSIONS_LISTING = "permissions";
 
     @Override
     @Transactional
@@ -44,12 +58,14 @@ public class PermissionServiceImpl implements PermissionService {
         permission.setUpdatedAt(LocalDateTime.now());
 
         if (resourceId != null) {
-            Resource resource = resourceRepository.findById(resourceId)
+            Resource resource = rbacCatalog.findResource(resourceId)
                     .orElseThrow(() -> new RuntimeException("Resource not found"));
             permission.setResource(resource);
         }
 
         permission = permissionRepository.save(permission);
+        rbacCatalog.markChanged();
+        pageCountService.invalidate(PERMISSIONS_LISTING);
 
         auditService.logAuditEvent(
                 com.ums.dto.audit.AuditEvent.builder()
@@ -64,13 +80,29 @@ public class PermissionServiceImpl implements PermissionService {
     }
 
     @Override
-    public PageResponse<PermissionResponse> getPermissions(int page, int size, String search) {
-        List<Permission> permissions = permissionRepository.findAll(page, size);
-        long total = permissionRepository.count();
-        List<PermissionResponse> responses = permissions.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
-        return new PageResponse<>(responses, page, size, total);
+    public PageResponse<PermissionResponse> getPermissions(int page, int size, String search, String cursor, String count) {
+        CountMode countMode = CountMode.from(count);
+        long total = pageCountService.count(countMode, PERMISSIONS_LISTING, "all",
+                permissionRepository::count, permissionRepository::estimateCount);
+
+        boolean keyset = cursor != null && !cursor.isEmpty();
+        List<Permission> permissions = keyset
+                ? permissionRepository.findAllAfter(PageCursor.decode(cursor), size + 1)
+                : permissionRepository.findRange(page * size, size + 1);
+        Function<Permission, PageCursor> cursorOf =
+                permission -> PageCursor.of(permission.getCreatedAt(), permission.getId());
+
+        PageResponse<PermissionResponse> response;
+        if (keyset) {
+            response = PageResponse.keyset(permissions, size, total, false, cursorOf, this::mapToResponse);
+        } else {
+            response = PageResponse.lookAhead(permissions, page, size, total, this::mapToResponse);
+            if (response.isHasNext()) {
+                response.setNextCursor(cursorOf.apply(permissions.get(size - 1)).encode());
+            }
+        }
+        response.setCountMode(countMode.name().toLowerCase(Locale.ROOT));
+        return response;
     }
 
     @Override
@@ -100,6 +132,9 @@ public class PermissionServiceImpl implements PermissionService {
         permission.setUpdatedAt(LocalDateTime.now());
 
         permission = permissionRepository.save(permission);
+        // Role snapshots embed permission names
+        rolePermissionCache.evictAll();
+        rbacCatalog.markChanged();
 
         String newValue = "{\"name\": \"" + permission.getName() + "\", \"action\": \"" + permission.getAction() + "\"}";
 
@@ -123,6 +158,9 @@ public class PermissionServiceImpl implements PermissionService {
                 .orElseThrow(() -> new RuntimeException("Permission not found"));
 
         permissionRepository.deleteById(id);
+        rolePermissionCache.evictAll();
+        rbacCatalog.markChanged();
+        pageCountService.invalidate(PERMISSIONS_LISTING);
 
         auditService.logAuditEvent(
                 com.ums.dto.audit.AuditEvent.builder()
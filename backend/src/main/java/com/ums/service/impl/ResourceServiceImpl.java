@@ -0,0 +1,89 @@
+package com.ums.service.impl;
+
+import com.ums.cache.RbacCatalog;
+import com.ums.dto.resource.ResourceResponse;
+import com.ums.entity.Resource;
+import com.ums.repository.ResourceRepository;
+import com.ums.service.ResourceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class ResourceServiceImpl implements ResourceService {
+    
+    @Autowired
+    private ResourceRepository resourceRepository;
+    
+    @Autowired
+    private RbacCatalog rbacCatalog;
+    
+    @Override
+    public ResourceResponse getResourceTree(UUID id) {
+        List<Resource> subtree = resourceRepository.findSubtree(id);
+        if (subtree.isEmpty()) {
+            throw new RuntimeException("Resource not found");
+        }
+        
+        // Rows come parents first, so every parent is mapped before its children
+        Map<UUID, ResourceResponse> byId = new HashMap<>();
+        ResourceResponse root = null;
+        for (Resource resource : subtree) {
+            ResourceResponse node = mapToResponse(resource);
+            byId.put(resource.getId(), node);
+            if (resource.getId().equals(id)) {
+                root = node;
+            } else {
+                ResourceResponse parent = byId.get(resource.getParentId());
+                if (parent != null) {
+                    parent.getChildren().add(node);
+                }
+            }
+        }
+        return root;
+    }
+    
+    @Override
+    public List<ResourceResponse> getAncestors(UUID id) {
+        if (resourceRepository.findById(id).isEmpty()) {
+            throw new RuntimeException("Resource not found");
+        }
+        return resourceRepository.findAncestors(id).stream()
+            .map(this::mapToResponse)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    @Transactional
+    public ResourceResponse moveResource(UUID id, UUID parentId) {
+        if (id.equals(parentId)) {
+            throw new IllegalArgumentException("Cannot move a resource under itself or its descendants");
+        }
+        if (!resourceRepository.move(id, parentId)) {
+            throw new RuntimeException(parentId != null ? "Resource or parent not found" : "Resource not found");
+        }
+        rbacCatalog.markChanged();
+        return resourceRepository.findById(id)
+            .map(this::mapToResponse)
+            .orElseThrow(() -> new RuntimeException("Resource not found"));
+    }
+    
+    private ResourceResponse mapToResponse(Resource resource) {
+        ResourceResponse response = new ResourceResponse();
+        response.setId(resource.getId());
+        response.setType(resource.getType());
+        response.setIdentifier(resource.getIdentifier());
+        response.setName(resource.getName());
+        response.setDescription(resource.getDescription());
+        response.setParentId(resource.getParentId());
+        response.setMetadata(resource.getMetadata());
+        response.setCreatedAt(resource.getCreatedAt());
+        return response;
+    }
+}
@@ -1,21 +1,36 @@
 package com.ums.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ums.cache.PermissionSnapshot;
+import com.ums.cache.RbacCatalog;
+import com.ums.cache.RolePermissionCache;
+import com.ums.dto.audit.AuditEvent;
 import com.ums.dto.permission.PermissionResponse;
 import com.ums.dto.role.CreateRoleRequest;
+import com.ums.dto.role.RoleMembersRequest;
 import com.ums.dto.role.UpdateRoleRequest;
 import com.ums.dto.role.RoleResponse;
+import com.ums.dto.common.CountMode;
+import com.ums.dto.common.PageCursor;
 import com.ums.dto.common.PageResponse;
-import com.ums.entity.Permission;
 import com.ums.entity.Role;
-import com.ums.entity.RolePermission;
+import com.ums.entity.User;
+import com.ums.event.RolePermissionsChangedEvent;
 import com.ums.repository.*;
+import com.ums.service.AuditService;
 import com.ums.service.OpaService;
+import com.ums.service.PageCountService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,6 +51,26 @@ public class RoleServiceImpl implements com.ums.service.RoleService {
     @Autowired
     private OpaService opaService;
     
+    @Autowired
+    private RolePermissionCache rolePermissionCache;
+    
+    @Autowired
+    private RbacCatalog rbacCatalog;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PageCountService pageCountService;
+    
+    @Autowired
+    private AuditService auditService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private static final String ROLES_LISTING = "roles";
+    
     @Override
     @Transactional
     public RoleResponse createRole(CreateRoleRequest request) {
@@ -52,21 +87,40 @@ public class RoleServiceImpl implements com.ums.service.RoleService {
         role.setUpdatedAt(LocalDateTime.now());
         
         if (request.getParentId() != null) {
-            roleRepository.findById(UUID.fromString(request.getParentId()))
+            rbacCatalog.findRole(UUID.fromString(request.getParentId()))
                 .ifPresent(role::setParent);
         }
         
         role = roleRepository.save(role);
+        rbacCatalog.markChanged();
+        pageCountService.invalidate(ROLES_LISTING);
         opaService.refreshOpaData();
         return mapToResponse(role);
     }
     
     @Override
-    public PageResponse<RoleResponse> getRoles(int page, int size) {
-        List<Role> roles = roleRepository.findAll(page, size);
-        long total = roleRepository.count();
-        List<RoleResponse> responses = roles.stream().map(this::mapToResponse).collect(Collectors.toList());
-        return new PageResponse<>(responses, page, size, total);
+    public PageResponse<RoleResponse> getRoles(int page, int size, String cursor, String count) {
+        CountMode countMode = CountMode.from(count);
+        long total = pageCountService.count(countMode, ROLES_LISTING, "all",
+            roleRepository::count, roleRepository::estimateCount);
+
+        boolean keyset = cursor != null && !cursor.isEmpty();
+        List<Role> roles = keyset
+            ? roleRepository.findAllAfter(PageCursor.decode(cursor), size + 1)
+            : roleRepository.findRange(page * size, size + 1);
+        Function<Role, PageCursor> cursorOf = role -> new PageCursor(role.getPriority(), role.getId());
+
+        PageResponse<RoleResponse> response;
+        if (keyset) {
+            response = PageResponse.keyset(roles, size, total, false, cursorOf, this::mapToResponse);
+        } else {
+            response = PageResponse.lookAhead(roles, page, size, total, this::mapToResponse);
+            if (response.isHasNext()) {
+                response.setNextCursor(cursorOf.apply(roles.get(size - 1)).encode());
+            }
+        }
+        response.setCountMode(countMode.name().toLowerCase(Locale.ROOT));
+        return response;
     }
     
     @Override
@@ -96,12 +150,13 @@ public class RoleServiceImpl implements com.ums.service.RoleService {
             role.setPriority(request.getPriority());
         }
         if (request.getParentId() != null) {
-            roleRepository.findById(UUID.fromString(request.getParentId()))
+            rbacCatalog.findRole(UUID.fromString(request.getParentId()))
                 .ifPresent(role::setParent);
         }
         
         role.setUpdatedAt(LocalDateTime.now());
         role = roleRepository.save(role);
+        rbacCatalog.markChanged();
         opaService.refreshOpaData();
         
         return mapToResponse(role);
@@ -119,60 +174,152 @@ public class RoleServiceImpl implements com.ums.service.RoleService {
         
         role.setDeletedAt(LocalDateTime.now());
         roleRepository.save(role);
+        rolePermissionCache.evict(id);
+        rbacCatalog.markChanged();
+        pageCountService.invalidate(ROLES_LISTING);
         opaService.refreshOpaData();
     }
     
     @Override
     @Transactional
     public void assignPermission(UUID roleId, UUID permissionId) {
-        RolePermission rolePermission = new RolePermission();
-        rolePermission.setRoleId(roleId);
-        rolePermission.setPermissionId(permissionId);
-        rolePermissionRepository.save(rolePermission);
-        opaService.refreshOpaData();
+        List<UUID> added = rolePermissionRepository.insertBatch(roleId, List.of(permissionId));
+        publishPermissionChange(roleId, added, List.of());
     }
     
     @Override
     @Transactional
     public void revokePermission(UUID roleId, UUID permissionId) {
-        rolePermissionRepository.deleteByRoleIdAndPermissionId(roleId, permissionId);
-        opaService.refreshOpaData();
+        List<UUID> removed = rolePermissionRepository.deleteByRoleIdAndPermissionIds(roleId, List.of(permissionId));
+        publishPermissionChange(roleId, List.of(), removed);
     }
     
     @Override
     public List<PermissionResponse> getRolePermissions(UUID roleId) {
-        if (!roleRepository.findById(roleId).isPresent()) {
+        List<PermissionSnapshot> snapshot = rolePermissionCache.get(roleId,
+                id -> permissionRepository.findGrantedToRole(id)
+                    .map(permissions -> permissions.stream().map(PermissionSnapshot::from).collect(Collectors.toList())))
+            .orElseThrow(() -> new RuntimeException("Role not found"));
+        return snapshot.stream().map(PermissionSnapshot::toResponse).collect(Collectors.toList());
+    }
+    
+    @Override
+    @Transactional
+    public void updateRolePermissions(UUID roleId, List<UUID> permissionIds) {
+        if (rbacCatalog.findRole(roleId).isEmpty()) {
             throw new RuntimeException("Role not found");
         }
         
-        List<RolePermission> rolePermissions = rolePermissionRepository.findByRoleId(roleId);
+        // Only the difference is written, so an unchanged set costs one read
+        Set<UUID> wanted = new LinkedHashSet<>(permissionIds);
+        Set<UUID> current = new HashSet<>(rolePermissionRepository.findPermissionIdsByRoleId(roleId));
+        List<UUID> toAdd = wanted.stream().filter(id -> !current.contains(id)).collect(Collectors.toList());
+        List<UUID> toRemove = current.stream().filter(id -> !wanted.contains(id)).collect(Collectors.toList());
         
-        return rolePermissions.stream()
-            .map(rp -> {
-                Permission permission = permissionRepository.findById(rp.getPermissionId())
-                    .orElseThrow(() -> new RuntimeException("Permission not found"));
-                return mapToPermissionResponse(permission);
-            })
-            .collect(Collectors.toList());
+        List<UUID> removed = rolePermissionRepository.deleteByRoleIdAndPermissionIds(roleId, toRemove);
+        List<UUID> added = rolePermissionRepository.insertBatch(roleId, toAdd);
+        publishPermissionChange(roleId, added, removed);
     }
     
     @Override
-    @Transactional
-    public void updateRolePermissions(UUID roleId, List<UUID> permissionIds) {
-        if (!roleRepository.findById(roleId).isPresent()) {
-            throw new RuntimeException("Role not found");
+    public long getCatalogVersion() {
+        return rbacCatalog.version();
+    }
+    
+    private void publishPermissionChange(UUID roleId, Collection<UUID> added, Collection<UUID> removed) {
+        RolePermissionsChangedEvent event =
+            new RolePermissionsChangedEvent(roleId, new HashSet<>(added), new HashSet<>(removed));
+        if (!event.isEmpty()) {
+            eventPublisher.publishEvent(event);
         }
+    }
+    
+    @Override
+    @Transactional
+    public int addMembers(UUID roleId, RoleMembersRequest request, UUID grantedBy) {
+        validateMembersRequest(request);
+        rbacCatalog.findRole(roleId)
+            .orElseThrow(() -> new RuntimeException("Role not found"));
         
-        rolePermissionRepository.deleteByRoleId(roleId);
+        List<UUID> granted = userRoleRepository.grantRole(roleId, request.getUserIds(),
+            request.getStatus(), request.getSearch(), request.getScope(), request.getScopeType(),
+            request.getExpiresAt(), grantedBy);
+        afterMembershipChange("ROLE_ASSIGN", roleId, grantedBy, request, granted);
+        return granted.size();
+    }
+    
+    @Override
+    @Transactional
+    public int removeMembers(UUID roleId, RoleMembersRequest request, UUID revokedBy) {
+        validateMembersRequest(request);
+        rbacCatalog.findRole(roleId)
+            .orElseThrow(() -> new RuntimeException("Role not found"));
         
-        for (UUID permissionId : permissionIds) {
-            RolePermission rolePermission = new RolePermission();
-            rolePermission.setRoleId(roleId);
-            rolePermission.setPermissionId(permissionId);
-            rolePermissionRepository.save(rolePermission);
+        // A user holding the role in several scopes comes back once per assignment
+        List<UUID> revoked = userRoleRepository.revokeRole(roleId, request.getUserIds(),
+            request.getStatus(), request.getSearch())
+            .stream().distinct().collect(Collectors.toList());
+        afterMembershipChange("ROLE_REVOKE", roleId, revokedBy, request, revoked);
+        return revoked.size();
+    }
+    
+    private void validateMembersRequest(RoleMembersRequest request) {
+        if (request.getUserIds() != null) {
+            if (request.getUserIds().isEmpty()) {
+                throw new IllegalArgumentException("userIds must not be empty");
+            }
+            if (request.hasUserFilter()) {
+                throw new IllegalArgumentException("Specify either userIds or a user filter, not both");
+            }
+        } else if (!request.hasUserFilter()) {
+            throw new IllegalArgumentException("Either userIds or a user filter (status, search) is required");
+        }
+        if (request.getStatus() != null && !request.getStatus().isEmpty()) {
+            try {
+                User.UserStatus.valueOf(request.getStatus());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid status: " + request.getStatus());
+            }
+        }
+    }
+    
+    private void afterMembershipChange(String action, UUID roleId, UUID actorId,
+                                       RoleMembersRequest request, List<UUID> affected) {
+        if (affected.isEmpty()) {
+            return;
         }
         
-        opaService.refreshOpaData();
+        Map<String, Object> change = new LinkedHashMap<>();
+        change.put("userCount", affected.size());
+        change.put("userIds", affected);
+        if (request.getScope() != null) {
+            change.put("scope", request.getScope());
+        }
+        try {
+            auditService.logAuditEvent(AuditEvent.builder()
+                .userId(actorId)
+                .action(action)
+                .entityType("Role")
+                .entityId(roleId)
+                .newValue(objectMapper.writeValueAsString(change))
+                .metadata("{\"source\": \"bulk_membership\"}")
+                .build());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize audit value", e);
+        }
+        
+        // One invalidation pass for the whole batch, and only once the change is visible
+        List<String> userIds = affected.stream().map(UUID::toString).collect(Collectors.toList());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    opaService.invalidateCache(userIds);
+                }
+            });
+        } else {
+            opaService.invalidateCache(userIds);
+        }
     }
     
     private RoleResponse mapToResponse(Role role) {
@@ -183,10 +330,7 @@ public class RoleServiceImpl implements com.ums.service.RoleService {
         response.setSystem(role.isSystem());
         response.setPriority(role.getPriority());
         response.setCreatedAt(role.getCreatedAt());
-
-        // Add user count
-        int userCount = userRoleRepository.countByRoleId(role.getId());
-        response.setUserCount(userCount);
+        response.setUserCount(role.getMemberCount());
 
         if (role.getParent() != null) {
             response.setParentId(role.getParent().getId().toString());
@@ -195,19 +339,4 @@ public class RoleServiceImpl implements com.ums.service.RoleService {
 
         return response;
     }
-    
-    private PermissionResponse mapToPermissionResponse(Permission permission) {
-        PermissionResponse response = new PermissionResponse();
-        response.setId(permission.getId());
-        response.setName(permission.getName());
-        response.setAction(permission.getAction());
-        response.setConditions(permission.getConditions());
-        response.setCreatedAt(permission.getCreatedAt());
-        
-        if (permission.getResource() != null) {
-            response.setResource(permission.getResource().getId().toString());
-        }
-        
-        return response;
-    }
 }
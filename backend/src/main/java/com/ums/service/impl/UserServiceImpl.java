@@ -1,13 +1,22 @@
 package com.ums.service.impl;
 
+import com.ums.cache.CachedUser;
 import com.ums.dto.user.CreateUserRequest;
 import com.ums.dto.user.UpdateUserRequest;
 import com.ums.dto.user.UserResponse;
+import com.ums.dto.common.CountMode;
+import com.ums.dto.common.PageCursor;
 import com.ums.dto.common.PageResponse;
 import com.ums.entity.User;
 import com.ums.entity.UserRole;
 import com.ums.repository.*;
+import com.ums.repository.projection.UserChange;
+import com.ums.repository.projection.UserSummary;
 import com.ums.service.AuditService;
+import com.ums.service.LoginLockoutService;
+import com.ums.service.MfaService;
+import com.ums.service.PageCountService;
+import com.ums.service.UserSuggestService;
 import com.ums.util.PasswordService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,12 +36,30 @@ public class UserServiceImpl implements com.ums.service.UserService {
     @Autowired
     private UserRoleRepository userRoleRepository;
     
+    @Autowired
+    private UserArchiveRepository userArchiveRepository;
+    
     @Autowired
     private AuditService auditService;
     
     @Autowired
     private PasswordService passwordService;
     
+    @Autowired
+    private MfaService mfaService;
+    
+    @Autowired
+    private UserSuggestService userSuggestService;
+    
+    @Autowired
+    private PageCountService pageCountService;
+    
+    @Autowired
+    private LoginLockoutService loginLockoutService;
+    
+    private static final String SORT_RELEVANCE = "relevance";
+    private static final String USERS_LISTING = "users";
+    
     @Override
     public UserResponse createUser(CreateUserRequest request) {
         // Check for duplicates
@@ -52,6 +80,8 @@ public class UserServiceImpl implements com.ums.service.UserService {
         user.setUpdatedAt(LocalDateTime.now());
 
         user = userRepository.save(user);
+        userSuggestService.add(user.getUsername(), user.getEmail());
+        pageCountService.invalidate(USERS_LISTING);
 
         // Log audit event (fire-and-forget)
         final UUID finalUserId = user.getId();
@@ -71,16 +101,55 @@ public class UserServiceImpl implements com.ums.service.UserService {
     }
 
     @Override
-    public PageResponse<UserResponse> getUsers(int page, int size, String status, String search) {
-        List<User> users = userRepository.findAll(page, size, status, search);
-        long total = userRepository.count(status, search);
-        List<UserResponse> responses = users.stream().map(this::mapToResponse).collect(Collectors.toList());
-        return new PageResponse<>(responses, page, size, total);
+    public PageResponse<UserResponse> getUsers(int page, int size, String status, String search,
+                                               String cursor, String sort, String count) {
+        CountMode countMode = CountMode.from(count);
+        // Ranked results are ordered by similarity, so they page by offset only
+        boolean ranked = SORT_RELEVANCE.equalsIgnoreCase(sort) && search != null && !search.isEmpty();
+        boolean keyset = !ranked && cursor != null && !cursor.isEmpty();
+
+        long total = pageCountService.count(countMode, USERS_LISTING,
+            (ranked ? "ranked|" : "") + status + "|" + search,
+            () -> ranked ? userRepository.countRanked(status, search) : userRepository.count(status, search),
+            () -> userRepository.estimateCount(status, search));
+
+        // Every mode fetches one extra row so hasNext is exact regardless of the total
+        List<UserSummary> users;
+        if (ranked) {
+            users = userRepository.findAllRanked(page * size, size + 1, status, search);
+        } else if (keyset) {
+            users = userRepository.findAllAfter(PageCursor.decode(cursor), size + 1, status, search);
+        } else {
+            users = userRepository.findRange(page * size, size + 1, status, search);
+        }
+
+        Map<UUID, List<UserRole>> rolesByUser = loadRoles(users.subList(0, Math.min(size, users.size())));
+        Function<UserSummary, UserResponse> mapper =
+            user -> mapToResponse(user, rolesByUser.getOrDefault(user.id(), Collections.emptyList()));
+        Function<UserSummary, PageCursor> cursorOf = user -> PageCursor.of(user.createdAt(), user.id());
+
+        PageResponse<UserResponse> response;
+        if (keyset) {
+            response = PageResponse.keyset(users, size, total, false, cursorOf, mapper);
+        } else {
+            response = PageResponse.lookAhead(users, page, size, total, mapper);
+            if (!ranked && response.isHasNext()) {
+                response.setNextCursor(cursorOf.apply(users.get(size - 1)).encode());
+            }
+        }
+        response.setCountMode(countMode.name().toLowerCase(Locale.ROOT));
+        return response;
+    }
+    
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        return userSuggestService.suggest(prefix, limit);
     }
     
     @Override
     public UserResponse getUserById(UUID id) {
-        User user = userRepository.findById(id)
+        User user = userRepository.findCachedById(id)
+            .map(CachedUser::toUser)
             .orElseThrow(() -> new RuntimeException("User not found"));
         return mapToResponse(user);
     }
@@ -88,11 +157,15 @@ public class UserServiceImpl implements com.ums.service.UserService {
     @Override
     @Transactional
     public UserResponse updateUser(UUID id, UpdateUserRequest request) {
-        User user = userRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        String oldValue = "{\"username\": \"" + user.getUsername() + "\", \"email\": \"" + user.getEmail() + "\"}";
-        
+        return updateUser(id, request, null);
+    }
+    
+    @Override
+    @Transactional
+    public UserResponse updateUser(UUID id, UpdateUserRequest request, Long expectedVersion) {
+        // No read up front: the UPDATE writes the changed fields and returns the old identity values
+        User user = User.reference(id);
+        user.setVersion(expectedVersion);
         if (request.getUsername() != null) {
             user.setUsername(request.getUsername());
         }
@@ -108,10 +181,21 @@ public class UserServiceImpl implements com.ums.service.UserService {
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
             user.setPasswordHash(passwordService.hashPassword(request.getPassword()));
         }
+        if (!user.hasChanges()) {
+            return getUserById(id);
+        }
         
-        user.setUpdatedAt(LocalDateTime.now());
-        user = userRepository.save(user);
+        UserChange change = userRepository.update(user)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        user = change.user();
+        pageCountService.invalidate(USERS_LISTING);
+        if (!Objects.equals(change.previousUsername(), user.getUsername())
+                || !Objects.equals(change.previousEmail(), user.getEmail())) {
+            userSuggestService.remove(change.previousUsername(), change.previousEmail());
+            userSuggestService.add(user.getUsername(), user.getEmail());
+        }
         
+        String oldValue = "{\"username\": \"" + change.previousUsername() + "\", \"email\": \"" + change.previousEmail() + "\"}";
         String newValue = "{\"username\": \"" + user.getUsername() + "\", \"email\": \"" + user.getEmail() + "\"}";
         
         auditService.logAuditEvent(
@@ -131,20 +215,20 @@ public class UserServiceImpl implements com.ums.service.UserService {
     @Override
     @Transactional
     public void softDeleteUser(UUID id) {
-        User user = userRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
+        User user = User.reference(id);
         user.setDeletedAt(LocalDateTime.now());
         user.setStatus(User.UserStatus.INACTIVE);
-        user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
+        UserChange change = userRepository.update(user)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        userSuggestService.remove(change.previousUsername(), change.previousEmail());
+        pageCountService.invalidate(USERS_LISTING);
         
         auditService.logAuditEvent(
             com.ums.dto.audit.AuditEvent.builder()
                 .userId(null)
                 .action("DELETE")
                 .entityType("User")
-                .entityId(user.getId())
+                .entityId(id)
                 .build()
         );
     }
@@ -152,13 +236,20 @@ public class UserServiceImpl implements com.ums.service.UserService {
     @Override
     @Transactional
     public void restoreUser(UUID id) {
-        User user = userRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
+        User user = User.reference(id);
         user.setDeletedAt(null);
         user.setStatus(User.UserStatus.ACTIVE);
-        user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
+        Optional<UserChange> change = userRepository.update(user);
+        if (change.isEmpty()) {
+            // Users deleted past the retention period live in the archive tables
+            if (!userArchiveRepository.restore(id)) {
+                throw new RuntimeException("User not found");
+            }
+            change = userRepository.update(user);
+        }
+        user = change.orElseThrow(() -> new RuntimeException("User not found")).user();
+        userSuggestService.add(user.getUsername(), user.getEmail());
+        pageCountService.invalidate(USERS_LISTING);
     }
     
     @Override
@@ -181,13 +272,16 @@ public class UserServiceImpl implements com.ums.service.UserService {
     @Override
     @Transactional
     public UserResponse activateUser(UUID userId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-        String oldStatus = user.getStatus().name();
+        User user = User.reference(userId);
         user.setStatus(User.UserStatus.ACTIVE);
-        user.setUpdatedAt(LocalDateTime.now());
-        user = userRepository.save(user);
+        // Activation also lifts a failed-login lockout, in both the row and Redis
+        user.setLoginAttempts(0);
+        user.setLockedUntil(null);
+        UserChange change = userRepository.update(user)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        user = change.user();
+        loginLockoutService.clear(userId);
+        pageCountService.invalidate(USERS_LISTING);
 
         auditService.logAuditEvent(
             com.ums.dto.audit.AuditEvent.builder()
@@ -195,7 +289,7 @@ public class UserServiceImpl implements com.ums.service.UserService {
                 .action("ACTIVATE")
                 .entityType("User")
                 .entityId(user.getId())
-                .oldValue("{\"status\": \"" + oldStatus + "\"}")
+                .oldValue("{\"status\": \"" + change.previousStatus().name() + "\"}")
                 .newValue("{\"status\": \"ACTIVE\"}")
                 .build()
         );
@@ -206,13 +300,12 @@ public class UserServiceImpl implements com.ums.service.UserService {
     @Override
     @Transactional
     public UserResponse deactivateUser(UUID userId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-        String oldStatus = user.getStatus().name();
+        User user = User.reference(userId);
         user.setStatus(User.UserStatus.INACTIVE);
-        user.setUpdatedAt(LocalDateTime.now());
-        user = userRepository.save(user);
+        UserChange change = userRepository.update(user)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        user = change.user();
+        pageCountService.invalidate(USERS_LISTING);
 
         auditService.logAuditEvent(
             com.ums.dto.audit.AuditEvent.builder()
@@ -220,7 +313,7 @@ public class UserServiceImpl implements com.ums.service.UserService {
                 .action("DEACTIVATE")
                 .entityType("User")
                 .entityId(user.getId())
-                .oldValue("{\"status\": \"" + oldStatus + "\"}")
+                .oldValue("{\"status\": \"" + change.previousStatus().name() + "\"}")
                 .newValue("{\"status\": \"INACTIVE\"}")
                 .build()
         );
@@ -231,21 +324,28 @@ public class UserServiceImpl implements com.ums.service.UserService {
     @Override
     @Transactional
     public void enableMfa(String userId) {
-        User user = userRepository.findById(UUID.fromString(userId))
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = User.reference(UUID.fromString(userId));
         user.setMfaEnabled(true);
-        user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
+        userRepository.update(user)
+            .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     @Override
     @Transactional
     public void setMfaSecret(String userId, String secret) {
-        User user = userRepository.findById(UUID.fromString(userId))
+        User current = userRepository.findById(UUID.fromString(userId))
             .orElseThrow(() -> new RuntimeException("User not found"));
+        if (current.isMfaEnabled()) {
+            // Replacing the secret would lock the user out of the authenticator they already use
+            throw new IllegalStateException("MFA is already enabled");
+        }
+        User user = User.reference(current.getId());
+        // Guards against /verify enabling MFA between the read and this write
+        user.setVersion(current.getVersion());
         user.setMfaSecret(secret);
-        user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
+        userRepository.update(user)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        mfaService.evictSecret(user.getId());
     }
 
     @Override
@@ -255,6 +355,13 @@ public class UserServiceImpl implements com.ums.service.UserService {
         return user.getMfaSecret();
     }
 
+    @Override
+    public String getPendingMfaSecret(String userId) {
+        User user = userRepository.findById(UUID.fromString(userId))
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        return user.isMfaEnabled() ? null : user.getMfaSecret();
+    }
+
     @Override
     public Optional<UserResponse> getUserById(String id) {
         try {
@@ -265,22 +372,42 @@ public class UserServiceImpl implements com.ums.service.UserService {
     }
 
     private UserResponse mapToResponse(User user) {
+        UserResponse response = mapToResponse(UserSummary.from(user),
+            userRoleRepository.findActiveByUserIds(List.of(user.getId())));
+        response.setVersion(user.getVersion());
+        return response;
+    }
+
+    /**
+     * Loads role assignments for a whole page of users with a single query and
+     * groups them by user.
+     */
+    private Map<UUID, List<UserRole>> loadRoles(List<UserSummary> users) {
+        if (users.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<UUID> userIds = users.stream().map(UserSummary::id).collect(Collectors.toList());
+        return userRoleRepository.findActiveByUserIds(userIds).stream()
+            .collect(Collectors.groupingBy(UserRole::getUserId));
+    }
+
+    private UserResponse mapToResponse(UserSummary user, List<UserRole> userRoles) {
         UserResponse response = new UserResponse();
-        response.setId(user.getId());
-        response.setUsername(user.getUsername());
-        response.setEmail(user.getEmail());
-        response.setPhone(user.getPhone());
-        response.setStatus(user.getStatus().name());
-        response.setMfaEnabled(user.isMfaEnabled());
-        response.setLastLoginAt(user.getLastLoginAt());
-        response.setCreatedAt(user.getCreatedAt());
+        response.setId(user.id());
+        response.setUsername(user.username());
+        response.setEmail(user.email());
+        response.setPhone(user.phone());
+        response.setStatus(user.status().name());
+        response.setMfaEnabled(user.mfaEnabled());
+        response.setLastLoginAt(user.lastLoginAt());
+        response.setCreatedAt(user.createdAt());
         
-        // Get user roles
-        List<UserRole> userRoles = userRoleRepository.findByUserId(user.getId());
-        List<String> roles = userRoles.stream()
-            .map(ur -> ur.getRoleId().toString())
-            .collect(Collectors.toList());
-        response.setRoles(roles);
+        response.setRoles(userRoles.stream()
+            .map(UserRole::getRoleName)
+            .collect(Collectors.toList()));
+        response.setRoleIds(userRoles.stream()
+            .map(UserRole::getRoleId)
+            .collect(Collectors.toList()));
         
         return response;
     }
@@ -0,0 +1,182 @@
+package com.ums.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compressed prefix tree mapping string keys to values. Edges carry whole
+ * string segments, so memory grows with the number of distinct branches
+ * rather than the number of characters. Children are kept sorted, so prefix
+ * lookups return values in key order.
+ *
+ * Not thread-safe; callers guard concurrent access.
+ */
+public class RadixTrie<V> {
+
+    private final Node<V> root = new Node<>("");
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value.
+     */
+    public void put(String key, V value) {
+        Node<V> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node<V> child = node.children.get(key.charAt(i));
+            if (child == null) {
+                Node<V> leaf = new Node<>(key.substring(i));
+                leaf.value = value;
+                node.children.put(leaf.label.charAt(0), leaf);
+                size++;
+                return;
+            }
+
+            int common = commonPrefixLength(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge at the point where the key diverges
+                Node<V> middle = new Node<>(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+
+        if (node.value == null) {
+            size++;
+        }
+        node.value = value;
+    }
+
+    public V get(String key) {
+        Node<V> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node<V> child = node.children.get(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return null;
+            }
+            node = child;
+            i += child.label.length();
+        }
+        return node.value;
+    }
+
+    /**
+     * Removes the key and compacts the path so no valueless single-child
+     * nodes are left behind. Returns true if the key was present.
+     */
+    public boolean remove(String key) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        int i = 0;
+        path.add(node);
+        while (i < key.length()) {
+            Node<V> child = node.children.get(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return false;
+            }
+            node = child;
+            path.add(node);
+            i += child.label.length();
+        }
+        if (node.value == null) {
+            return false;
+        }
+
+        node.value = null;
+        size--;
+
+        if (node != root) {
+            Node<V> parent = path.get(path.size() - 2);
+            if (node.children.isEmpty()) {
+                parent.children.remove(node.label.charAt(0));
+                if (parent != root && parent.value == null && parent.children.size() == 1) {
+                    merge(parent);
+                }
+            } else if (node.children.size() == 1) {
+                merge(node);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns up to {@code limit} values whose keys start with the prefix, in key order.
+     */
+    public List<V> findByPrefix(String prefix, int limit) {
+        List<V> results = new ArrayList<>();
+        if (limit <= 0) {
+            return results;
+        }
+
+        Node<V> node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node<V> child = node.children.get(prefix.charAt(i));
+            if (child == null) {
+                return results;
+            }
+            int common = commonPrefixLength(child.label, prefix, i);
+            if (common < child.label.length() && i + common < prefix.length()) {
+                // Diverges inside the edge
+                return results;
+            }
+            node = child;
+            i += common;
+        }
+
+        collect(node, results, limit);
+        return results;
+    }
+
+    private void collect(Node<V> node, List<V> results, int limit) {
+        if (node.value != null) {
+            results.add(node.value);
+        }
+        for (Node<V> child : node.children.values()) {
+            if (results.size() >= limit) {
+                return;
+            }
+            collect(child, results, limit);
+        }
+    }
+
+    /**
+     * Folds a valueless node's only child into it.
+     */
+    private void merge(Node<V> node) {
+        Node<V> onlyChild = node.children.values().iterator().next();
+        node.label = node.label + onlyChild.label;
+        node.value = onlyChild.value;
+        node.children = onlyChild.children;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int n = 0;
+        while (n < max && label.charAt(n) == key.charAt(offset + n)) {
+            n++;
+        }
+        return n;
+    }
+
+    private static class Node<V> {
+        private String label;
+        private V value;
+        private Map<Character, Node<V>> children = new TreeMap<>();
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
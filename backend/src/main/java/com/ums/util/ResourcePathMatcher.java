@@ -0,0 +1,173 @@
+package com.ums.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Segment trie over Ant-style path patterns. Each node branches on one path
+ * segment: literal children are looked up in a hash map, and wildcard
+ * children ({@code *}, {@code {var}}, partial globs such as {@code v*} and
+ * {@code **}) hang off separate slots. Matching walks the request path once,
+ * trying literal children before wildcards, so the first match found is
+ * the most specific pattern and a literal-only path costs one map lookup
+ * per segment.
+ *
+ * Immutable once built; share it between threads and rebuild to change it.
+ */
+public final class ResourcePathMatcher<V> {
+
+    private final Node<V> root;
+    private final int size;
+
+    private ResourcePathMatcher(Node<V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static <V> ResourcePathMatcher<V> empty() {
+        return new ResourcePathMatcher<>(new Node<>(), 0);
+    }
+
+    /**
+     * Compiles the patterns; when two patterns are identical the later one wins.
+     */
+    public static <V> ResourcePathMatcher<V> compile(Map<String, V> patterns) {
+        Node<V> root = new Node<>();
+        for (Map.Entry<String, V> entry : patterns.entrySet()) {
+            Node<V> node = root;
+            for (String segment : split(entry.getKey())) {
+                node = node.child(segment);
+            }
+            node.value = entry.getValue();
+        }
+        return new ResourcePathMatcher<>(root, patterns.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of the most specific pattern matching the path, or
+     * null. Empty segments (repeated or trailing slashes) are ignored.
+     */
+    public V match(String path) {
+        return match(root, split(path), 0);
+    }
+
+    private static <V> V match(Node<V> node, String[] segments, int index) {
+        if (index == segments.length) {
+            if (node.value != null) {
+                return node.value;
+            }
+            // A trailing ** also matches zero segments
+            return node.anyDepth != null ? node.anyDepth.value : null;
+        }
+
+        String segment = segments[index];
+        Node<V> literal = node.literals.get(segment);
+        if (literal != null) {
+            V value = match(literal, segments, index + 1);
+            if (value != null) {
+                return value;
+            }
+        }
+        if (node.anySegment != null) {
+            V value = match(node.anySegment, segments, index + 1);
+            if (value != null) {
+                return value;
+            }
+        }
+        for (GlobChild<V> glob : node.globs) {
+            if (glob.pattern.matcher(segment).matches()) {
+                V value = match(glob.node, segments, index + 1);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        if (node.anyDepth != null) {
+            // Let ** swallow as few segments as possible before the rest of the pattern matches
+            for (int next = index; next <= segments.length; next++) {
+                V value = match(node.anyDepth, segments, next);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String[] split(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static final class Node<V> {
+        final Map<String, Node<V>> literals = new HashMap<>();
+        final List<GlobChild<V>> globs = new ArrayList<>();
+        Node<V> anySegment;
+        Node<V> anyDepth;
+        V value;
+
+        Node<V> child(String segment) {
+            if (segment.equals("**")) {
+                if (anyDepth == null) {
+                    anyDepth = new Node<>();
+                }
+                return anyDepth;
+            }
+            if (segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"))) {
+                if (anySegment == null) {
+                    anySegment = new Node<>();
+                }
+                return anySegment;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0) {
+                for (GlobChild<V> glob : globs) {
+                    if (glob.source.equals(segment)) {
+                        return glob.node;
+                    }
+                }
+                GlobChild<V> glob = new GlobChild<>(segment, toRegex(segment), new Node<>());
+                globs.add(glob);
+                return glob.node;
+            }
+            return literals.computeIfAbsent(segment, key -> new Node<>());
+        }
+    }
+
+    private record GlobChild<V>(String source, Pattern pattern, Node<V> node) {
+    }
+
+    private static Pattern toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,97 @@
+package com.ums.cache;
+
+import com.ums.entity.Role;
+import com.ums.repository.PermissionRepository;
+import com.ums.repository.ResourceRepository;
+import com.ums.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RbacCatalogTest {
+    @Mock
+    private RoleRepository roleRepository;
+    @Mock
+    private PermissionRepository permissionRepository;
+    @Mock
+    private ResourceRepository resourceRepository;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    private RbacCatalog catalog;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        catalog = new RbacCatalog();
+        setField(catalog, "roleRepository", roleRepository);
+        setField(catalog, "permissionRepository", permissionRepository);
+        setField(catalog, "resourceRepository", resourceRepository);
+        setField(catalog, "redisTemplate", redisTemplate);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void reload_ServesLookupsFromSnapshotWithSharedVersion() {
+        Role admin = role("ADMIN");
+        when(valueOperations.get(anyString())).thenReturn("7");
+        when(roleRepository.findAllActive()).thenReturn(List.of(admin));
+
+        catalog.reload();
+
+        assertEquals(7, catalog.version());
+        assertSame(admin, catalog.findRole(admin.getId()).orElseThrow());
+        assertSame(admin, catalog.findRoleByName("ADMIN").orElseThrow());
+        verify(roleRepository, never()).findById(any());
+    }
+
+    @Test
+    void markChanged_BumpsVersionReloadsAndBroadcasts() {
+        Role auditor = role("AUDITOR");
+        when(valueOperations.increment(anyString())).thenReturn(8L);
+        when(valueOperations.get(anyString())).thenReturn("8");
+        when(roleRepository.findAllActive()).thenReturn(List.of(auditor));
+
+        catalog.markChanged();
+
+        assertEquals(8, catalog.version());
+        assertTrue(catalog.findRoleByName("AUDITOR").isPresent());
+        verify(redisTemplate).convertAndSend(RbacCatalog.CHANGE_CHANNEL, "8");
+    }
+
+    @Test
+    void findRole_MissFallsThroughToRepository() {
+        UUID id = UUID.randomUUID();
+        when(roleRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertTrue(catalog.findRole(id).isEmpty());
+        verify(roleRepository).findById(id);
+    }
+
+    private Role role(String name) {
+        Role role = new Role();
+        role.setId(UUID.randomUUID());
+        role.setName(name);
+        return role;
+    }
+}
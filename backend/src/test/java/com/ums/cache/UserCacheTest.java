@@ -0,0 +1,106 @@
+package com.ums.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ums.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheTest {
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    private UserCache userCache;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userCache = new UserCache();
+        setField(userCache, "redisTemplate", redisTemplate);
+        setField(userCache, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+        setField(userCache, "localMaxEntries", 100);
+        setField(userCache, "localTtlSeconds", 60L);
+        setField(userCache, "redisTtlSeconds", 600L);
+        setField(userCache, "evictionGuardMs", 5000L);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void get_LoadsOnceThenServesFromLocalCache() {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            Optional<CachedUser> user = userCache.get(id, key -> {
+                loads.incrementAndGet();
+                return Optional.of(cachedUser(key));
+            });
+            assertEquals("alice", user.orElseThrow().getUsername());
+        }
+
+        assertEquals(1, loads.get());
+        // Written through the guarded script, keyed with the eviction marker and stamped with the row version
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("user:cached:" + id, "user:evicted:" + id)),
+            argThat(json -> !((String) json).contains("passwordHash") && !((String) json).contains("mfaSecret")),
+            eq("600"), eq("7"));
+    }
+
+    @Test
+    void evict_DropsLocalCopyAndBroadcasts() {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        userCache.get(id, key -> {
+            loads.incrementAndGet();
+            return Optional.of(cachedUser(key));
+        });
+
+        userCache.evict(id);
+        userCache.get(id, key -> {
+            loads.incrementAndGet();
+            return Optional.of(cachedUser(key));
+        });
+
+        assertEquals(2, loads.get());
+        verify(valueOperations).set("user:evicted:" + id, "1", 5000L, TimeUnit.MILLISECONDS);
+        verify(redisTemplate).delete("user:cached:" + id);
+        verify(redisTemplate).convertAndSend(UserCache.INVALIDATION_CHANNEL, id.toString());
+    }
+
+    private CachedUser cachedUser(UUID id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setPasswordHash("hash");
+        user.setMfaSecret("secret");
+        user.setStatus(User.UserStatus.ACTIVE);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setVersion(7L);
+        return CachedUser.from(user);
+    }
+}
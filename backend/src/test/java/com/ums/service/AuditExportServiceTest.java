@@ -0,0 +1,105 @@
+package com.ums.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ums.dto.audit.AuditExportFormat;
+import com.ums.dto.audit.AuditQuery;
+import com.ums.entity.AuditLog;
+import com.ums.repository.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditExportServiceTest {
+    @Mock
+    private AuditLogRepository auditLogRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private AuditExportService exportService;
+    private final AuditQuery query = AuditQuery.of(null, "USER", null, "UPDATE",
+        LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 4, 1, 0, 0));
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        exportService = new AuditExportService();
+        setField(exportService, "auditLogRepository", auditLogRepository);
+        setField(exportService, "objectMapper", new ObjectMapper());
+        setField(exportService, "transactionManager", transactionManager);
+
+        doAnswer(invocation -> {
+            Consumer<AuditLog> action = invocation.getArgument(2);
+            action.accept(log("{\"status\": \"ACTIVE\"}", "curl/8.0"));
+            action.accept(log(null, "=HYPERLINK(\"x\")"));
+            return null;
+        }).when(auditLogRepository).streamForExport(eq(query), anyInt(), any(Consumer.class));
+    }
+
+    @Test
+    void export_Ndjson_EmbedsJsonColumnsAsObjects() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(AuditExportFormat.NDJSON, query, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals("UPDATE", first.get("action").asText());
+        assertEquals("ACTIVE", first.get("newValue").get("status").asText());
+        assertTrue(first.get("oldValue").isNull());
+        assertEquals("2024-02-03T04:05:06", first.get("createdAt").asText());
+    }
+
+    @Test
+    void export_Csv_IsGzippedAndNeutralisesFormulas() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(AuditExportFormat.CSV, query, out);
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,createdAt,userId,action,entityType"));
+        assertTrue(lines[1].contains(",UPDATE,USER,"));
+        assertTrue(lines[1].endsWith(",curl/8.0,,\"{\"\"status\"\": \"\"ACTIVE\"\"}\",{}"));
+        assertTrue(lines[2].contains(",\"'=HYPERLINK(\"\"x\"\")\","));
+    }
+
+    private AuditLog log(String newValue, String userAgent) {
+        AuditLog log = new AuditLog();
+        log.setId(UUID.randomUUID());
+        log.setCreatedAt(LocalDateTime.of(2024, 2, 3, 4, 5, 6));
+        log.setUserId(UUID.randomUUID());
+        log.setAction("UPDATE");
+        log.setEntityType("USER");
+        log.setEntityId(UUID.randomUUID());
+        log.setNewValue(newValue);
+        log.setUserAgent(userAgent);
+        log.setMetadata("{}");
+        return log;
+    }
+}
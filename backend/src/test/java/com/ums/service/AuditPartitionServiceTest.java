@@ -0,0 +1,75 @@
+package com.ums.service;
+
+import com.ums.repository.AuditPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditPartitionServiceTest {
+    @Mock
+    private AuditPartitionRepository auditPartitionRepository;
+    private AuditPartitionService partitionService;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        partitionService = new AuditPartitionService();
+        setField(partitionService, "auditPartitionRepository", auditPartitionRepository);
+        setField(partitionService, "monthsAhead", 3);
+        setField(partitionService, "retentionMonths", 2);
+        setField(partitionService, "retentionMode", AuditPartitionService.RetentionMode.DROP);
+    }
+
+    @Test
+    void maintainPartitions_CreatesAheadAndDropsMonthsPastRetention() {
+        when(auditPartitionRepository.findPartitionMonths()).thenReturn(List.of(
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1),
+            LocalDate.of(2024, 4, 1), LocalDate.of(2024, 5, 1)));
+
+        partitionService.maintainPartitions(LocalDate.of(2024, 5, 17));
+
+        verify(auditPartitionRepository).createPartitions(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 8, 1));
+        verify(auditPartitionRepository).dropPartition(LocalDate.of(2024, 1, 1));
+        verify(auditPartitionRepository).dropPartition(LocalDate.of(2024, 2, 1));
+        verify(auditPartitionRepository, never()).dropPartition(LocalDate.of(2024, 3, 1));
+        verify(auditPartitionRepository, never()).detachPartition(any());
+    }
+
+    @Test
+    void maintainPartitions_ZeroRetentionKeepsEverything() throws Exception {
+        setField(partitionService, "retentionMonths", 0);
+
+        partitionService.maintainPartitions(LocalDate.of(2024, 5, 17));
+
+        verify(auditPartitionRepository).createPartitions(any(), any());
+        verify(auditPartitionRepository, never()).findPartitionMonths();
+    }
+
+    @Test
+    void createPartitionFor_SkipsMonthsPastRetention() {
+        assertFalse(partitionService.createPartitionFor(LocalDateTime.now().minusMonths(6)));
+        verify(auditPartitionRepository, never()).createPartitions(any(), any());
+
+        LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1);
+        assertTrue(partitionService.createPartitionFor(lastMonth));
+        LocalDate month = lastMonth.toLocalDate().withDayOfMonth(1);
+        verify(auditPartitionRepository).createPartitions(month, month);
+    }
+}
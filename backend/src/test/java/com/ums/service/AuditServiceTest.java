@@ -0,0 +1,119 @@
+package com.ums.service;
+
+import com.ums.dto.audit.AuditEvent;
+import com.ums.dto.audit.AuditQuery;
+import com.ums.dto.common.CountMode;
+import com.ums.dto.common.PageCursor;
+import com.ums.dto.common.PageResponse;
+import com.ums.entity.AuditLog;
+import com.ums.repository.AuditLogRepository;
+import com.ums.service.impl.AuditServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditServiceTest {
+    @Mock
+    private AuditLogRepository auditLogRepository;
+    @Mock
+    private PageCountService pageCountService;
+    @Mock
+    private AuditWriter auditWriter;
+    private AuditServiceImpl auditService;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        auditService = new AuditServiceImpl();
+        setField(auditService, "auditLogRepository", auditLogRepository);
+        setField(auditService, "pageCountService", pageCountService);
+        setField(auditService, "auditWriter", auditWriter);
+    }
+
+    private AuditLog log(LocalDateTime createdAt) {
+        AuditLog log = new AuditLog();
+        log.setId(UUID.randomUUID());
+        log.setAction("LOGIN");
+        log.setEntityType("USER");
+        log.setCreatedAt(createdAt);
+        return log;
+    }
+
+    @Test
+    void logAuditEvent_StampsCreatedAtWhenEnqueued() {
+        AuditEvent event = new AuditEvent();
+        event.setAction("LOGIN");
+        event.setEntityType("USER");
+
+        LocalDateTime before = LocalDateTime.now();
+        auditService.logAuditEvent(event);
+        LocalDateTime after = LocalDateTime.now();
+
+        ArgumentCaptor<AuditLog> enqueued = ArgumentCaptor.forClass(AuditLog.class);
+        verify(auditWriter).enqueue(enqueued.capture());
+        LocalDateTime createdAt = enqueued.getValue().getCreatedAt();
+        assertNotNull(createdAt);
+        assertFalse(createdAt.isBefore(before));
+        assertFalse(createdAt.isAfter(after));
+    }
+
+    @Test
+    void getAuditLogById_UsesIndexedLookup() {
+        AuditLog stored = log(LocalDateTime.of(2023, 1, 5, 8, 0));
+        when(auditLogRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        AuditEvent event = auditService.getAuditLogById(stored.getId());
+
+        assertEquals(stored.getId(), event.getId());
+        assertEquals(stored.getCreatedAt(), event.getCreatedAt());
+        verify(auditLogRepository, never()).find(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getAuditLogs_EstimatesTotalAndLooksAheadForNextPage() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        List<AuditLog> rows = List.of(log(now), log(now.minusMinutes(1)), log(now.minusMinutes(2)));
+        AuditQuery query = AuditQuery.of(null, null, null, "login", now.minusDays(1), now.plusDays(1));
+        when(auditLogRepository.find(query, null, 0, 3)).thenReturn(rows);
+        when(pageCountService.count(eq(CountMode.ESTIMATED), eq("audit_logs"), eq(query.filterKey()), any(), any()))
+            .thenReturn(1234L);
+
+        PageResponse<AuditEvent> response = auditService.getAuditLogs(0, 2, query, null, null);
+
+        assertEquals("LOGIN", query.action());
+        assertEquals(2, response.getContent().size());
+        assertEquals(1234L, response.getTotalElements());
+        assertEquals("estimated", response.getCountMode());
+        assertTrue(response.isHasNext());
+        PageCursor next = PageCursor.decode(response.getNextCursor());
+        assertEquals(rows.get(1).getId(), next.getId());
+    }
+
+    @Test
+    void auditQuery_RejectsUnknownActionAndInvertedRange() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThrows(IllegalArgumentException.class, () -> AuditQuery.of(null, null, null, "EXPLODE", null, null));
+        assertThrows(IllegalArgumentException.class, () -> AuditQuery.of(null, null, null, null, now, now));
+        assertThrows(IllegalArgumentException.class,
+            () -> AuditQuery.of(null, null, UUID.randomUUID().toString(), null, null, null));
+    }
+}
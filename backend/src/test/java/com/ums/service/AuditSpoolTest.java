@@ -0,0 +1,123 @@
+package com.ums.service;
+
+import com.ums.entity.AuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditSpoolTest {
+    @TempDir
+    Path spoolDir;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private AuditSpool openSpool() throws Exception {
+        AuditSpool spool = new AuditSpool();
+        setField(spool, "meterRegistry", new SimpleMeterRegistry());
+        setField(spool, "spoolDir", spoolDir.toString());
+        setField(spool, "segmentBytes", 512);
+        setField(spool, "maxSegments", 8);
+        spool.open();
+        return spool;
+    }
+
+    private AuditLog event(int n) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setUserId(UUID.randomUUID());
+        auditLog.setAction("UPDATE");
+        auditLog.setEntityType("USER");
+        auditLog.setNewValue("{\"n\":" + n + "}");
+        auditLog.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123456000));
+        return auditLog;
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    @Test
+    void replayProgress_SurvivesRestartAndDrainedSegmentsAreDeleted() throws Exception {
+        AuditSpool spool = openSpool();
+        List<AuditLog> events = List.of(event(1), event(2), event(3), event(4), event(5), event(6));
+        assertEquals(6, spool.append(events));
+        assertTrue(segmentFiles().size() > 1);
+
+        AuditSpool.SpooledBatch first = spool.readBatch(2);
+        assertEquals(events.get(0).getId(), first.events().get(0).getId());
+        assertEquals(events.get(0).getCreatedAt(), first.events().get(0).getCreatedAt());
+        assertEquals("{\"n\":2}", first.events().get(1).getNewValue());
+        assertNull(first.events().get(0).getOldValue());
+        spool.commit(first);
+        spool.close();
+
+        AuditSpool reopened = openSpool();
+        assertEquals(4, reopened.pending());
+        AuditSpool.SpooledBatch batch;
+        int replayed = 0;
+        while (!(batch = reopened.readBatch(10)).isEmpty()) {
+            if (replayed == 0) {
+                assertEquals("{\"n\":3}", batch.events().get(0).getNewValue());
+            }
+            replayed += batch.events().size();
+            reopened.commit(batch);
+        }
+        assertEquals(4, replayed);
+        assertEquals(0, reopened.pending());
+        assertEquals(1, segmentFiles().size());
+        reopened.close();
+    }
+
+    @Test
+    void open_IgnoresTornRecordAtTheTail() throws Exception {
+        AuditSpool spool = openSpool();
+        spool.append(List.of(event(1), event(2)));
+        spool.close();
+
+        // Corrupt the payload of the second record so its CRC no longer matches
+        Path segment = segmentFiles().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(8);
+            int firstLength = file.readInt();
+            long second = 8 + 8 + firstLength;
+            file.seek(second + 8 + 20);
+            file.write(0x7f);
+        }
+
+        AuditSpool reopened = openSpool();
+        assertEquals(1, reopened.pending());
+        assertEquals("{\"n\":1}", reopened.readBatch(10).events().get(0).getNewValue());
+        assertEquals(1, reopened.append(List.of(event(3))));
+        reopened.close();
+
+        AuditSpool again = openSpool();
+        assertEquals(2, again.pending());
+        again.close();
+    }
+
+    @Test
+    void open_FailsWhileAnotherSpoolHoldsTheDirectory() throws Exception {
+        AuditSpool spool = openSpool();
+
+        assertThrows(IllegalStateException.class, this::openSpool);
+
+        spool.close();
+        openSpool().close();
+    }
+}
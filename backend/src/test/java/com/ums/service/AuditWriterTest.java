@@ -0,0 +1,197 @@
+package com.ums.service;
+
+import com.ums.entity.AuditLog;
+import com.ums.repository.AuditLogRepository;
+import com.ums.repository.AuditPartitionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditWriterTest {
+    @Mock
+    private AuditLogRepository auditLogRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private AuditPartitionRepository auditPartitionRepository;
+    @TempDir
+    Path spoolDir;
+    private AuditSpool spool;
+    private AuditPartitionService partitionService;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private AuditWriter writer(MeterRegistry registry, AuditWriter.OverflowPolicy policy) throws Exception {
+        AuditWriter writer = new AuditWriter();
+        setField(writer, "auditLogRepository", auditLogRepository);
+        setField(writer, "transactionManager", transactionManager);
+        partitionService = new AuditPartitionService();
+        setField(partitionService, "auditPartitionRepository", auditPartitionRepository);
+        setField(writer, "auditPartitionService", partitionService);
+        spool = new AuditSpool();
+        setField(spool, "meterRegistry", registry);
+        setField(spool, "spoolDir", spoolDir.toString());
+        setField(spool, "segmentBytes", 4096);
+        setField(spool, "maxSegments", 4);
+        spool.open();
+        setField(writer, "auditSpool", spool);
+        setField(writer, "meterRegistry", registry);
+        setField(writer, "queueCapacity", 100);
+        setField(writer, "batchSize", 3);
+        setField(writer, "flushIntervalMs", 50L);
+        setField(writer, "overflowPolicy", policy);
+        setField(writer, "blockTimeoutMs", 10L);
+        setField(writer, "replayBatchesPerRun", 10);
+        setField(writer, "shutdownTimeoutMs", 5000L);
+        return writer;
+    }
+
+    private AuditLog event(String action) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setAction(action);
+        auditLog.setEntityType("USER");
+        return auditLog;
+    }
+
+    private DataIntegrityViolationException noPartition() {
+        return new DataIntegrityViolationException("no partition of relation \"audit_logs\" found for row",
+            new SQLException("no partition of relation \"audit_logs\" found for row", "23514"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueue_WritesInBatchesAndDrainsOnStop() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditWriter writer = writer(registry, AuditWriter.OverflowPolicy.BLOCK);
+        writer.start();
+        for (int i = 0; i < 7; i++) {
+            writer.enqueue(event("UPDATE"));
+        }
+        writer.stop();
+
+        ArgumentCaptor<List<AuditLog>> batches = ArgumentCaptor.forClass(List.class);
+        verify(auditLogRepository, atLeast(3)).saveAll(batches.capture());
+        assertEquals(7, batches.getAllValues().stream().mapToInt(List::size).sum());
+        assertTrue(batches.getAllValues().stream().allMatch(batch -> batch.size() <= 3));
+        assertEquals(7.0, registry.get("ums.audit.events").tag("outcome", "written").counter().count());
+        assertEquals(0, writer.queueSize());
+    }
+
+    @Test
+    void failedBatch_IsSpooledAndReplayedOnceDatabaseRecovers() throws Exception {
+        doThrow(new DataAccessResourceFailureException("database is down"))
+            .when(auditLogRepository).saveAll(anyList());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditWriter writer = writer(registry, AuditWriter.OverflowPolicy.BLOCK);
+        writer.start();
+        AuditLog created = event("CREATE");
+        created.setCreatedAt(LocalDateTime.of(2024, 3, 31, 23, 59, 58, 123456000));
+        writer.enqueue(created);
+        writer.enqueue(event("DELETE"));
+        writer.stop();
+        assertEquals(2, spool.pending());
+        assertEquals(2.0, registry.get("ums.audit.events").tag("outcome", "spooled").counter().count());
+
+        // Still down: the replay is a probe and leaves the spool alone
+        writer.replaySpool();
+        assertEquals(2, spool.pending());
+
+        reset(auditLogRepository);
+        writer.replaySpool();
+
+        verify(auditLogRepository).saveAll(argThat(batch -> batch.size() == 2
+            && batch.get(0).getId() != null && "CREATE".equals(batch.get(0).getAction())
+            // The replayed row keeps the enqueue time, so it lands in the right month and dedupes on (id, created_at)
+            && created.getCreatedAt().equals(batch.get(0).getCreatedAt())));
+        assertEquals(0, spool.pending());
+        assertEquals(2.0, registry.get("ums.audit.events").tag("outcome", "written").counter().count());
+    }
+
+    @Test
+    void missingPartition_IsCreatedOnDemandAndTheRowRetried() throws Exception {
+        doThrow(noPartition()).doThrow(noPartition()).doNothing()
+            .when(auditLogRepository).saveAll(anyList());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditWriter writer = writer(registry, AuditWriter.OverflowPolicy.BLOCK);
+        writer.start();
+        AuditLog old = event("UPDATE");
+        old.setCreatedAt(LocalDateTime.of(2023, 11, 14, 9, 30));
+        writer.enqueue(old);
+        writer.stop();
+
+        verify(auditPartitionRepository).createPartitions(LocalDate.of(2023, 11, 1), LocalDate.of(2023, 11, 1));
+        assertEquals(1.0, registry.get("ums.audit.events").tag("outcome", "written").counter().count());
+        assertEquals(0, spool.pending());
+    }
+
+    @Test
+    void spooledEvent_WithoutPartition_StaysInTheSpool() throws Exception {
+        doThrow(new DataAccessResourceFailureException("database is down"))
+            .when(auditLogRepository).saveAll(anyList());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditWriter writer = writer(registry, AuditWriter.OverflowPolicy.BLOCK);
+        writer.start();
+        AuditLog detached = event("DELETE");
+        detached.setCreatedAt(LocalDateTime.of(2022, 1, 3, 12, 0));
+        writer.enqueue(detached);
+        writer.stop();
+        assertEquals(1, spool.pending());
+
+        // Back up, but the month was detached, so no partition can be created under its name
+        reset(auditLogRepository);
+        doThrow(noPartition()).when(auditLogRepository).saveAll(anyList());
+        writer.replaySpool();
+
+        verify(auditPartitionRepository).createPartitions(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 1));
+        assertEquals(1, spool.pending());
+        assertEquals(0.0, registry.get("ums.audit.events").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void spooledEvent_PastRetention_IsDiscardedAsExpired() throws Exception {
+        doThrow(new DataAccessResourceFailureException("database is down"))
+            .when(auditLogRepository).saveAll(anyList());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditWriter writer = writer(registry, AuditWriter.OverflowPolicy.BLOCK);
+        setField(partitionService, "retentionMonths", 12);
+        writer.start();
+        AuditLog late = event("UPDATE");
+        late.setCreatedAt(LocalDateTime.now().minusYears(3));
+        writer.enqueue(late);
+        writer.stop();
+        assertEquals(1, spool.pending());
+
+        reset(auditLogRepository);
+        doThrow(noPartition()).when(auditLogRepository).saveAll(anyList());
+        writer.replaySpool();
+
+        // Re-creating the month would only undo retention
+        verify(auditPartitionRepository, never()).createPartitions(any(), any());
+        assertEquals(0, spool.pending());
+        assertEquals(1.0, registry.get("ums.audit.events").tag("outcome", "expired").counter().count());
+    }
+}
@@ -1,13 +1,14 @@
 package com.ums.service;
 
+import com.ums.cache.RbacCatalog;
 import com.ums.dto.auth.LoginRequest;
 import com.ums.dto.auth.LoginResponse;
 import com.ums.entity.Role;
 import com.ums.entity.User;
 import com.ums.repository.RefreshTokenRepository;
-import com.ums.repository.RoleRepository;
 import com.ums.repository.UserRepository;
 import com.ums.repository.UserRoleRepository;
+import com.ums.repository.projection.UserCredentials;
 import com.ums.security.JwtTokenProvider;
 import com.ums.service.AuditService;
 import com.ums.service.CacheService;
@@ -41,7 +42,7 @@ public class AuthServiceTest {
     @Mock
     private UserRoleRepository userRoleRepository;
     @Mock
-    private RoleRepository roleRepository;
+    private RbacCatalog rbacCatalog;
     @Mock
     private JwtTokenProvider jwtTokenProvider;
     @Mock
@@ -52,6 +53,10 @@ public class AuthServiceTest {
     private OpaService opaService;
     @Mock
     private RateLimitService rateLimitService;
+    @Mock
+    private LoginLockoutService loginLockoutService;
+    @Mock
+    private MfaService mfaService;
     private PasswordService passwordService;
     private AuthServiceImpl authService;
 
@@ -68,13 +73,15 @@ public class AuthServiceTest {
         setField(authService, "userRepository", userRepository);
         setField(authService, "refreshTokenRepository", refreshTokenRepository);
         setField(authService, "userRoleRepository", userRoleRepository);
-        setField(authService, "roleRepository", roleRepository);
+        setField(authService, "rbacCatalog", rbacCatalog);
         setField(authService, "jwtTokenProvider", jwtTokenProvider);
         setField(authService, "auditService", auditService);
         setField(authService, "cacheService", cacheService);
         setField(authService, "opaService", opaService);
         setField(authService, "rateLimitService", rateLimitService);
         setField(authService, "passwordService", passwordService);
+        setField(authService, "loginLockoutService", loginLockoutService);
+        setField(authService, "mfaService", mfaService);
     }
 
     @Test
@@ -101,11 +108,11 @@ public class AuthServiceTest {
         roles.add(role);
 
         when(rateLimitService.isRateLimited(anyString(), anyInt(), anyInt())).thenReturn(false);
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findCredentials("test@example.com")).thenReturn(Optional.of(UserCredentials.from(user)));
         when(user.isLocked()).thenReturn(false);
         when(passwordService.verifyPassword("password123", user.getPasswordHash())).thenReturn(true);
-        when(userRoleRepository.findByUserId(user.getId())).thenReturn(new ArrayList<>());
-        when(roleRepository.findById(any())).thenReturn(Optional.of(role));
+        when(userRoleRepository.findActiveRoleIds(user.getId())).thenReturn(new ArrayList<>());
+        when(rbacCatalog.findRole(any())).thenReturn(Optional.of(role));
         when(jwtTokenProvider.generateAccessToken(any(), anyList())).thenReturn("accessToken");
         when(jwtTokenProvider.generateRefreshToken(any())).thenReturn("refreshToken");
 
@@ -114,7 +121,7 @@ public class AuthServiceTest {
         assertNotNull(response);
         assertEquals("accessToken", response.getAccessToken());
         assertEquals("refreshToken", response.getRefreshToken());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).recordLogin(user.getId());
         verify(refreshTokenRepository).save(any());
     }
 
@@ -134,7 +141,7 @@ public class AuthServiceTest {
         user.setLockedUntil(null);
 
         when(rateLimitService.isRateLimited(anyString(), anyInt(), anyInt())).thenReturn(false);
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findCredentials("test@example.com")).thenReturn(Optional.of(UserCredentials.from(user)));
         when(user.isLocked()).thenReturn(false);
         when(passwordService.verifyPassword("wrongpassword", user.getPasswordHash())).thenReturn(false);
 
@@ -145,6 +152,52 @@ public class AuthServiceTest {
         assertEquals("Invalid email or password", exception.getMessage());
     }
 
+    @Test
+    void login_InvalidPassword_LockTransitionPersistedOnce() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("testuser");
+        user.setEmail("test@example.com");
+        user.setPasswordHash(passwordService.hashPassword("password123"));
+        user.setStatus(User.UserStatus.ACTIVE);
+
+        when(rateLimitService.isRateLimited(anyString(), anyInt(), anyInt())).thenReturn(false);
+        when(userRepository.findCredentials("testuser")).thenReturn(Optional.of(UserCredentials.from(user)));
+        when(loginLockoutService.isLocked(user.getId())).thenReturn(false);
+        when(loginLockoutService.recordFailure(eq(user.getId()), anyInt(), anyInt())).thenReturn(true);
+
+        assertThrows(RuntimeException.class, () ->
+            authService.login("testuser", "wrongpassword", "127.0.0.1", "Mozilla/5.0"));
+
+        verify(loginLockoutService).persistLock(eq(user.getId()), anyInt(), any(LocalDateTime.class));
+        verify(userRepository, never()).recordLogin(any());
+    }
+
+    @Test
+    void login_AfterLockExpires_Succeeds() {
+        // What a lockout leaves in the users row once its duration has passed
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("testuser");
+        user.setEmail("test@example.com");
+        user.setPasswordHash(passwordService.hashPassword("password123"));
+        user.setStatus(User.UserStatus.ACTIVE);
+        user.setLoginAttempts(5);
+        user.setLockedUntil(LocalDateTime.now().minusMinutes(1));
+
+        when(rateLimitService.isRateLimited(anyString(), anyInt(), anyInt())).thenReturn(false);
+        when(userRepository.findCredentials("testuser")).thenReturn(Optional.of(UserCredentials.from(user)));
+        when(loginLockoutService.isLocked(user.getId())).thenReturn(false);
+        when(jwtTokenProvider.generateAccessToken(any(), anyList())).thenReturn("accessToken");
+        when(jwtTokenProvider.generateRefreshToken(any())).thenReturn("refreshToken");
+
+        LoginResponse response = authService.login("testuser", "password123", "127.0.0.1", "Mozilla/5.0");
+
+        assertEquals("accessToken", response.getAccessToken());
+        verify(loginLockoutService).reset(user.getId());
+        verify(userRepository).recordLogin(user.getId());
+    }
+
     @Test
     void login_RateLimited_ThrowsException() {
         LoginRequest request = new LoginRequest();
@@ -175,7 +228,7 @@ public class AuthServiceTest {
         user.setLockedUntil(LocalDateTime.now().plusHours(1));
 
         when(rateLimitService.isRateLimited(anyString(), anyInt(), anyInt())).thenReturn(false);
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findCredentials("test@example.com")).thenReturn(Optional.of(UserCredentials.from(user)));
         when(user.isLocked()).thenReturn(true);
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -192,7 +245,7 @@ public class AuthServiceTest {
         request.setPassword("password123");
 
         when(rateLimitService.isRateLimited(anyString(), anyInt(), anyInt())).thenReturn(false);
-        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+        when(userRepository.findCredentials("nonexistent@example.com")).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             authService.login(request.getUsernameOrEmail(), request.getPassword(), "127.0.0.1", "Mozilla/5.0");
@@ -202,8 +255,27 @@ public class AuthServiceTest {
     }
 
     @Test
-    void verifyMfa_ReturnsTrue() {
+    void verifyMfa_InvalidTempToken_ReturnsFalse() {
+        when(jwtTokenProvider.validateToken("tempToken")).thenThrow(new io.jsonwebtoken.JwtException("expired"));
+
         boolean result = authService.verifyMfa("123456", "tempToken");
-        assertTrue(result);
+
+        assertFalse(result);
+        verifyNoInteractions(mfaService);
+    }
+
+    @Test
+    void completeMfaLogin_RejectsNonTempToken() {
+        io.jsonwebtoken.Claims claims = io.jsonwebtoken.Jwts.claims()
+            .subject(UUID.randomUUID().toString())
+            .add("type", "refresh")
+            .build();
+        when(jwtTokenProvider.validateToken("refreshToken")).thenReturn(claims);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+            authService.completeMfaLogin("refreshToken", "123456", "127.0.0.1", "Mozilla/5.0"));
+
+        assertEquals("MFA session is invalid or expired", exception.getMessage());
+        verifyNoInteractions(mfaService);
     }
 }
@@ -0,0 +1,54 @@
+package com.ums.service;
+
+import com.ums.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoginLockoutServiceTest {
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private UserRepository userRepository;
+    private LoginLockoutService loginLockoutService;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        loginLockoutService = new LoginLockoutService();
+        setField(loginLockoutService, "redisTemplate", redisTemplate);
+        setField(loginLockoutService, "userRepository", userRepository);
+    }
+
+    @Test
+    void recordFailure_RedisDown_CountsInDatabase() {
+        UUID userId = UUID.randomUUID();
+        when(redisTemplate.execute(any(), anyList(), anyString(), anyString()))
+            .thenThrow(new RedisConnectionFailureException("redis is down"));
+        when(userRepository.recordFailedLogin(eq(userId), eq(5), any(LocalDateTime.class))).thenReturn(4, 5);
+
+        assertFalse(loginLockoutService.recordFailure(userId, 5, 3600));
+        assertTrue(loginLockoutService.recordFailure(userId, 5, 3600));
+
+        verify(userRepository, times(2)).recordFailedLogin(eq(userId), eq(5),
+            argThat(lockedUntil -> lockedUntil.isAfter(LocalDateTime.now().plusMinutes(59))));
+    }
+}
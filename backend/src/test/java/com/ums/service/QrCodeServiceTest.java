@@ -0,0 +1,63 @@
+package com.ums.service;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrCodeServiceTest {
+
+    private static final String OTPAUTH_URL =
+        "otpauth://totp/UserManagementSystem:550e8400-e29b-41d4-a716-446655440000" +
+        "?secret=JBSWY3DPEHPK3PXP&issuer=UserManagementSystem";
+
+    @Test
+    void writePng_ProducesDecodableImage() throws Exception {
+        QrCodeService service = new QrCodeService();
+        service.prepare("user-1", OTPAUTH_URL);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.find("user-1").orElseThrow().writePng(5, out);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertNotNull(image);
+        assertEquals(image.getWidth(), image.getHeight());
+        assertEquals(0, image.getWidth() % 5);
+
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        assertEquals(OTPAUTH_URL, new QRCodeReader().decode(bitmap).getText());
+    }
+
+    @Test
+    void writePng_PixelsMatchModules() throws Exception {
+        QrCodeService.BitMatrix matrix = QrCodeService.encode(OTPAUTH_URL);
+        int scale = 3;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        QrCodeService.writePng(matrix, scale, out);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(matrix.getSize() * scale, image.getWidth());
+        for (int y = 0; y < matrix.getSize(); y++) {
+            for (int x = 0; x < matrix.getSize(); x++) {
+                boolean dark = (image.getRGB(x * scale + 1, y * scale + 1) & 0xffffff) == 0;
+                assertEquals(matrix.get(x, y), dark, "module " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void find_UnknownKey_ReturnsEmpty() {
+        QrCodeService service = new QrCodeService();
+
+        assertTrue(service.find("missing").isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package com.ums.service;
+
+import com.ums.cache.RbacCatalog;
+import com.ums.dto.resource.ResourceResponse;
+import com.ums.entity.Resource;
+import com.ums.repository.ResourceRepository;
+import com.ums.service.impl.ResourceServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ResourceServiceTest {
+    @Mock
+    private ResourceRepository resourceRepository;
+    @Mock
+    private RbacCatalog rbacCatalog;
+    private ResourceServiceImpl resourceService;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        resourceService = new ResourceServiceImpl();
+        setField(resourceService, "resourceRepository", resourceRepository);
+        setField(resourceService, "rbacCatalog", rbacCatalog);
+    }
+
+    @Test
+    void getResourceTree_NestsSubtreeFromOneQuery() {
+        Resource root = resource("settings", null);
+        Resource security = resource("security", root);
+        Resource mfa = resource("mfa", security);
+        Resource profile = resource("profile", root);
+        when(resourceRepository.findSubtree(root.getId())).thenReturn(List.of(root, security, mfa, profile));
+
+        ResourceResponse tree = resourceService.getResourceTree(root.getId());
+
+        assertEquals("settings", tree.getName());
+        assertEquals(List.of("security", "profile"),
+            tree.getChildren().stream().map(ResourceResponse::getName).toList());
+        assertEquals("mfa", tree.getChildren().get(0).getChildren().get(0).getName());
+        verify(resourceRepository, times(1)).findSubtree(any());
+        verifyNoMoreInteractions(resourceRepository);
+    }
+
+    @Test
+    void moveResource_UnderItself_IsRejected() {
+        UUID id = UUID.randomUUID();
+
+        assertThrows(IllegalArgumentException.class, () -> resourceService.moveResource(id, id));
+        verifyNoInteractions(resourceRepository, rbacCatalog);
+    }
+
+    private Resource resource(String name, Resource parent) {
+        Resource resource = new Resource();
+        resource.setId(UUID.randomUUID());
+        resource.setName(name);
+        resource.setType("MENU");
+        if (parent != null) {
+            resource.setParentId(parent.getId());
+        }
+        return resource;
+    }
+}
@@ -0,0 +1,195 @@
+package com.ums.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ums.cache.RbacCatalog;
+import com.ums.cache.RolePermissionCache;
+import com.ums.dto.permission.PermissionResponse;
+import com.ums.dto.role.RoleMembersRequest;
+import com.ums.dto.role.RoleResponse;
+import com.ums.entity.Permission;
+import com.ums.entity.Resource;
+import com.ums.entity.Role;
+import com.ums.event.RolePermissionsChangedEvent;
+import com.ums.repository.PermissionRepository;
+import com.ums.repository.RolePermissionRepository;
+import com.ums.repository.RoleRepository;
+import com.ums.repository.UserRoleRepository;
+import com.ums.service.impl.RoleServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RoleServiceTest {
+    @Mock
+    private RoleRepository roleRepository;
+    @Mock
+    private UserRoleRepository userRoleRepository;
+    @Mock
+    private PermissionRepository permissionRepository;
+    @Mock
+    private RolePermissionRepository rolePermissionRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private RbacCatalog rbacCatalog;
+    @Mock
+    private OpaService opaService;
+    @Mock
+    private AuditService auditService;
+    private RoleServiceImpl roleService;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        roleService = new RoleServiceImpl();
+        setField(roleService, "roleRepository", roleRepository);
+        setField(roleService, "userRoleRepository", userRoleRepository);
+        setField(roleService, "permissionRepository", permissionRepository);
+        setField(roleService, "rolePermissionRepository", rolePermissionRepository);
+        setField(roleService, "rolePermissionCache", new RolePermissionCache());
+        setField(roleService, "eventPublisher", eventPublisher);
+        setField(roleService, "rbacCatalog", rbacCatalog);
+        setField(roleService, "opaService", opaService);
+        setField(roleService, "auditService", auditService);
+        setField(roleService, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    void addMembers_ByFilter_GrantsInOneStatementAndInvalidatesOnce() {
+        UUID roleId = UUID.randomUUID();
+        UUID actorId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(rbacCatalog.findRole(roleId)).thenReturn(Optional.of(new Role()));
+        when(userRoleRepository.grantRole(eq(roleId), isNull(), eq("ACTIVE"), eq("acme"),
+            isNull(), isNull(), isNull(), eq(actorId))).thenReturn(List.of(first, second));
+
+        RoleMembersRequest request = new RoleMembersRequest();
+        request.setStatus("ACTIVE");
+        request.setSearch("acme");
+
+        assertEquals(2, roleService.addMembers(roleId, request, actorId));
+        verify(opaService, times(1)).invalidateCache(List.of(first.toString(), second.toString()));
+        verify(auditService, times(1)).logAuditEvent(argThat(event ->
+            "ROLE_ASSIGN".equals(event.getAction()) && roleId.equals(event.getEntityId())));
+    }
+
+    @Test
+    void removeMembers_CountsEachUserOnce() {
+        UUID roleId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        List<UUID> userIds = List.of(userId);
+        when(rbacCatalog.findRole(roleId)).thenReturn(Optional.of(new Role()));
+        // Held in two scopes, so two rows are revoked for the same user
+        when(userRoleRepository.revokeRole(roleId, userIds, null, null)).thenReturn(List.of(userId, userId));
+
+        RoleMembersRequest request = new RoleMembersRequest();
+        request.setUserIds(userIds);
+
+        assertEquals(1, roleService.removeMembers(roleId, request, null));
+        verify(opaService).invalidateCache(List.of(userId.toString()));
+    }
+
+    @Test
+    void addMembers_WithoutSelection_IsRejected() {
+        RoleMembersRequest request = new RoleMembersRequest();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> roleService.addMembers(UUID.randomUUID(), request, null));
+        verifyNoInteractions(userRoleRepository, opaService);
+    }
+
+    @Test
+    void getRoleById_UsesJoinedParentNameAndMemberCount() {
+        UUID roleId = UUID.randomUUID();
+        Role parent = new Role();
+        parent.setId(UUID.randomUUID());
+        parent.setName("ADMIN");
+        Role role = new Role();
+        role.setId(roleId);
+        role.setName("AUDITOR");
+        role.setParent(parent);
+        role.setMemberCount(7);
+        when(roleRepository.findById(roleId)).thenReturn(Optional.of(role));
+
+        RoleResponse response = roleService.getRoleById(roleId);
+
+        assertEquals("ADMIN", response.getParentName());
+        assertEquals(7, response.getUserCount());
+        verifyNoInteractions(userRoleRepository);
+    }
+
+    @Test
+    void getRolePermissions_LoadsOnceWithResourceNames() {
+        UUID roleId = UUID.randomUUID();
+        Resource resource = new Resource();
+        resource.setId(UUID.randomUUID());
+        resource.setName("Users");
+        Permission permission = new Permission();
+        permission.setId(UUID.randomUUID());
+        permission.setName("user:read");
+        permission.setAction("READ");
+        permission.setResource(resource);
+        when(permissionRepository.findGrantedToRole(roleId)).thenReturn(Optional.of(List.of(permission)));
+
+        List<PermissionResponse> first = roleService.getRolePermissions(roleId);
+        first.get(0).setName("changed by caller");
+        List<PermissionResponse> second = roleService.getRolePermissions(roleId);
+
+        assertEquals("Users", second.get(0).getResource());
+        assertEquals("user:read", second.get(0).getName());
+        verify(permissionRepository, times(1)).findGrantedToRole(roleId);
+        verifyNoInteractions(roleRepository);
+    }
+
+    @Test
+    void updateRolePermissions_WritesOnlyTheDifference() {
+        UUID roleId = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        UUID dropped = UUID.randomUUID();
+        UUID added = UUID.randomUUID();
+        when(rbacCatalog.findRole(roleId)).thenReturn(Optional.of(new Role()));
+        when(rolePermissionRepository.findPermissionIdsByRoleId(roleId)).thenReturn(List.of(kept, dropped));
+        when(rolePermissionRepository.deleteByRoleIdAndPermissionIds(roleId, List.of(dropped))).thenReturn(List.of(dropped));
+        when(rolePermissionRepository.insertBatch(roleId, List.of(added))).thenReturn(List.of(added));
+
+        roleService.updateRolePermissions(roleId, List.of(kept, added));
+
+        verify(eventPublisher).publishEvent(new RolePermissionsChangedEvent(roleId, Set.of(added), Set.of(dropped)));
+        verify(rolePermissionRepository, never()).deleteByRoleId(any());
+        verifyNoInteractions(opaService);
+    }
+
+    @Test
+    void updateRolePermissions_UnchangedSetPublishesNothing() {
+        UUID roleId = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        when(rbacCatalog.findRole(roleId)).thenReturn(Optional.of(new Role()));
+        when(rolePermissionRepository.findPermissionIdsByRoleId(roleId)).thenReturn(List.of(kept));
+        when(rolePermissionRepository.deleteByRoleIdAndPermissionIds(roleId, List.of())).thenReturn(List.of());
+        when(rolePermissionRepository.insertBatch(roleId, List.of())).thenReturn(List.of());
+
+        roleService.updateRolePermissions(roleId, List.of(kept));
+
+        verifyNoInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ums.service;
+
+import com.ums.repository.UserArchiveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserArchiveServiceTest {
+    @Mock
+    private UserArchiveRepository userArchiveRepository;
+    private UserArchiveService archiveService;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        archiveService = new UserArchiveService();
+        setField(archiveService, "userArchiveRepository", userArchiveRepository);
+        setField(archiveService, "batchSize", 100);
+        setField(archiveService, "maxBatchesPerRun", 5);
+    }
+
+    @Test
+    void archiveDeletedBefore_StopsOnShortBatch() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        when(userArchiveRepository.archiveDeletedBefore(cutoff, 100)).thenReturn(100, 100, 42);
+
+        assertEquals(242, archiveService.archiveDeletedBefore(cutoff));
+        verify(userArchiveRepository, times(3)).archiveDeletedBefore(cutoff, 100);
+    }
+
+    @Test
+    void archiveDeletedBefore_StopsAtBatchLimit() {
+        when(userArchiveRepository.archiveDeletedBefore(any(), anyInt())).thenReturn(100);
+
+        assertEquals(500, archiveService.archiveDeletedBefore(LocalDateTime.now()));
+        verify(userArchiveRepository, times(5)).archiveDeletedBefore(any(), anyInt());
+    }
+}
@@ -0,0 +1,92 @@
+package com.ums.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ums.dto.user.UserDataFormat;
+import com.ums.entity.User;
+import com.ums.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserExportServiceTest {
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private UserExportService exportService;
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        exportService = new UserExportService();
+        setField(exportService, "userRepository", userRepository);
+        setField(exportService, "objectMapper", new ObjectMapper());
+        setField(exportService, "transactionManager", transactionManager);
+
+        doAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(3);
+            action.accept(user("alice", "alice@example.com", "+15550100"));
+            action.accept(user("=cmd", "bob, \"jr\"@example.com", null));
+            return null;
+        }).when(userRepository).streamForExport(eq("ACTIVE"), isNull(), anyInt(), any(Consumer.class));
+    }
+
+    @Test
+    void export_Ndjson_WritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(UserDataFormat.NDJSON, "ACTIVE", null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals("alice", first.get("username").asText());
+        assertEquals("ACTIVE", first.get("status").asText());
+        assertFalse(first.has("passwordHash"));
+        assertFalse(first.has("mfaSecret"));
+    }
+
+    @Test
+    void export_Csv_EscapesAndNeutralisesFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(UserDataFormat.CSV, "ACTIVE", null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,username,email,phone,status"));
+        assertTrue(lines[1].contains(",alice,alice@example.com,+15550100,ACTIVE,false,"));
+        assertTrue(lines[2].contains(",'=cmd,\"bob, \"\"jr\"\"@example.com\",,ACTIVE,"));
+    }
+
+    private User user(String username, String email, String phone) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPhone(phone);
+        user.setStatus(User.UserStatus.ACTIVE);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+}
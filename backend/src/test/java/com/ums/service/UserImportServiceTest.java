@@ -0,0 +1,140 @@
+package com.ums.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ums.dto.user.UserDataFormat;
+import com.ums.entity.User;
+import com.ums.repository.UserRepository;
+import com.ums.util.PasswordService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserImportServiceTest {
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PasswordService passwordService;
+    @Mock
+    private AuditService auditService;
+    @Mock
+    private UserSuggestService userSuggestService;
+    @Mock
+    private PageCountService pageCountService;
+    private UserImportService importService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        importService = new UserImportService();
+        setField(importService, "userRepository", userRepository);
+        setField(importService, "passwordService", passwordService);
+        setField(importService, "auditService", auditService);
+        setField(importService, "userSuggestService", userSuggestService);
+        setField(importService, "pageCountService", pageCountService);
+        setField(importService, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        setField(importService, "objectMapper", objectMapper);
+        setField(importService, "chunkSize", 2);
+        setField(importService, "hashThreads", 2);
+        importService.startHashPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.stopHashPool();
+    }
+
+    @Test
+    void importUsers_Ndjson_ReportsEachRowAndBatchesPerChunk() throws Exception {
+        User existing = new User();
+        existing.setId(UUID.randomUUID());
+        existing.setUsername("taken");
+        existing.setEmail("taken@example.com");
+
+        when(passwordService.hashPassword(anyString())).thenReturn("hashed");
+        when(userRepository.findByUsernamesOrEmails(anyCollection(), anyCollection()))
+            .thenReturn(List.of(existing));
+        when(userRepository.insertBatch(anyList()))
+            .thenAnswer(invocation -> new int[invocation.<List<User>>getArgument(0).size()])
+            .thenAnswer(invocation -> {
+                int[] counts = new int[invocation.<List<User>>getArgument(0).size()];
+                java.util.Arrays.fill(counts, 1);
+                return counts;
+            });
+
+        String body = String.join("\n",
+            "{\"username\":\"alice\",\"email\":\"alice@example.com\",\"password\":\"password123\"}",
+            "{\"username\":\"taken\",\"email\":\"new@example.com\",\"password\":\"password123\"}",
+            "not json",
+            "{\"username\":\"bob\",\"email\":\"bob@example.com\",\"password\":\"short\"}",
+            "{\"username\":\"carol\",\"email\":\"carol@example.com\",\"password\":\"password123\"}",
+            "{\"username\":\"carol\",\"email\":\"carol2@example.com\",\"password\":\"password123\"}");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importUsers(UserDataFormat.NDJSON,
+            new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        assertEquals(7, results.size());
+        // First chunk: alice lost a concurrent insert race (count 0), taken exists already
+        assertEquals("DUPLICATE", results.get(0).get("status").asText());
+        assertEquals("DUPLICATE", results.get(1).get("status").asText());
+        assertEquals("INVALID", results.get(2).get("status").asText());
+        assertEquals("INVALID", results.get(3).get("status").asText());
+        assertEquals("CREATED", results.get(4).get("status").asText());
+        assertTrue(results.get(4).has("id"));
+        assertEquals("DUPLICATE", results.get(5).get("status").asText());
+
+        JsonNode summary = results.get(6);
+        assertEquals(1, summary.get("created").asInt());
+        assertEquals(3, summary.get("duplicates").asInt());
+        assertEquals(2, summary.get("invalid").asInt());
+
+        verify(userRepository, times(2)).insertBatch(anyList());
+        verify(auditService, times(1)).logAuditEvents(argThat(events -> events.size() == 1));
+        verify(passwordService, times(2)).hashPassword("password123");
+    }
+
+    @Test
+    void importUsers_Csv_RequiresHeaderColumns() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importUsers(UserDataFormat.CSV,
+            new ByteArrayInputStream("username,email\nalice,alice@example.com\n".getBytes(StandardCharsets.UTF_8)), out);
+
+        JsonNode result = objectMapper.readTree(out.toString(StandardCharsets.UTF_8).trim());
+        assertEquals("CSV header is missing column: password", result.get("error").asText());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void parseCsvLine_HandlesQuotedFields() {
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""),
+            UserImportService.parseCsvLine("a,\"b,c\",\"say \"\"hi\"\"\","));
+    }
+}
@@ -1,12 +1,18 @@
 package com.ums.service;
 
+import com.ums.cache.CachedUser;
 import com.ums.dto.user.CreateUserRequest;
 import com.ums.dto.user.UpdateUserRequest;
 import com.ums.dto.user.UserResponse;
+import com.ums.dto.common.CountMode;
 import com.ums.dto.common.PageResponse;
 import com.ums.entity.User;
+import com.ums.entity.UserRole;
+import com.ums.repository.UserArchiveRepository;
 import com.ums.repository.UserRepository;
 import com.ums.repository.UserRoleRepository;
+import com.ums.repository.projection.UserChange;
+import com.ums.repository.projection.UserSummary;
 import com.ums.service.AuditService;
 import com.ums.util.PasswordService;
 import com.ums.service.impl.UserServiceImpl;
@@ -18,12 +24,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.function.LongSupplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,7 +46,15 @@ public class UserServiceTest {
     @Mock
     private UserRoleRepository userRoleRepository;
     @Mock
+    private UserArchiveRepository userArchiveRepository;
+    @Mock
     private AuditService auditService;
+    @Mock
+    private UserSuggestService userSuggestService;
+    @Mock
+    private PageCountService pageCountService;
+    @Mock
+    private LoginLockoutService loginLockoutService;
     private PasswordService passwordService;
     private UserServiceImpl userService;
 
@@ -49,8 +70,12 @@ public class UserServiceTest {
         userService = new UserServiceImpl();
         setField(userService, "userRepository", userRepository);
         setField(userService, "userRoleRepository", userRoleRepository);
+        setField(userService, "userArchiveRepository", userArchiveRepository);
         setField(userService, "auditService", auditService);
         setField(userService, "passwordService", passwordService);
+        setField(userService, "userSuggestService", userSuggestService);
+        setField(userService, "pageCountService", pageCountService);
+        setField(userService, "loginLockoutService", loginLockoutService);
     }
 
     @Test
@@ -117,7 +142,7 @@ public class UserServiceTest {
     @Test
     void getUserById_NotFound_ThrowsException() {
         UUID userId = UUID.randomUUID();
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findCachedById(userId)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             userService.getUserById(userId);
@@ -138,8 +163,8 @@ public class UserServiceTest {
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRoleRepository.findByUserId(userId)).thenReturn(Collections.emptyList());
+        when(userRepository.findCachedById(userId)).thenReturn(Optional.of(CachedUser.from(user)));
+        when(userRoleRepository.findActiveByUserIds(List.of(userId))).thenReturn(Collections.emptyList());
 
         UserResponse response = userService.getUserById(userId);
 
@@ -158,11 +183,169 @@ public class UserServiceTest {
         user.setEmail("test@example.com");
         user.setStatus(User.UserStatus.ACTIVE);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.update(any(User.class)))
+            .thenReturn(Optional.of(new UserChange(user, "testuser", "test@example.com", User.UserStatus.ACTIVE)));
 
         assertDoesNotThrow(() -> userService.softDeleteUser(userId));
 
-        verify(userRepository).save(argThat(u -> u.getDeletedAt() != null && u.getStatus() == User.UserStatus.INACTIVE));
+        verify(userRepository).update(argThat(u -> u.getDeletedAt() != null && u.getStatus() == User.UserStatus.INACTIVE));
+        verify(userSuggestService).remove("testuser", "test@example.com");
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void restoreUser_PullsArchivedUserBack() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        user.setUsername("archived");
+        user.setEmail("archived@example.com");
+        user.setStatus(User.UserStatus.ACTIVE);
+
+        when(userRepository.update(any(User.class)))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(new UserChange(user, "archived", "archived@example.com", User.UserStatus.INACTIVE)));
+        when(userArchiveRepository.restore(userId)).thenReturn(true);
+
+        assertDoesNotThrow(() -> userService.restoreUser(userId));
+
+        verify(userRepository, times(2)).update(argThat(u -> u.getDeletedAt() == null));
+        verify(userSuggestService).add("archived", "archived@example.com");
+    }
+
+    @Test
+    void updateUser_WritesOnlyChangedFieldsWithoutReadingFirst() {
+        UUID userId = UUID.randomUUID();
+        User updated = new User();
+        updated.setId(userId);
+        updated.setUsername("renamed");
+        updated.setEmail("test@example.com");
+        updated.setStatus(User.UserStatus.ACTIVE);
+        updated.setVersion(4L);
+
+        when(userRepository.update(any(User.class)))
+            .thenReturn(Optional.of(new UserChange(updated, "testuser", "test@example.com", User.UserStatus.ACTIVE)));
+        when(userRoleRepository.findActiveByUserIds(List.of(userId))).thenReturn(Collections.emptyList());
+
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setUsername("renamed");
+
+        UserResponse response = userService.updateUser(userId, request, 3L);
+
+        assertEquals("renamed", response.getUsername());
+        assertEquals(4L, response.getVersion());
+        verify(userRepository).update(argThat(u -> u.changedFields().equals(EnumSet.of(User.Field.USERNAME))
+            && Long.valueOf(3L).equals(u.getVersion())));
+        verify(userRepository, never()).findById(any());
+        verify(userSuggestService).remove("testuser", "test@example.com");
+        verify(userSuggestService).add("renamed", "test@example.com");
+    }
+
+    @Test
+    void getUsers_LoadsRolesForWholePageInOneQuery() {
+        List<UserSummary> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(new UserSummary(UUID.randomUUID(), "user" + i, "user" + i + "@example.com", null,
+                User.UserStatus.ACTIVE, false, null, LocalDateTime.now().minusMinutes(i)));
+        }
+
+        UUID adminRoleId = UUID.randomUUID();
+        UserRole assignment = new UserRole();
+        assignment.setUserId(users.get(0).id());
+        assignment.setRoleId(adminRoleId);
+        assignment.setRoleName("ADMIN");
+
+        when(userRepository.findRange(0, 101, null, null)).thenReturn(users);
+        when(userRepository.count(null, null)).thenReturn(100L);
+        when(pageCountService.count(eq(CountMode.EXACT), eq("users"), anyString(), any(), any()))
+            .thenAnswer(invocation -> invocation.<LongSupplier>getArgument(3).getAsLong());
+        when(userRoleRepository.findActiveByUserIds(anyCollection())).thenReturn(List.of(assignment));
+
+        PageResponse<UserResponse> page = userService.getUsers(0, 100, null, null, null, null, null);
+
+        assertEquals(100, page.getContent().size());
+        assertEquals(List.of("ADMIN"), page.getContent().get(0).getRoles());
+        assertEquals(List.of(adminRoleId), page.getContent().get(0).getRoleIds());
+        assertTrue(page.getContent().get(1).getRoles().isEmpty());
+
+        // One page query, one count, one role lookup - independent of page size
+        assertEquals(100, page.getTotalElements());
+        assertFalse(page.isHasNext());
+        verify(userRepository, times(1)).findRange(0, 101, null, null);
+        verify(userRepository, times(1)).count(null, null);
+        verify(userRoleRepository, times(1)).findActiveByUserIds(anyCollection());
+        verifyNoMoreInteractions(userRepository, userRoleRepository);
+    }
+
+    @Test
+    void getUsers_CountModeNone_SkipsCountAndUsesLookAheadRow() {
+        List<UserSummary> users = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            users.add(new UserSummary(UUID.randomUUID(), "user" + i, "user" + i + "@example.com", null,
+                User.UserStatus.ACTIVE, false, null, LocalDateTime.now().minusMinutes(i)));
+        }
+
+        when(pageCountService.count(eq(CountMode.NONE), eq("users"), anyString(), any(), any())).thenReturn(-1L);
+        when(userRepository.findRange(20, 11, "ACTIVE", null)).thenReturn(users);
+        when(userRoleRepository.findActiveByUserIds(anyCollection())).thenReturn(Collections.emptyList());
+
+        PageResponse<UserResponse> page = userService.getUsers(2, 10, "ACTIVE", null, null, null, "none");
+
+        assertEquals(10, page.getContent().size());
+        assertEquals(-1, page.getTotalElements());
+        assertEquals(-1, page.getTotalPages());
+        assertTrue(page.isHasNext());
+        assertFalse(page.isLast());
+        assertEquals("none", page.getCountMode());
+        assertNotNull(page.getNextCursor());
+        verify(userRepository, never()).count(any(), any());
+    }
+
+    @Test
+    void setMfaSecret_RejectedWhileMfaEnabled() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setMfaEnabled(true);
+        user.setMfaSecret("ACTIVESECRET");
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        assertThrows(IllegalStateException.class,
+            () -> userService.setMfaSecret(user.getId().toString(), "NEWSECRET"));
+
+        verify(userRepository, never()).update(any());
+    }
+
+    @Test
+    void getPendingMfaSecret_HidesActiveSecret() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setMfaSecret("ACTIVESECRET");
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        assertEquals("ACTIVESECRET", userService.getPendingMfaSecret(user.getId().toString()));
+
+        user.setMfaEnabled(true);
+        assertNull(userService.getPendingMfaSecret(user.getId().toString()));
+    }
+
+    @Test
+    void activateUser_LiftsLoginLockout() {
+        UUID userId = UUID.randomUUID();
+        User activated = new User();
+        activated.setId(userId);
+        activated.setUsername("testuser");
+        activated.setEmail("test@example.com");
+        activated.setStatus(User.UserStatus.ACTIVE);
+        when(userRepository.update(any(User.class))).thenAnswer(invocation -> {
+            User change = invocation.getArgument(0);
+            assertTrue(change.changedFields().containsAll(
+                EnumSet.of(User.Field.STATUS, User.Field.LOGIN_ATTEMPTS, User.Field.LOCKED_UNTIL)));
+            assertNull(change.getLockedUntil());
+            return Optional.of(new UserChange(activated, "testuser", "test@example.com", User.UserStatus.LOCKED));
+        });
+
+        userService.activateUser(userId);
+
+        verify(loginLockoutService).clear(userId);
     }
 }
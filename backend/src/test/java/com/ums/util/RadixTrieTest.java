@@ -0,0 +1,56 @@
+package com.ums.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RadixTrieTest {
+
+    @Test
+    void findByPrefix_ReturnsMatchesInKeyOrder() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.put("alice", "Alice");
+        trie.put("alicia", "Alicia");
+        trie.put("al", "Al");
+        trie.put("bob", "Bob");
+
+        assertEquals(List.of("Al", "Alice", "Alicia"), trie.findByPrefix("al", 10));
+        assertEquals(List.of("Alice", "Alicia"), trie.findByPrefix("ali", 10));
+        assertEquals(List.of("Alice"), trie.findByPrefix("alic", 1));
+        assertEquals(List.of("Bob"), trie.findByPrefix("b", 10));
+        assertTrue(trie.findByPrefix("alx", 10).isEmpty());
+        assertTrue(trie.findByPrefix("alicex", 10).isEmpty());
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void put_ReplacesExistingValue() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.put("carol", "carol");
+        trie.put("carol", "Carol");
+
+        assertEquals("Carol", trie.get("carol"));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    void remove_CompactsPathAndKeepsSiblings() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.put("team", "team");
+        trie.put("tea", "tea");
+        trie.put("ten", "ten");
+
+        assertTrue(trie.remove("tea"));
+        assertFalse(trie.remove("tea"));
+        assertFalse(trie.remove("te"));
+        assertNull(trie.get("tea"));
+        assertEquals("team", trie.get("team"));
+        assertEquals(List.of("team", "ten"), trie.findByPrefix("te", 10));
+
+        assertTrue(trie.remove("ten"));
+        assertEquals(List.of("team"), trie.findByPrefix("t", 10));
+        assertEquals(1, trie.size());
+    }
+}
@@ -0,0 +1,44 @@
+package com.ums.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourcePathMatcherTest {
+
+    @Test
+    void match_PrefersMostSpecificPattern() {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        patterns.put("/api/v1/**", "api");
+        patterns.put("/api/v1/users/**", "users");
+        patterns.put("/api/v1/users/{id}/roles", "user-roles");
+        patterns.put("/api/v1/users/me", "me");
+        ResourcePathMatcher<String> matcher = ResourcePathMatcher.compile(patterns);
+
+        assertEquals("me", matcher.match("/api/v1/users/me"));
+        assertEquals("user-roles", matcher.match("/api/v1/users/42/roles"));
+        assertEquals("users", matcher.match("/api/v1/users/42"));
+        assertEquals("users", matcher.match("/api/v1/users"));
+        assertEquals("users", matcher.match("/api/v1/users/42/roles/7/"));
+        assertEquals("api", matcher.match("/api/v1/roles"));
+        assertNull(matcher.match("/health"));
+        assertEquals(4, matcher.size());
+    }
+
+    @Test
+    void match_HandlesSegmentGlobsAndInnerDoubleWildcard() {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        patterns.put("/files/**/*.pdf", "pdf");
+        patterns.put("/api/v?/status", "status");
+        ResourcePathMatcher<String> matcher = ResourcePathMatcher.compile(patterns);
+
+        assertEquals("pdf", matcher.match("/files/a/b/report.pdf"));
+        assertEquals("pdf", matcher.match("/files/report.pdf"));
+        assertNull(matcher.match("/files/a/report.txt"));
+        assertEquals("status", matcher.match("/api/v2/status"));
+        assertNull(matcher.match("/api/v10/status"));
+    }
+}
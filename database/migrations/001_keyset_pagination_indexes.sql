@@ -0,0 +1,29 @@
+-- Composite indexes backing keyset (cursor) pagination on the list endpoints.
+-- Each index matches the ORDER BY ... , id DESC of the corresponding query so
+-- a page is a single index range scan regardless of how deep it is.
+-- Run outside a transaction block (CREATE INDEX CONCURRENTLY).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_created_id
+    ON users(created_at DESC, id DESC) WHERE deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_roles_priority_id
+    ON roles(priority DESC, id DESC) WHERE deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_permissions_created_id
+    ON permissions(created_at DESC, id DESC) WHERE deleted_at IS NULL;
+
+-- Audit indexes are widened in place: build the new ones, then swap names.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_audit_logs_user_keyset
+    ON audit_logs(user_id, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_audit_logs_entity_keyset
+    ON audit_logs(entity_type, entity_id, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_audit_logs_created_keyset
+    ON audit_logs(created_at DESC, id DESC);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_audit_logs_user;
+DROP INDEX CONCURRENTLY IF EXISTS idx_audit_logs_entity;
+DROP INDEX CONCURRENTLY IF EXISTS idx_audit_logs_created;
+
+ALTER INDEX IF EXISTS idx_audit_logs_user_keyset RENAME TO idx_audit_logs_user;
+ALTER INDEX IF EXISTS idx_audit_logs_entity_keyset RENAME TO idx_audit_logs_entity;
+ALTER INDEX IF EXISTS idx_audit_logs_created_keyset RENAME TO idx_audit_logs_created;
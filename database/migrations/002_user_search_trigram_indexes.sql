@@ -0,0 +1,13 @@
+-- Trigram indexes for user search. The list endpoint filters with
+-- username/email ILIKE '%term%', which a btree index cannot serve; GIN
+-- gin_trgm_ops indexes can, and they also back the similarity ranking
+-- (% operator and similarity()) used by sort=relevance.
+-- Run outside a transaction block (CREATE INDEX CONCURRENTLY).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_trgm
+    ON users USING gin (username gin_trgm_ops) WHERE deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_trgm
+    ON users USING gin (email gin_trgm_ops) WHERE deleted_at IS NULL;
@@ -0,0 +1,18 @@
+-- Unique index over active role assignments. Bulk role grants insert with
+-- ON CONFLICT against it, so granting a role a user already holds (in the
+-- same scope) is skipped instead of creating a duplicate row.
+-- Existing duplicates are revoked first, keeping the most recent grant.
+-- Run outside a transaction block (CREATE INDEX CONCURRENTLY).
+
+UPDATE user_roles ur SET revoked_at = NOW()
+FROM (
+    SELECT id, ROW_NUMBER() OVER (
+        PARTITION BY user_id, role_id, COALESCE(scope, '')
+        ORDER BY granted_at DESC, id DESC) AS rn
+    FROM user_roles
+    WHERE revoked_at IS NULL
+) dup
+WHERE ur.id = dup.id AND dup.rn > 1;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_user_roles_active_unique
+    ON user_roles (user_id, role_id, (COALESCE(scope, ''))) WHERE revoked_at IS NULL;
@@ -0,0 +1,8 @@
+-- Covering index for the role lookup done on every login and token refresh
+-- (SELECT role_id ... WHERE user_id = ? AND revoked_at IS NULL AND expires_at
+-- check). With role_id and expires_at included it can be answered by an
+-- index-only scan once the table is vacuumed.
+-- Run outside a transaction block (CREATE INDEX CONCURRENTLY).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_roles_active_user
+    ON user_roles (user_id) INCLUDE (role_id, expires_at) WHERE revoked_at IS NULL;
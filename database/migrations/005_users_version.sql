@@ -0,0 +1,6 @@
+-- Row version for optimistic locking of user updates. Every UPDATE bumps it;
+-- conditional updates (If-Match on PATCH /users/{id}) compare it in the
+-- WHERE clause. Adding a column with a constant default does not rewrite
+-- the table on PostgreSQL 11+.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,59 @@
+-- Archive tables for users soft-deleted longer than the retention period.
+-- The archiver moves each user with its role assignments and refresh tokens
+-- out of the hot tables; restoring a user moves them back.
+-- Foreign keys that point at users from rows which must outlive an archived
+-- user are dropped: user_roles.granted_by would block the delete, and
+-- audit_logs.user_id would be nulled by ON DELETE SET NULL.
+-- Run outside a transaction block (CREATE INDEX CONCURRENTLY).
+
+ALTER TABLE user_roles DROP CONSTRAINT IF EXISTS user_roles_granted_by_fkey;
+ALTER TABLE audit_logs DROP CONSTRAINT IF EXISTS audit_logs_user_id_fkey;
+
+CREATE TABLE IF NOT EXISTS users_archive (
+    id UUID PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    phone VARCHAR(20),
+    status user_status NOT NULL,
+    mfa_enabled BOOLEAN,
+    mfa_secret VARCHAR(255),
+    last_login_at TIMESTAMP,
+    login_attempts INTEGER,
+    locked_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    deleted_at TIMESTAMP,
+    version BIGINT NOT NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_roles_archive (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    role_id UUID,
+    scope VARCHAR(255),
+    scope_type scope_type,
+    granted_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP,
+    granted_by UUID,
+    revoked_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens_archive (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP,
+    ip_address INET,
+    user_agent TEXT,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Indexes for archive tables
+CREATE INDEX IF NOT EXISTS idx_user_roles_archive_user ON user_roles_archive(user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_archive_user ON refresh_tokens_archive(user_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_deleted_at
+    ON users (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,66 @@
+-- Counter cache of active role assignments, read by the role listing
+-- instead of a COUNT(*) per role. Statement-level triggers with transition
+-- tables apply one aggregated delta per role per statement, so bulk grants
+-- and revocations touch each counter row once.
+-- The table lock keeps assignments from changing between installing the
+-- triggers and the backfill; run it in one transaction.
+
+BEGIN;
+
+LOCK TABLE user_roles IN SHARE ROW EXCLUSIVE MODE;
+
+CREATE TABLE IF NOT EXISTS role_member_counts (
+    role_id UUID PRIMARY KEY REFERENCES roles(id) ON DELETE CASCADE,
+    member_count INTEGER DEFAULT 0 NOT NULL
+);
+
+CREATE OR REPLACE FUNCTION role_member_counts_sync() RETURNS TRIGGER AS $$
+BEGIN
+    -- Each branch only touches the transition tables its event provides
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO role_member_counts AS c (role_id, member_count)
+        SELECT role_id, COUNT(*) FROM new_rows
+        WHERE revoked_at IS NULL AND role_id IS NOT NULL
+        GROUP BY role_id ORDER BY role_id
+        ON CONFLICT (role_id) DO UPDATE SET member_count = c.member_count + EXCLUDED.member_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE role_member_counts c SET member_count = c.member_count - d.n
+        FROM (SELECT role_id, COUNT(*) AS n FROM old_rows WHERE revoked_at IS NULL GROUP BY role_id) d
+        WHERE c.role_id = d.role_id;
+    ELSE
+        INSERT INTO role_member_counts AS c (role_id, member_count)
+        SELECT role_id, SUM(delta) FROM (
+            SELECT role_id, 1 AS delta FROM new_rows WHERE revoked_at IS NULL
+            UNION ALL
+            SELECT role_id, -1 AS delta FROM old_rows WHERE revoked_at IS NULL
+        ) d
+        WHERE role_id IS NOT NULL
+        GROUP BY role_id HAVING SUM(delta) <> 0 ORDER BY role_id
+        ON CONFLICT (role_id) DO UPDATE SET member_count = c.member_count + EXCLUDED.member_count;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_user_roles_count_insert ON user_roles;
+CREATE TRIGGER trg_user_roles_count_insert AFTER INSERT ON user_roles
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION role_member_counts_sync();
+
+DROP TRIGGER IF EXISTS trg_user_roles_count_update ON user_roles;
+CREATE TRIGGER trg_user_roles_count_update AFTER UPDATE ON user_roles
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION role_member_counts_sync();
+
+DROP TRIGGER IF EXISTS trg_user_roles_count_delete ON user_roles;
+CREATE TRIGGER trg_user_roles_count_delete AFTER DELETE ON user_roles
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION role_member_counts_sync();
+
+INSERT INTO role_member_counts (role_id, member_count)
+SELECT role_id, COUNT(*) FROM user_roles
+WHERE revoked_at IS NULL AND role_id IS NOT NULL
+GROUP BY role_id
+ON CONFLICT (role_id) DO UPDATE SET member_count = EXCLUDED.member_count;
+
+COMMIT;
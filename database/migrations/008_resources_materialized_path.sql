@@ -0,0 +1,25 @@
+-- Materialized path for the resource tree. Each row stores the ids from its
+-- root down to itself ('/<root-id>/.../<id>/'), so a subtree is the range of
+-- paths starting with the node's path and the ancestors are the ids in it.
+-- The column uses binary collation, so a plain btree index answers the
+-- subtree range with parameters in a generic plan.
+
+ALTER TABLE resources ADD COLUMN IF NOT EXISTS path TEXT COLLATE "C";
+
+WITH RECURSIVE tree AS (
+    SELECT id, '/' || id || '/' AS path
+    FROM resources
+    WHERE parent_id IS NULL
+    UNION ALL
+    SELECT r.id, t.path || r.id || '/'
+    FROM resources r
+    JOIN tree t ON r.parent_id = t.id
+)
+UPDATE resources r SET path = tree.path
+FROM tree
+WHERE r.id = tree.id;
+
+-- Rows in a parent_id cycle are unreachable from a root; make them roots
+UPDATE resources SET parent_id = NULL, path = '/' || id || '/' WHERE path IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_resources_path ON resources (path);
@@ -0,0 +1,8 @@
+-- Composite index for audit searches filtered by action, in the same
+-- (filter, created_at DESC, id DESC) shape as the user and entity indexes,
+-- so a filtered page is one range scan per partition.
+-- CREATE INDEX CONCURRENTLY is not supported on a partitioned table; the
+-- build blocks audit writes per partition while it runs, and the
+-- application's ums.audit.overflow-policy applies once its queue fills.
+
+CREATE INDEX IF NOT EXISTS idx_audit_logs_action ON audit_logs(action, created_at DESC, id DESC);
@@ -0,0 +1,8 @@
+-- Failed-login lockouts used to set users.status to LOCKED as well as
+-- locked_until, and nothing ever set it back, so the first lockout was
+-- permanent. Lockouts now only write locked_until; this releases the
+-- accounts locked that way. Accounts locked without a deadline are untouched.
+
+UPDATE users
+SET status = 'ACTIVE', updated_at = NOW(), version = version + 1
+WHERE status = 'LOCKED' AND locked_until IS NOT NULL AND deleted_at IS NULL;
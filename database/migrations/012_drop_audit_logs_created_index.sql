@@ -0,0 +1,7 @@
+-- Drops the (created_at DESC, id DESC) B-tree that 009 used to build on every
+-- audit_logs partition. Time ranges are served by partition pruning plus
+-- idx_audit_logs_created_brin; the filtered listings keep their composite
+-- indexes. DROP INDEX CONCURRENTLY is not supported on a partitioned index;
+-- the drop itself is a catalog change and finishes quickly.
+
+DROP INDEX IF EXISTS idx_audit_logs_created;
@@ -5,6 +5,7 @@
 -- Enable required extensions
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 CREATE EXTENSION IF NOT EXISTS "pgcrypto";
+CREATE EXTENSION IF NOT EXISTS "pg_trgm";
 
 -- ============================================================
 -- ENUMS
@@ -56,7 +57,8 @@ CREATE TABLE IF NOT EXISTS users (
     locked_until TIMESTAMP,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
-    deleted_at TIMESTAMP
+    deleted_at TIMESTAMP,
+    version BIGINT DEFAULT 0 NOT NULL
 );
 
 -- Indexes for users
@@ -64,6 +66,11 @@ CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
 CREATE INDEX IF NOT EXISTS idx_users_status ON users(status);
 CREATE INDEX IF NOT EXISTS idx_users_deleted ON users(deleted_at) WHERE deleted_at IS NULL;
+-- Lets the archiver find users deleted before the retention cutoff
+CREATE INDEX IF NOT EXISTS idx_users_deleted_at ON users(deleted_at) WHERE deleted_at IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_users_created_id ON users(created_at DESC, id DESC) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (username gin_trgm_ops) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (email gin_trgm_ops) WHERE deleted_at IS NULL;
 
 -- ============================================================
 -- ROLES TABLE (with hierarchical structure)
@@ -83,6 +90,7 @@ CREATE TABLE IF NOT EXISTS roles (
 -- Indexes for roles
 CREATE INDEX IF NOT EXISTS idx_roles_parent ON roles(parent_id);
 CREATE INDEX IF NOT EXISTS idx_roles_name ON roles(name);
+CREATE INDEX IF NOT EXISTS idx_roles_priority_id ON roles(priority DESC, id DESC) WHERE deleted_at IS NULL;
 
 -- ============================================================
 -- RESOURCES TABLE
@@ -94,6 +102,9 @@ CREATE TABLE IF NOT EXISTS resources (
     name VARCHAR(255) NOT NULL,
     description TEXT,
     parent_id UUID REFERENCES resources(id) ON DELETE SET NULL,
+    -- Materialized path of ids from the root, e.g. '/<root-id>/<id>/'. Binary
+    -- collation so a subtree is one contiguous range of the index.
+    path TEXT COLLATE "C",
     metadata JSONB DEFAULT '{}',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
@@ -103,6 +114,7 @@ CREATE TABLE IF NOT EXISTS resources (
 -- Indexes for resources
 CREATE INDEX IF NOT EXISTS idx_resources_type ON resources(type);
 CREATE INDEX IF NOT EXISTS idx_resources_identifier ON resources(identifier);
+CREATE INDEX IF NOT EXISTS idx_resources_path ON resources(path);
 
 -- ============================================================
 -- PERMISSIONS TABLE
@@ -121,6 +133,7 @@ CREATE TABLE IF NOT EXISTS permissions (
 -- Indexes for permissions
 CREATE INDEX IF NOT EXISTS idx_permissions_resource ON permissions(resource_id);
 CREATE INDEX IF NOT EXISTS idx_permissions_name ON permissions(name);
+CREATE INDEX IF NOT EXISTS idx_permissions_created_id ON permissions(created_at DESC, id DESC) WHERE deleted_at IS NULL;
 
 -- ============================================================
 -- USER_ROLES TABLE (with scope support)
@@ -133,14 +146,75 @@ CREATE TABLE IF NOT EXISTS user_roles (
     scope_type scope_type,
     granted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
     expires_at TIMESTAMP,
-    granted_by UUID REFERENCES users(id),
+    -- No foreign key: the granting user may since have been moved to users_archive
+    granted_by UUID,
     revoked_at TIMESTAMP
 );
 
 -- Indexes for user_roles
 CREATE INDEX IF NOT EXISTS idx_user_roles_user ON user_roles(user_id);
 CREATE INDEX IF NOT EXISTS idx_user_roles_role ON user_roles(role_id);
+-- Covers the login/refresh role lookup (role_id, expires_at) so it can run as an index-only scan
+CREATE INDEX IF NOT EXISTS idx_user_roles_active_user
+    ON user_roles(user_id) INCLUDE (role_id, expires_at) WHERE revoked_at IS NULL;
 CREATE INDEX IF NOT EXISTS idx_user_roles_expires ON user_roles(expires_at);
+-- At most one active assignment per user, role and scope; the conflict target of bulk grants
+CREATE UNIQUE INDEX IF NOT EXISTS idx_user_roles_active_unique
+    ON user_roles(user_id, role_id, (COALESCE(scope, ''))) WHERE revoked_at IS NULL;
+
+-- ============================================================
+-- ROLE_MEMBER_COUNTS TABLE (counter cache for role listings)
+-- ============================================================
+-- Active (non-revoked) assignments per role, kept current by statement-level
+-- triggers on user_roles so listings never recount. Roles without a row have
+-- no active assignments.
+CREATE TABLE IF NOT EXISTS role_member_counts (
+    role_id UUID PRIMARY KEY REFERENCES roles(id) ON DELETE CASCADE,
+    member_count INTEGER DEFAULT 0 NOT NULL
+);
+
+CREATE OR REPLACE FUNCTION role_member_counts_sync() RETURNS TRIGGER AS $$
+BEGIN
+    -- Each branch only touches the transition tables its event provides
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO role_member_counts AS c (role_id, member_count)
+        SELECT role_id, COUNT(*) FROM new_rows
+        WHERE revoked_at IS NULL AND role_id IS NOT NULL
+        GROUP BY role_id ORDER BY role_id
+        ON CONFLICT (role_id) DO UPDATE SET member_count = c.member_count + EXCLUDED.member_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE role_member_counts c SET member_count = c.member_count - d.n
+        FROM (SELECT role_id, COUNT(*) AS n FROM old_rows WHERE revoked_at IS NULL GROUP BY role_id) d
+        WHERE c.role_id = d.role_id;
+    ELSE
+        INSERT INTO role_member_counts AS c (role_id, member_count)
+        SELECT role_id, SUM(delta) FROM (
+            SELECT role_id, 1 AS delta FROM new_rows WHERE revoked_at IS NULL
+            UNION ALL
+            SELECT role_id, -1 AS delta FROM old_rows WHERE revoked_at IS NULL
+        ) d
+        WHERE role_id IS NOT NULL
+        GROUP BY role_id HAVING SUM(delta) <> 0 ORDER BY role_id
+        ON CONFLICT (role_id) DO UPDATE SET member_count = c.member_count + EXCLUDED.member_count;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_user_roles_count_insert ON user_roles;
+CREATE TRIGGER trg_user_roles_count_insert AFTER INSERT ON user_roles
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION role_member_counts_sync();
+
+DROP TRIGGER IF EXISTS trg_user_roles_count_update ON user_roles;
+CREATE TRIGGER trg_user_roles_count_update AFTER UPDATE ON user_roles
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION role_member_counts_sync();
+
+DROP TRIGGER IF EXISTS trg_user_roles_count_delete ON user_roles;
+CREATE TRIGGER trg_user_roles_count_delete AFTER DELETE ON user_roles
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION role_member_counts_sync();
 
 -- ============================================================
 -- ROLE_PERMISSIONS TABLE
@@ -177,9 +251,13 @@ CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires ON refresh_tokens(expires_
 -- ============================================================
 -- AUDIT_LOGS TABLE
 -- ============================================================
+-- Range-partitioned by month on created_at. Partitions are created ahead of
+-- time by the application (audit_logs_create_partitions) and old months are
+-- detached or dropped whole by the retention job instead of DELETEd.
 CREATE TABLE IF NOT EXISTS audit_logs (
-    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
-    user_id UUID REFERENCES users(id) ON DELETE SET NULL,
+    id UUID DEFAULT uuid_generate_v4() NOT NULL,
+    -- No foreign key: audit rows keep their actor after the user is archived
+    user_id UUID,
     action audit_action NOT NULL,
     entity_type VARCHAR(100) NOT NULL,
     entity_id UUID,
@@ -188,13 +266,41 @@ CREATE TABLE IF NOT EXISTS audit_logs (
     ip_address INET,
     user_agent TEXT,
     metadata JSONB DEFAULT '{}',
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
-);
-
--- Indexes for audit_logs
-CREATE INDEX IF NOT EXISTS idx_audit_logs_user ON audit_logs(user_id);
-CREATE INDEX IF NOT EXISTS idx_audit_logs_entity ON audit_logs(entity_type, entity_id);
-CREATE INDEX IF NOT EXISTS idx_audit_logs_created ON audit_logs(created_at DESC);
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Creates the monthly partitions audit_logs_pYYYYMM from first_month through
+-- last_month that do not exist yet; returns how many were created.
+CREATE OR REPLACE FUNCTION audit_logs_create_partitions(first_month DATE, last_month DATE) RETURNS INTEGER AS $$
+DECLARE
+    partition_start DATE := date_trunc('month', first_month)::date;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    WHILE partition_start <= last_month LOOP
+        partition_name := 'audit_logs_p' || to_char(partition_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+                partition_name, partition_start, (partition_start + INTERVAL '1 month')::date);
+            created := created + 1;
+        END IF;
+        partition_start := (partition_start + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT audit_logs_create_partitions(CURRENT_DATE, (CURRENT_DATE + INTERVAL '3 months')::date);
+
+-- Indexes for audit_logs, created on every partition.
+-- Time ranges are served by partition pruning plus the BRIN index, a
+-- fraction of a B-tree's size since rows arrive in created_at order. An
+-- unfiltered latest-first page reads the newest partitions only.
+CREATE INDEX IF NOT EXISTS idx_audit_logs_user ON audit_logs(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_entity ON audit_logs(entity_type, entity_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_action ON audit_logs(action, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_created_brin ON audit_logs USING BRIN (created_at) WITH (pages_per_range = 32);
 
 -- ============================================================
 -- LOGIN_ATTEMPTS TABLE (for rate limiting)
@@ -212,6 +318,57 @@ CREATE TABLE IF NOT EXISTS login_attempts (
 CREATE INDEX IF NOT EXISTS idx_login_attempts_ip ON login_attempts(ip_address, attempted_at);
 CREATE INDEX IF NOT EXISTS idx_login_attempts_user ON login_attempts(username, attempted_at);
 
+-- ============================================================
+-- ARCHIVE TABLES (soft-deleted users past retention)
+-- ============================================================
+-- Same columns as the hot tables plus archived_at. No unique constraints, so
+-- an archived username or email can be reused; restoring checks on insert.
+CREATE TABLE IF NOT EXISTS users_archive (
+    id UUID PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    phone VARCHAR(20),
+    status user_status NOT NULL,
+    mfa_enabled BOOLEAN,
+    mfa_secret VARCHAR(255),
+    last_login_at TIMESTAMP,
+    login_attempts INTEGER,
+    locked_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    deleted_at TIMESTAMP,
+    version BIGINT NOT NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_roles_archive (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    role_id UUID,
+    scope VARCHAR(255),
+    scope_type scope_type,
+    granted_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP,
+    granted_by UUID,
+    revoked_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens_archive (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP,
+    ip_address INET,
+    user_agent TEXT,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Indexes for archive tables
+CREATE INDEX IF NOT EXISTS idx_user_roles_archive_user ON user_roles_archive(user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_archive_user ON refresh_tokens_archive(user_id);
+
 -- ============================================================
 -- SEED DATA
 -- ============================================================
@@ -242,6 +399,9 @@ INSERT INTO resources (id, type, identifier, name, description) VALUES
 ('660e8400-e29b-41d4-a716-446655440006', 'MENU', 'settings', 'Settings', 'Settings menu')
 ON CONFLICT (identifier) DO NOTHING;
 
+-- Seeded resources are roots
+UPDATE resources SET path = '/' || id || '/' WHERE path IS NULL AND parent_id IS NULL;
+
 -- Insert system permissions
 INSERT INTO permissions (id, name, resource_id, action) VALUES
 -- User permissions
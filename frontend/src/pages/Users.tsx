@@ -22,6 +22,7 @@ interface UserResponse {
   lastLoginAt: string;
   createdAt: string;
   roles: string[];
+  roleIds: string[];
 }
 
 interface User {
@@ -39,6 +40,7 @@ const Users: React.FC = () => {
   const { user, logout } = useAuth();
   const location = useLocation();
   const [searchQuery, setSearchQuery] = useState('');
+  const [suggestions, setSuggestions] = useState<string[]>([]);
   const [statusFilter, setStatusFilter] = useState('all');
   const [users, setUsers] = useState<User[]>([]);
   const [roles, setRoles] = useState<Role[]>([]);
@@ -64,6 +66,25 @@ const Users: React.FC = () => {
     status: 'PENDING' as 'ACTIVE' | 'INACTIVE' | 'LOCKED' | 'PENDING',
   });
 
+  useEffect(() => {
+    const q = searchQuery.trim();
+    if (q.length < 2) {
+      setSuggestions([]);
+      return;
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const response = await apiService.clientInstance.get<{ data: string[] }>('/users/suggest', {
+          params: { q, limit: 8 },
+        });
+        setSuggestions(response.data.data || []);
+      } catch (err) {
+        setSuggestions([]);
+      }
+    }, 150);
+    return () => clearTimeout(timer);
+  }, [searchQuery]);
+
   const fetchRoles = async () => {
     try {
       const response = await apiService.getRoles(0, 100);
@@ -86,7 +107,7 @@ const Users: React.FC = () => {
         email: u.email,
         status: (u.status as 'ACTIVE' | 'INACTIVE' | 'LOCKED' | 'PENDING') || 'PENDING',
         role: u.roles && u.roles.length > 0 ? u.roles[0] : 'User',
-        roleIds: u.roles || [],
+        roleIds: u.roleIds || [],
         lastLogin: u.lastLoginAt ? new Date(u.lastLoginAt).toLocaleString() : 'Never',
         createdAt: u.createdAt ? new Date(u.createdAt).toLocaleDateString() : 'N/A',
       }));
@@ -401,7 +422,13 @@ const Users: React.FC = () => {
                 onChange={(e) => setSearchQuery(e.target.value)}
                 className="input-with-icon"
                 aria-label="Search users"
+                list="user-search-suggestions"
               />
+              <datalist id="user-search-suggestions">
+                {suggestions.map(s => (
+                  <option key={s} value={s} />
+                ))}
+              </datalist>
             </div>
             <div className="flex items-center space-x-3">
               <div className="relative">
@@ -22,8 +22,7 @@ export const authService = {
   },
 
   verifyMfa: async (code: string, tempToken: string) => {
-    return apiService.clientInstance.post('/auth/mfa/verify', { code }, {
-      headers: { 'X-Auth-Token': tempToken }
-    });
+    // Exchanges the temporary MFA token for session cookies
+    return apiService.clientInstance.post('/auth/mfa/login', { mfaToken: tempToken, code });
   },
 };